@@ -0,0 +1,102 @@
+package com.pinwood.app.data.model;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.pinwood.app.data.model.cart.CartItem;
+import com.pinwood.app.data.model.product.Product;
+import com.pinwood.app.data.model.user.User;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tiempo de los codecs generados frente a los fromMap/toMap escritos a mano que reemplazan,
+ * sobre un corpus sintético de 10k documentos, en el dispositivo. Falla si un codec generado
+ * es claramente más lento que la versión a mano.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ModelCodecBenchmark {
+    private static final String TAG = "ModelCodecBenchmark";
+    private static final int CORPUS_SIZE = 10_000;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 30;
+    // Margen para el ruido de medición en el dispositivo
+    private static final double MAX_SLOWDOWN = 1.5;
+
+    @Test
+    public void productDecode() {
+        compare("Product", ModelCodecFixtures.productCorpus(CORPUS_SIZE),
+                ModelCodecFixtures::legacyProduct, Product::fromMap);
+    }
+
+    @Test
+    public void cartItemDecode() {
+        compare("CartItem", ModelCodecFixtures.cartCorpus(CORPUS_SIZE),
+                ModelCodecFixtures::legacyCartItem, CartItem::fromMap);
+    }
+
+    @Test
+    public void userDecode() {
+        compare("User", ModelCodecFixtures.userCorpus(CORPUS_SIZE),
+                ModelCodecFixtures::legacyUser, User::fromMap);
+    }
+
+    @Test
+    public void productEncode() {
+        List<Product> decoded = new ArrayList<>(CORPUS_SIZE);
+        for (Map<String, Object> document : ModelCodecFixtures.productCorpus(CORPUS_SIZE)) {
+            decoded.add(Product.fromMap(document));
+        }
+        compare("Product.toMap", decoded, ModelCodecFixtures::legacyProductMap, Product::toMap);
+    }
+
+    private static <I, O> void compare(String label, List<I> corpus,
+                                       Function<I, O> legacy, Function<I, O> generated) {
+        // Alternar las dos versiones durante el calentamiento para que el JIT las trate igual
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run(corpus, legacy);
+            run(corpus, generated);
+        }
+        long legacyNanos = median(corpus, legacy);
+        long generatedNanos = median(corpus, generated);
+
+        Log.i(TAG, String.format("%s (%,d docs): a mano %d µs/ronda | generado %d µs/ronda",
+                label, corpus.size(), legacyNanos / 1_000, generatedNanos / 1_000));
+        assertTrue(label + ": el codec generado es más lento que la versión a mano",
+                generatedNanos <= legacyNanos * MAX_SLOWDOWN);
+    }
+
+    /**
+     * Mediana del tiempo por ronda.
+     */
+    private static <I, O> long median(List<I> corpus, Function<I, O> function) {
+        long[] samples = new long[MEASURED_ROUNDS];
+        for (int r = 0; r < MEASURED_ROUNDS; r++) {
+            long start = System.nanoTime();
+            run(corpus, function);
+            samples[r] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[samples.length / 2];
+    }
+
+    private static <I, O> void run(List<I> corpus, Function<I, O> function) {
+        int checksum = 0;
+        for (I item : corpus) {
+            O result = function.apply(item);
+            checksum += result != null ? 1 : 0;
+        }
+        assertEquals(corpus.size(), checksum);
+    }
+}
@@ -0,0 +1,90 @@
+package com.pinwood.app.data.remote;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.pinwood.app.utils.Constants;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Microbenchmark de construcción de consultas: ruta reflexiva anterior frente a {@link FirestoreQuery}.
+ * Solo construye la consulta y el listener (sin red), que es el coste que se pagaba en cada llamada.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FirestoreQueryBenchmark {
+    private static final String TAG = "FirestoreQueryBenchmark";
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 20_000;
+
+    @Test
+    public void compareReflectiveAndTypedQueryBuild() throws Exception {
+        FirebaseFirestore firestore = FirebaseFirestore.getInstance();
+
+        for (int i = 0; i < WARMUP; i++) {
+            buildReflective();
+            buildTyped(firestore);
+        }
+
+        long start = System.nanoTime();
+        Object sink = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = buildReflective();
+        }
+        long reflectiveNs = (System.nanoTime() - start) / ITERATIONS;
+        assertNotNull(sink);
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = buildTyped(firestore);
+        }
+        long typedNs = (System.nanoTime() - start) / ITERATIONS;
+        assertNotNull(sink);
+
+        Log.i(TAG, "reflexivo=" + reflectiveNs + " ns/consulta, tipado=" + typedNs + " ns/consulta");
+    }
+
+    /**
+     * Copia de la ruta que usaba FirestoreRepository.getCollectionData antes del cambio.
+     */
+    private Object buildReflective() throws Exception {
+        Class<?> firestoreClass = Class.forName("com.google.firebase.firestore.FirebaseFirestore");
+        Object firestore = firestoreClass.getMethod("getInstance").invoke(null);
+        Object query = firestore.getClass()
+                .getMethod("collection", String.class)
+                .invoke(firestore, Constants.COLLECTION_PRODUCTS);
+
+        Class<?> objectClass = Class.forName("java.lang.Object");
+        Method whereEqualToMethod = query.getClass().getMethod("whereEqualTo", String.class, objectClass);
+        query = whereEqualToMethod.invoke(query, "featured", true);
+
+        Method limitMethod = query.getClass().getMethod("limit", long.class);
+        query = limitMethod.invoke(query, 10L);
+
+        Class<?> completeListenerClass = Class.forName("com.google.android.gms.tasks.OnCompleteListener");
+        Object listener = java.lang.reflect.Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[]{completeListenerClass},
+                (proxy, method, args) -> null);
+        return listener != null ? query : null;
+    }
+
+    private Object buildTyped(FirebaseFirestore firestore) {
+        Query query = FirestoreQuery.collection(Constants.COLLECTION_PRODUCTS)
+                .whereEqualTo("featured", true)
+                .limit(10)
+                .build(firestore);
+        OnCompleteListener<QuerySnapshot> listener = task -> { };
+        return listener != null ? query : null;
+    }
+}
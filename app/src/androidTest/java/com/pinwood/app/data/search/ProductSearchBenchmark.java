@@ -0,0 +1,105 @@
+package com.pinwood.app.data.search;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.pinwood.app.data.model.product.Product;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Tiempo de construcción y latencia de consulta (media y p95) de los índices de búsqueda con
+ * catálogos sintéticos de 1k, 10k y 50k productos, en el dispositivo.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ProductSearchBenchmark {
+    private static final String TAG = "ProductSearchBenchmark";
+    private static final int[] SIZES = {1_000, 10_000, 50_000};
+    private static final int WARMUP = 200;
+    private static final int ROUNDS = 50;
+
+    private static final String[] TYPES = {
+            "Sillón", "Mesa de centro", "Escritorio", "Librería", "Librero", "Cama", "Sofá",
+            "Silla", "Comedor", "Buró", "Cómoda", "Ropero", "Banco", "Repisa", "Taburete"};
+    private static final String[] MATERIALS = {
+            "roble", "nogal", "pino", "caoba", "parota", "cedro", "metal", "ratán"};
+    private static final String[] STYLES = {
+            "moderno", "rústico", "nórdico", "industrial", "clásico", "minimalista"};
+    private static final String[] QUERIES = {
+            "sillon", "Sillón nogal", "mesa de centro", "mesa cen", "escri", "libr",
+            "sofa nordico", "cama roble", "comoda", "taburete metal", "rep", "bur"};
+    private static final String[] FUZZY_QUERIES = {
+            "sillom", "escritorrio", "cmooda", "mesa nogla", "taburte", "libreria"};
+
+    @Test
+    public void rankedIndex() {
+        for (int size : SIZES) {
+            measure("ranked", new ProductSearchIndex(), catalog(size), QUERIES);
+        }
+    }
+
+    @Test
+    public void fuzzyIndex() {
+        for (int size : SIZES) {
+            measure("fuzzy", new FuzzyProductSearchIndex(), catalog(size), FUZZY_QUERIES);
+        }
+    }
+
+    private static void measure(String name, ProductSearchStrategy index, List<Product> catalog, String[] queries) {
+        long buildStart = System.nanoTime();
+        index.indexAll(catalog);
+        long buildMs = (System.nanoTime() - buildStart) / 1_000_000;
+
+        for (int i = 0; i < WARMUP; i++) {
+            index.search(queries[i % queries.length], 50);
+        }
+
+        long[] samples = new long[ROUNDS * queries.length];
+        int n = 0;
+        for (int r = 0; r < ROUNDS; r++) {
+            for (String query : queries) {
+                long start = System.nanoTime();
+                index.search(query, 50);
+                samples[n++] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(samples);
+        long total = 0;
+        for (long sample : samples) {
+            total += sample;
+        }
+
+        Log.i(TAG, String.format("%s %,d productos: construcción %d ms, consulta media %d µs, p95 %d µs",
+                name, catalog.size(), buildMs, total / samples.length / 1_000,
+                samples[(int) (samples.length * 0.95)] / 1_000));
+        assertFalse(index.search(queries[0], 50).isEmpty());
+    }
+
+    private static List<Product> catalog(int size) {
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String type = TYPES[random.nextInt(TYPES.length)];
+            String material = MATERIALS[random.nextInt(MATERIALS.length)];
+            String style = STYLES[random.nextInt(STYLES.length)];
+            products.add(new Product(
+                    "p" + i,
+                    type + " " + material + " " + style + " " + i,
+                    type + " fabricado en " + material + " con acabado " + style
+                            + ". Ideal para sala, comedor u oficina.",
+                    1000, "muebles", null, Collections.emptyList(), Collections.emptyList(), 1,
+                    new ArrayList<>(Arrays.asList(material, style))));
+        }
+        return products;
+    }
+}
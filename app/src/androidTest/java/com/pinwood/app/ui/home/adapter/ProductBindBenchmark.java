@@ -0,0 +1,190 @@
+package com.pinwood.app.ui.home.adapter;
+
+import android.content.Context;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.pinwood.app.R;
+import com.pinwood.app.data.model.product.Product;
+import com.pinwood.app.utils.ImageLoader;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tiempo por frame al desplazar una cuadrícula larga: enlace anterior (formateador y listener
+ * nuevos en cada bind) frente a {@link ProductAdapter}. La cuadrícula no está en pantalla; cada
+ * "frame" es un desplazamiento más el layout que provoca, que es donde se enlazan las celdas.
+ * Los productos no tienen imágenes para no medir la red.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ProductBindBenchmark {
+    private static final String TAG = "ProductBindBenchmark";
+    private static final int PRODUCTS = 2_000;
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int SCROLL_PER_FRAME = 90;
+    private static final int WARMUP_FRAMES = 100;
+    private static final int FRAMES = 600;
+
+    @Test
+    public void compareLegacyAndCachedBind() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        List<Product> products = createProducts();
+
+        long[][] legacy = new long[1][];
+        long[][] cached = new long[1][];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            legacy[0] = scrollFrames(context, new LegacyProductAdapter(context, products));
+
+            ProductAdapter adapter = new ProductAdapter(context);
+            adapter.setProducts(products);
+            cached[0] = scrollFrames(context, adapter);
+        });
+
+        Log.i(TAG, "anterior " + summarize(legacy[0]));
+        Log.i(TAG, "cacheado " + summarize(cached[0]));
+        assertTrue(cached[0].length == FRAMES && legacy[0].length == FRAMES);
+    }
+
+    /**
+     * Desplaza la cuadrícula ida y vuelta (para volver a enlazar productos ya vistos) y
+     * devuelve los nanosegundos de cada frame medido.
+     */
+    private long[] scrollFrames(Context context, RecyclerView.Adapter<?> adapter) {
+        RecyclerView recyclerView = new RecyclerView(context);
+        recyclerView.setLayoutManager(new GridLayoutManager(context, 2));
+        recyclerView.setAdapter(adapter);
+        layout(recyclerView);
+
+        long[] frames = new long[FRAMES];
+        int direction = 1;
+        int travelled = 0;
+        for (int i = -WARMUP_FRAMES; i < FRAMES; i++) {
+            // Cambiar de sentido cada 200 frames
+            if (travelled == 200) {
+                direction = -direction;
+                travelled = 0;
+            }
+            travelled++;
+
+            long start = System.nanoTime();
+            recyclerView.scrollBy(0, direction * SCROLL_PER_FRAME);
+            layout(recyclerView);
+            long elapsed = System.nanoTime() - start;
+            if (i >= 0) {
+                frames[i] = elapsed;
+            }
+        }
+        return frames;
+    }
+
+    private static void layout(View view) {
+        view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    private static String summarize(long[] frames) {
+        long[] sorted = frames.clone();
+        Arrays.sort(sorted);
+        long total = 0;
+        for (long frame : sorted) {
+            total += frame;
+        }
+        return "p50=" + sorted[sorted.length / 2] / 1_000 + " µs, p90=" +
+                sorted[sorted.length * 9 / 10] / 1_000 + " µs, p99=" +
+                sorted[sorted.length * 99 / 100] / 1_000 + " µs, media=" +
+                total / sorted.length / 1_000 + " µs/frame";
+    }
+
+    private static List<Product> createProducts() {
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(new Product("p" + i, "Producto " + i, "", 999 + (i % 40) * 250.5,
+                    "Salas", null, Collections.emptyList(), Collections.emptyList(), 5,
+                    Collections.emptyList()));
+        }
+        return products;
+    }
+
+    /**
+     * Copia del enlace que hacía ProductAdapter antes del cambio.
+     */
+    private static class LegacyProductAdapter extends RecyclerView.Adapter<LegacyProductAdapter.Holder> {
+        private final Context context;
+        private final List<Product> products;
+
+        LegacyProductAdapter(Context context, List<Product> products) {
+            this.context = context;
+            this.products = products;
+        }
+
+        @NonNull
+        @Override
+        public Holder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            return new Holder(LayoutInflater.from(parent.getContext())
+                    .inflate(R.layout.item_product, parent, false));
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull Holder holder, int position) {
+            holder.bind(products.get(position));
+        }
+
+        @Override
+        public int getItemCount() {
+            return products.size();
+        }
+
+        class Holder extends RecyclerView.ViewHolder {
+            private final ImageView productImage;
+            private final TextView productName;
+            private final TextView productPrice;
+            private final View productCard;
+
+            Holder(@NonNull View itemView) {
+                super(itemView);
+                productImage = itemView.findViewById(R.id.product_image);
+                productName = itemView.findViewById(R.id.product_name);
+                productPrice = itemView.findViewById(R.id.product_price);
+                productCard = itemView.findViewById(R.id.product_card);
+            }
+
+            void bind(Product product) {
+                productName.setText(product.getName());
+
+                NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("es", "MX"));
+                productPrice.setText(currencyFormat.format(product.getPrice()));
+
+                if (product.getImageUrls() != null && !product.getImageUrls().isEmpty()) {
+                    ImageLoader.loadImage(context, product.getImageUrls().get(0), productImage, R.drawable.ic_launcher_foreground);
+                } else {
+                    productImage.setImageResource(R.drawable.ic_launcher_foreground);
+                }
+
+                productCard.setOnClickListener(v -> {
+                });
+            }
+        }
+    }
+}
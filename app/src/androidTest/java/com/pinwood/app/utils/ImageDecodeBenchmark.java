@@ -0,0 +1,117 @@
+package com.pinwood.app.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.Shader;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.request.FutureTarget;
+import com.bumptech.glide.request.RequestOptions;
+import com.bumptech.glide.request.target.Target;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Memoria y tiempo de decodificación de una foto de producto para una celda de la cuadrícula:
+ * imagen original a tamaño completo (carga anterior), original reducida en RGB_565 y variante
+ * en miniatura del servidor reducida en RGB_565. Sin caché de memoria ni de disco.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ImageDecodeBenchmark {
+    private static final String TAG = "ImageDecodeBenchmark";
+    private static final int ORIGINAL_WIDTH = 4000;
+    private static final int ORIGINAL_HEIGHT = 3000;
+    private static final int THUMBNAIL_SIZE = 800;
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 10;
+
+    @Test
+    public void compareFullAndSizedDecode() throws Exception {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        int cell = context.getResources().getDisplayMetrics().widthPixels / 2;
+        ImageSpec spec = ImageSpec.of(cell, cell).opaque();
+
+        byte[] original = createJpeg(ORIGINAL_WIDTH, ORIGINAL_HEIGHT);
+        byte[] thumbnail = createJpeg(THUMBNAIL_SIZE, THUMBNAIL_SIZE);
+
+        RequestOptions full = new RequestOptions().centerCrop();
+        Result legacy = decode(context, original, full, Target.SIZE_ORIGINAL, Target.SIZE_ORIGINAL);
+        Result sized = decode(context, original, ImageLoader.decodeOptions(spec), cell, cell);
+        Result variant = decode(context, thumbnail, ImageLoader.decodeOptions(spec), cell, cell);
+
+        Log.i(TAG, "celda=" + cell + "px");
+        Log.i(TAG, "original completa      " + legacy + ", jpeg=" + original.length / 1024 + " KB");
+        Log.i(TAG, "original reducida 565  " + sized);
+        Log.i(TAG, "miniatura reducida 565 " + variant + ", jpeg=" + thumbnail.length / 1024 + " KB");
+        assertTrue(sized.bytes < legacy.bytes);
+        assertTrue(variant.bytes <= sized.bytes);
+    }
+
+    private Result decode(Context context, byte[] jpeg, RequestOptions options, int width, int height)
+            throws Exception {
+        RequestOptions uncached = options
+                .skipMemoryCache(true)
+                .diskCacheStrategy(DiskCacheStrategy.NONE);
+        Result result = new Result();
+        for (int i = -WARMUP; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            FutureTarget<Bitmap> target = Glide.with(context)
+                    .asBitmap()
+                    .load(jpeg)
+                    .apply(uncached)
+                    .submit(width, height);
+            Bitmap bitmap = target.get();
+            long elapsed = System.nanoTime() - start;
+            if (i >= 0) {
+                result.totalNs += elapsed;
+                result.bytes = bitmap.getAllocationByteCount();
+                result.config = bitmap.getConfig();
+                result.width = bitmap.getWidth();
+                result.height = bitmap.getHeight();
+            }
+            Glide.with(context).clear(target);
+        }
+        return result;
+    }
+
+    /**
+     * JPEG sintético con degradado (comprime como una foto, no como un color plano).
+     */
+    private static byte[] createJpeg(int width, int height) {
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        Paint paint = new Paint();
+        paint.setShader(new LinearGradient(0, 0, width, height, 0xFF8D6E63, 0xFF2E7D32, Shader.TileMode.MIRROR));
+        new Canvas(bitmap).drawRect(0, 0, width, height, paint);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.JPEG, 90, out);
+        bitmap.recycle();
+        return out.toByteArray();
+    }
+
+    private static class Result {
+        long totalNs;
+        int bytes;
+        Bitmap.Config config;
+        int width;
+        int height;
+
+        @Override
+        public String toString() {
+            return width + "x" + height + " " + config + ": " + bytes / 1024 + " KB, " +
+                    totalNs / ITERATIONS / 1_000_000 + " ms/decodificación";
+        }
+    }
+}
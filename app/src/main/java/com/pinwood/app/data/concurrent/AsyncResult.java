@@ -0,0 +1,284 @@
+package com.pinwood.app.data.concurrent;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Resultado asíncrono de una sola entrega, componible con {@link #map} y {@link #transform}.
+ *
+ * Toda la cadena derivada comparte el mismo {@link TaskScope}: cancelar cualquier eslabón
+ * cancela la tarea de origen y descarta los callbacks pendientes. Los operadores se ejecutan
+ * en el hilo que completa el resultado (el carril del repositorio), de modo que el único salto
+ * de hilo es la entrega final al LiveData.
+ */
+public final class AsyncResult<T> {
+    private static final int PENDING = 0;
+    private static final int SUCCEEDED = 1;
+    private static final int FAILED = 2;
+
+    /**
+     * Recibe el valor o el error; nunca se llama si el resultado se cancela.
+     */
+    public interface Callback<T> {
+        void onSuccess(T value);
+
+        void onError(Exception e);
+    }
+
+    private final TaskScope scope;
+    private final Runnable onScopeCancelled = this::dropCallbacks;
+    private final Runnable cancelAction = this::cancel;
+    private int state = PENDING;
+    private T value;
+    private Exception error;
+    private List<Callback<? super T>> callbacks = new ArrayList<>(1);
+    // Ámbitos externos enlazados con bindTo, que se sueltan al completarse
+    private List<TaskScope> owners;
+
+    private AsyncResult(TaskScope scope) {
+        this.scope = scope;
+        scope.onCancel(onScopeCancelled);
+    }
+
+    /**
+     * Resultado pendiente; quien lo crea lo completa con {@link #complete} o {@link #fail}.
+     */
+    public static <T> AsyncResult<T> create() {
+        return new AsyncResult<>(new TaskScope());
+    }
+
+    public static <T> AsyncResult<T> of(T value) {
+        AsyncResult<T> result = create();
+        result.complete(value);
+        return result;
+    }
+
+    /**
+     * Ámbito que la tarea de origen debe respetar para dejar de trabajar al cancelarse.
+     */
+    public TaskScope getScope() {
+        return scope;
+    }
+
+    public boolean isCancelled() {
+        return scope.isCancelled();
+    }
+
+    public boolean isDone() {
+        synchronized (this) {
+            return state != PENDING;
+        }
+    }
+
+    public void cancel() {
+        scope.cancel();
+    }
+
+    public void complete(T result) {
+        settle(SUCCEEDED, result, null);
+    }
+
+    public void fail(Exception e) {
+        settle(FAILED, null, e);
+    }
+
+    /**
+     * Cancela este resultado cuando {@code owner} se cancela (p. ej. al destruirse la pantalla
+     * o limpiarse el ViewModel). El enlace se suelta al completarse.
+     */
+    public AsyncResult<T> bindTo(TaskScope owner) {
+        synchronized (this) {
+            if (state != PENDING) {
+                return this;
+            }
+            if (owners == null) {
+                owners = new ArrayList<>(1);
+            }
+            owners.add(owner);
+        }
+        owner.onCancel(cancelAction);
+        return this;
+    }
+
+    /**
+     * Resultado derivado que aplica {@code mapper} al valor; una excepción del mapper se
+     * convierte en error.
+     */
+    public <R> AsyncResult<R> map(Function<? super T, ? extends R> mapper) {
+        AsyncResult<R> mapped = new AsyncResult<>(scope);
+        whenComplete(new Callback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                R converted;
+                try {
+                    converted = mapper.apply(result);
+                } catch (RuntimeException e) {
+                    mapped.fail(e);
+                    return;
+                }
+                mapped.complete(converted);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                mapped.fail(e);
+            }
+        });
+        return mapped;
+    }
+
+    /**
+     * Encadena otra operación asíncrona que depende del valor.
+     */
+    public <R> AsyncResult<R> transform(Function<? super T, AsyncResult<R>> next) {
+        AsyncResult<R> chained = new AsyncResult<>(scope);
+        whenComplete(new Callback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                AsyncResult<R> inner;
+                try {
+                    inner = next.apply(result);
+                } catch (RuntimeException e) {
+                    chained.fail(e);
+                    return;
+                }
+                // Cancelar la cadena también cancela la operación interna
+                inner.bindTo(scope);
+                inner.whenComplete(new Callback<R>() {
+                    @Override
+                    public void onSuccess(R value) {
+                        chained.complete(value);
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        chained.fail(e);
+                    }
+                });
+            }
+
+            @Override
+            public void onError(Exception e) {
+                chained.fail(e);
+            }
+        });
+        return chained;
+    }
+
+    /**
+     * Sustituye un error por el valor que devuelva {@code fallback}.
+     */
+    public AsyncResult<T> recover(Function<Exception, ? extends T> fallback) {
+        AsyncResult<T> recovered = new AsyncResult<>(scope);
+        whenComplete(new Callback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                recovered.complete(result);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                recovered.complete(fallback.apply(e));
+            }
+        });
+        return recovered;
+    }
+
+    /**
+     * Registra el callback; si el resultado ya está disponible se llama de inmediato.
+     */
+    public void whenComplete(Callback<? super T> callback) {
+        int current;
+        synchronized (this) {
+            current = state;
+            if (current == PENDING) {
+                if (callbacks != null) {
+                    callbacks.add(callback);
+                }
+                return;
+            }
+        }
+        dispatch(callback, current);
+    }
+
+    /**
+     * Publica el valor en {@code target} (un solo salto al hilo principal). Los errores no se
+     * publican; usar {@link #recover} antes si la vista necesita un valor por defecto.
+     */
+    public void into(MutableLiveData<? super T> target) {
+        whenComplete(new Callback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                target.postValue(result);
+            }
+
+            @Override
+            public void onError(Exception e) {
+            }
+        });
+    }
+
+    public LiveData<T> asLiveData() {
+        MutableLiveData<T> liveData = new MutableLiveData<>();
+        into(liveData);
+        return liveData;
+    }
+
+    private void settle(int newState, T result, Exception e) {
+        List<Callback<? super T>> pending;
+        List<TaskScope> bound;
+        synchronized (this) {
+            if (state != PENDING || scope.isCancelled()) {
+                return;
+            }
+            state = newState;
+            value = result;
+            error = e;
+            pending = callbacks;
+            bound = owners;
+            callbacks = null;
+            owners = null;
+        }
+
+        scope.removeOnCancel(onScopeCancelled);
+        if (bound != null) {
+            for (TaskScope owner : bound) {
+                owner.removeOnCancel(cancelAction);
+            }
+        }
+        if (pending != null) {
+            for (Callback<? super T> callback : pending) {
+                dispatch(callback, newState);
+            }
+        }
+    }
+
+    private void dispatch(Callback<? super T> callback, int finalState) {
+        if (scope.isCancelled()) {
+            return;
+        }
+        if (finalState == SUCCEEDED) {
+            callback.onSuccess(value);
+        } else {
+            callback.onError(error);
+        }
+    }
+
+    private void dropCallbacks() {
+        List<TaskScope> bound;
+        synchronized (this) {
+            callbacks = null;
+            bound = owners;
+            owners = null;
+        }
+        if (bound != null) {
+            for (TaskScope owner : bound) {
+                owner.removeOnCancel(cancelAction);
+            }
+        }
+    }
+}
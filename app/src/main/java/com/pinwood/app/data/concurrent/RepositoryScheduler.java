@@ -0,0 +1,310 @@
+package com.pinwood.app.data.concurrent;
+
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Planificador compartido por los repositorios en lugar de un único hilo.
+ *
+ * Un grupo acotado de hilos (según los núcleos del dispositivo) atiende una cola con
+ * prioridad: siempre se ejecuta antes lo visible para el usuario que la precarga, y esta antes
+ * que las sincronizaciones en segundo plano; dentro de un carril se respeta el orden de llegada.
+ * Cada hilo toma la prioridad del sistema del carril de la tarea que ejecuta
+ * ({@link TaskPriority#getThreadPriority()}). Las tareas con un {@link TaskScope} cancelado se
+ * descartan al salir de la cola.
+ */
+public final class RepositoryScheduler {
+    private static final String TAG = "RepositoryScheduler";
+
+    // Deja al menos un núcleo para el hilo principal y el render
+    private static final int POOL_SIZE =
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static final RepositoryScheduler INSTANCE = new RepositoryScheduler();
+
+    /**
+     * Métricas de un carril.
+     */
+    public static final class LaneStats {
+        private final TaskPriority priority;
+        private final int queueDepth;
+        private final long submitted;
+        private final long started;
+        private final long completed;
+        private final long cancelled;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+
+        LaneStats(TaskPriority priority, int queueDepth, long submitted, long started, long completed,
+                  long cancelled, long totalWaitNanos, long maxWaitNanos) {
+            this.priority = priority;
+            this.queueDepth = queueDepth;
+            this.submitted = submitted;
+            this.started = started;
+            this.completed = completed;
+            this.cancelled = cancelled;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+        }
+
+        public TaskPriority getPriority() {
+            return priority;
+        }
+
+        /**
+         * Tareas encoladas que aún no empezaron.
+         */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        public long getSubmitted() {
+            return submitted;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        public long getCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Espera media en cola (de encolar a empezar) en milisegundos.
+         */
+        public double getAverageWaitMillis() {
+            return started == 0 ? 0 : totalWaitNanos / 1e6 / started;
+        }
+
+        public double getMaxWaitMillis() {
+            return maxWaitNanos / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return priority + "{cola=" + queueDepth + ", enviadas=" + submitted + ", completadas=" + completed +
+                   ", canceladas=" + cancelled + ", espera media=" + String.format("%.1f", getAverageWaitMillis()) +
+                   "ms, espera máx=" + String.format("%.1f", getMaxWaitMillis()) + "ms}";
+        }
+    }
+
+    private static final class Lane {
+        final AtomicInteger queued = new AtomicInteger();
+        final AtomicLong submitted = new AtomicLong();
+        final AtomicLong started = new AtomicLong();
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong cancelled = new AtomicLong();
+        final AtomicLong totalWaitNanos = new AtomicLong();
+        final AtomicLong maxWaitNanos = new AtomicLong();
+    }
+
+    /**
+     * Tarea en cola, ordenada por carril y después por orden de llegada.
+     */
+    private final class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+        final TaskPriority priority;
+        final TaskScope scope;
+        final Runnable task;
+        final long sequence;
+        final long enqueuedAt;
+
+        PrioritizedTask(TaskPriority priority, TaskScope scope, Runnable task, long sequence) {
+            this.priority = priority;
+            this.scope = scope;
+            this.task = task;
+            this.sequence = sequence;
+            this.enqueuedAt = System.nanoTime();
+        }
+
+        @Override
+        public int compareTo(PrioritizedTask other) {
+            int byPriority = Integer.compare(priority.ordinal(), other.priority.ordinal());
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+
+        @Override
+        public void run() {
+            Lane lane = lanes[priority.ordinal()];
+            lane.queued.decrementAndGet();
+            if (scope != null && scope.isCancelled()) {
+                lane.cancelled.incrementAndGet();
+                return;
+            }
+
+            lane.started.incrementAndGet();
+            Thread current = Thread.currentThread();
+            if (current instanceof Worker) {
+                ((Worker) current).applyPriority(priority);
+            }
+            long wait = System.nanoTime() - enqueuedAt;
+            lane.totalWaitNanos.addAndGet(wait);
+            long max;
+            while (wait > (max = lane.maxWaitNanos.get()) && !lane.maxWaitNanos.compareAndSet(max, wait)) {
+                // Reintentar hasta fijar el máximo
+            }
+
+            try {
+                task.run();
+            } catch (Exception e) {
+                Log.e(TAG, "Error en tarea " + priority + ": " + e.getMessage());
+            } finally {
+                lane.completed.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Hilo del grupo; recuerda la prioridad aplicada para solo cambiarla al pasar a una tarea
+     * de otro carril.
+     */
+    private static final class Worker extends Thread {
+        private int threadPriority = Integer.MIN_VALUE;
+
+        Worker(Runnable runnable, String name) {
+            super(runnable, name);
+        }
+
+        void applyPriority(TaskPriority priority) {
+            if (threadPriority != priority.getThreadPriority()) {
+                threadPriority = priority.getThreadPriority();
+                Process.setThreadPriority(threadPriority);
+            }
+        }
+    }
+
+    private final Lane[] lanes = new Lane[TaskPriority.values().length];
+    private final Executor[] laneExecutors = new Executor[TaskPriority.values().length];
+    private final AtomicLong sequence = new AtomicLong();
+    private final ThreadPoolExecutor pool;
+    private final int poolSize;
+
+    private RepositoryScheduler() {
+        this(POOL_SIZE);
+    }
+
+    @VisibleForTesting
+    RepositoryScheduler(int poolSize) {
+        this.poolSize = poolSize;
+        for (TaskPriority priority : TaskPriority.values()) {
+            lanes[priority.ordinal()] = new Lane();
+            laneExecutors[priority.ordinal()] = task -> submit(priority, null, task);
+        }
+
+        ThreadFactory threadFactory = new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Worker(runnable, "repo-worker-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+        pool = new ThreadPoolExecutor(poolSize, poolSize, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<>(), threadFactory);
+        pool.allowCoreThreadTimeOut(true);
+    }
+
+    public static RepositoryScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Encola una tarea en el carril indicado; si {@code scope} se cancela antes de que empiece,
+     * se descarta.
+     */
+    public void submit(TaskPriority priority, TaskScope scope, Runnable task) {
+        Lane lane = lanes[priority.ordinal()];
+        lane.submitted.incrementAndGet();
+        lane.queued.incrementAndGet();
+        pool.execute(new PrioritizedTask(priority, scope, task, sequence.getAndIncrement()));
+    }
+
+    /**
+     * Executor de un carril, para APIs que piden un {@link Executor} (p. ej. listeners de Firestore).
+     */
+    public Executor lane(TaskPriority priority) {
+        return laneExecutors[priority.ordinal()];
+    }
+
+    /**
+     * Executor que ejecuta sus tareas de una en una y en orden sobre el carril indicado,
+     * para estado que no es seguro entre hilos (p. ej. un listener con su propio mapa).
+     */
+    public Executor serial(TaskPriority priority) {
+        return new SerialExecutor(lane(priority));
+    }
+
+    public LaneStats getStats(TaskPriority priority) {
+        Lane lane = lanes[priority.ordinal()];
+        return new LaneStats(priority, Math.max(0, lane.queued.get()), lane.submitted.get(),
+                lane.started.get(), lane.completed.get(), lane.cancelled.get(), lane.totalWaitNanos.get(), lane.maxWaitNanos.get());
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * Prioridad del sistema aplicada al hilo actual por el planificador, o
+     * {@code Integer.MIN_VALUE} si no es uno de sus hilos o aún no ejecutó ninguna tarea.
+     */
+    @VisibleForTesting
+    static int appliedThreadPriority() {
+        Thread current = Thread.currentThread();
+        return current instanceof Worker ? ((Worker) current).threadPriority : Integer.MIN_VALUE;
+    }
+
+    /**
+     * Registra las métricas de todos los carriles.
+     */
+    public void logStats() {
+        for (TaskPriority priority : TaskPriority.values()) {
+            Log.d(TAG, getStats(priority).toString());
+        }
+    }
+
+    private static final class SerialExecutor implements Executor {
+        private final Executor delegate;
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private Runnable active;
+
+        SerialExecutor(Executor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized void execute(Runnable task) {
+            tasks.offer(() -> {
+                try {
+                    task.run();
+                } finally {
+                    scheduleNext();
+                }
+            });
+            if (active == null) {
+                scheduleNext();
+            }
+        }
+
+        private synchronized void scheduleNext() {
+            active = tasks.poll();
+            if (active != null) {
+                delegate.execute(active);
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.pinwood.app.data.concurrent;
+
+import android.os.Process;
+
+/**
+ * Carriles del planificador de repositorios, de mayor a menor prioridad.
+ */
+public enum TaskPriority {
+    // Datos que la pantalla actual está esperando: compiten con el resto de la app en igualdad
+    USER_VISIBLE(Process.THREAD_PRIORITY_DEFAULT),
+    // Datos que probablemente se van a necesitar pronto (siguiente página, etc.)
+    PREFETCH(Process.THREAD_PRIORITY_BACKGROUND + Process.THREAD_PRIORITY_MORE_FAVORABLE),
+    // Sincronizaciones y mantenimiento que nadie espera
+    BACKGROUND(Process.THREAD_PRIORITY_BACKGROUND);
+
+    private final int threadPriority;
+
+    TaskPriority(int threadPriority) {
+        this.threadPriority = threadPriority;
+    }
+
+    /**
+     * Prioridad del sistema ({@link Process#setThreadPriority(int)}) del hilo mientras ejecuta
+     * una tarea de este carril; un valor menor es más favorable.
+     */
+    public int getThreadPriority() {
+        return threadPriority;
+    }
+}
@@ -0,0 +1,71 @@
+package com.pinwood.app.data.concurrent;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Ámbito de cancelación de las tareas de un solicitante (pantalla, ViewModel, paginador).
+ * Al cancelarlo, las tareas pendientes se descartan sin ejecutarse y los resultados que
+ * lleguen después no se entregan.
+ */
+public final class TaskScope {
+    private volatile boolean cancelled;
+    private final List<Runnable> cancelListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Ámbito que se cancela solo cuando el ciclo de vida llega a ON_DESTROY.
+     */
+    public static TaskScope forLifecycle(LifecycleOwner owner) {
+        TaskScope scope = new TaskScope();
+        owner.getLifecycle().addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onDestroy(@NonNull LifecycleOwner source) {
+                source.getLifecycle().removeObserver(this);
+                scope.cancel();
+            }
+        });
+        return scope;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void cancel() {
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+        for (Runnable listener : cancelListeners) {
+            listener.run();
+        }
+        cancelListeners.clear();
+    }
+
+    /**
+     * Ejecuta {@code listener} al cancelarse (o de inmediato si ya lo está).
+     */
+    public void onCancel(Runnable listener) {
+        if (cancelled) {
+            listener.run();
+            return;
+        }
+        cancelListeners.add(listener);
+        if (cancelled && cancelListeners.remove(listener)) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Quita un listener registrado con {@link #onCancel(Runnable)} cuando su tarea ya terminó.
+     */
+    public void removeOnCancel(Runnable listener) {
+        if (listener != null) {
+            cancelListeners.remove(listener);
+        }
+    }
+}
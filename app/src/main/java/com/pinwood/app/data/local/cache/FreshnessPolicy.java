@@ -0,0 +1,45 @@
+package com.pinwood.app.data.local.cache;
+
+/**
+ * Política de frescura de una consulta cacheada.
+ * Durante {@code maxAge} los datos se sirven sin consultar la red; después, y durante
+ * {@code staleWindow}, se sirven los datos caducados mientras se revalidan en segundo plano.
+ */
+public final class FreshnessPolicy {
+    private final long maxAgeMillis;
+    private final long staleWindowMillis;
+
+    private FreshnessPolicy(long maxAgeMillis, long staleWindowMillis) {
+        this.maxAgeMillis = maxAgeMillis;
+        this.staleWindowMillis = staleWindowMillis;
+    }
+
+    /**
+     * Sin datos caducados: al expirar se espera la respuesta de la red.
+     */
+    public static FreshnessPolicy networkFirst(long maxAgeMillis) {
+        return new FreshnessPolicy(maxAgeMillis, 0);
+    }
+
+    /**
+     * Modo stale-while-revalidate: muestra lo caducado y revalida en segundo plano.
+     */
+    public static FreshnessPolicy staleWhileRevalidate(long maxAgeMillis, long staleWindowMillis) {
+        return new FreshnessPolicy(maxAgeMillis, staleWindowMillis);
+    }
+
+    public long getMaxAgeMillis() {
+        return maxAgeMillis;
+    }
+
+    public long getStaleWindowMillis() {
+        return staleWindowMillis;
+    }
+
+    /**
+     * Indica si una entrada con el tiempo de vida restante indicado puede mostrarse mientras se revalida.
+     */
+    public boolean allowsStale(long remainingTtlMillis) {
+        return remainingTtlMillis > Long.MIN_VALUE && -remainingTtlMillis <= staleWindowMillis;
+    }
+}
@@ -0,0 +1,219 @@
+package com.pinwood.app.data.local.cache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caché LRU en memoria con presupuesto de entradas y de bytes, y expiración por entrada.
+ * Todos los métodos están sincronizados: se escribe desde el executor de los repositorios
+ * y se lee desde el hilo principal.
+ */
+public class MemoryCache<K, V> {
+
+    /**
+     * Estima el tamaño en bytes de un valor para aplicar el presupuesto.
+     */
+    public interface Weigher<V> {
+        int sizeOf(V value);
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final int size;
+        final long expiresAt;
+
+        Entry(V value, int size, long expiresAt) {
+            this.value = value;
+            this.size = size;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final int maxEntries;
+    private final long maxBytes;
+    private final Weigher<V> weigher;
+
+    private long bytes;
+    private long hits;
+    private long staleHits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    public MemoryCache(int maxEntries, long maxBytes, Weigher<V> weigher) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Devuelve el valor si existe y no ha expirado.
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            expirations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * Devuelve el valor aunque haya expirado (útil sin conexión o ante errores de red).
+     */
+    public synchronized V getStale(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        staleHits++;
+        return entry.value;
+    }
+
+    /**
+     * Indica si hay un valor (fresco o no) sin afectar el orden LRU ni los contadores.
+     */
+    public synchronized boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Tiempo restante de vida de la entrada en milisegundos, negativo si ya expiró.
+     */
+    public synchronized long getRemainingTtl(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null ? entry.expiresAt - System.currentTimeMillis() : Long.MIN_VALUE;
+    }
+
+    public synchronized void put(K key, V value, long ttlMillis) {
+        if (key == null || value == null) {
+            return;
+        }
+
+        int size = Math.max(1, weigher.sizeOf(value));
+        Entry<V> previous = entries.put(key, new Entry<>(value, size, System.currentTimeMillis() + ttlMillis));
+        if (previous != null) {
+            bytes -= previous.size;
+        }
+        bytes += size;
+
+        trimTo(maxEntries, maxBytes);
+    }
+
+    public synchronized V remove(K key) {
+        Entry<V> entry = entries.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        bytes -= entry.size;
+        return entry.value;
+    }
+
+    public synchronized void clear() {
+        evictions += entries.size();
+        entries.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Elimina todas las entradas expiradas.
+     */
+    public synchronized void removeExpired() {
+        long now = System.currentTimeMillis();
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry<V> entry = iterator.next();
+            if (entry.isExpired(now)) {
+                iterator.remove();
+                bytes -= entry.size;
+                expirations++;
+            }
+        }
+    }
+
+    /**
+     * Reduce la caché a una fracción de su presupuesto, desalojando primero lo menos usado.
+     */
+    public synchronized void trimToFraction(float fraction) {
+        if (fraction <= 0f) {
+            clear();
+            return;
+        }
+        trimTo((int) (maxEntries * fraction), (long) (maxBytes * fraction));
+    }
+
+    /**
+     * Copia de los valores vigentes, del menos al más recientemente usado.
+     */
+    public synchronized List<V> values() {
+        List<V> values = new ArrayList<>(entries.size());
+        for (Entry<V> entry : entries.values()) {
+            values.add(entry.value);
+        }
+        return values;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(entries.size(), bytes, hits, staleHits, misses, evictions, expirations);
+    }
+
+    private void trimTo(int entryLimit, long byteLimit) {
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while ((entries.size() > entryLimit || bytes > byteLimit) && iterator.hasNext()) {
+            Entry<V> eldest = iterator.next().getValue();
+            iterator.remove();
+            bytes -= eldest.size;
+            evictions++;
+        }
+    }
+
+    /**
+     * Instantánea inmutable de los contadores de la caché.
+     */
+    public static final class Stats {
+        public final int entryCount;
+        public final long bytes;
+        public final long hits;
+        public final long staleHits;
+        public final long misses;
+        public final long evictions;
+        public final long expirations;
+
+        Stats(int entryCount, long bytes, long hits, long staleHits, long misses, long evictions, long expirations) {
+            this.entryCount = entryCount;
+            this.bytes = bytes;
+            this.hits = hits;
+            this.staleHits = staleHits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+        }
+
+        public float getHitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0f : (float) hits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return "entradas=" + entryCount + ", bytes=" + bytes + ", aciertos=" + hits
+                    + ", aciertosCaducados=" + staleHits + ", fallos=" + misses
+                    + ", desalojos=" + evictions + ", expiraciones=" + expirations;
+        }
+    }
+}
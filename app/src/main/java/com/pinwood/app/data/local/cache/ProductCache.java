@@ -0,0 +1,228 @@
+package com.pinwood.app.data.local.cache;
+
+import android.content.ComponentCallbacks2;
+import android.util.Log;
+
+import com.pinwood.app.data.model.product.ArModel;
+import com.pinwood.app.data.model.product.Product;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Caché en memoria de productos individuales y de listas de productos (destacados, por categoría, etc.).
+ * Reemplaza los HashMap de ProductRepository con presupuestos fijos, expiración por entrada
+ * y liberación de memoria según el nivel de onTrimMemory.
+ */
+public class ProductCache {
+    private static final String TAG = "ProductCache";
+
+    // Presupuestos pensados para catálogos de unos pocos miles de productos
+    private static final int MAX_PRODUCTS = 2000;
+    private static final long MAX_PRODUCT_BYTES = 4L * 1024 * 1024;
+    private static final int MAX_LISTS = 64;
+
+    // Las listas solo guardan referencias a productos ya contados en la caché de productos
+    private static final int LIST_REFERENCE_BYTES = 8;
+
+    /**
+     * Recibe los productos que entran en caché (por ejemplo, para indexarlos en la búsqueda).
+     */
+    public interface OnProductsCachedListener {
+        void onProductsCached(Collection<Product> products);
+    }
+
+    private final MemoryCache<String, Product> products;
+    private final MemoryCache<String, List<Product>> lists;
+    private final long defaultTtlMillis;
+    private volatile OnProductsCachedListener onProductsCachedListener;
+
+    public ProductCache(long defaultTtlMillis) {
+        this.defaultTtlMillis = defaultTtlMillis;
+        this.products = new MemoryCache<>(MAX_PRODUCTS, MAX_PRODUCT_BYTES, ProductCache::estimateSize);
+        this.lists = new MemoryCache<>(MAX_LISTS, (long) MAX_PRODUCTS * LIST_REFERENCE_BYTES * 4,
+                list -> 16 + list.size() * LIST_REFERENCE_BYTES);
+    }
+
+    public void setOnProductsCachedListener(OnProductsCachedListener listener) {
+        this.onProductsCachedListener = listener;
+    }
+
+    public Product getProduct(String productId) {
+        return products.get(productId);
+    }
+
+    public Product getStaleProduct(String productId) {
+        return products.getStale(productId);
+    }
+
+    public void putProduct(Product product) {
+        if (product != null && product.getProductId() != null) {
+            products.put(product.getProductId(), product, defaultTtlMillis);
+            notifyCached(Collections.singletonList(product));
+        }
+    }
+
+    /**
+     * Guarda varios productos sueltos (por ejemplo, una página) con una sola notificación.
+     */
+    public void putProducts(List<Product> productList) {
+        if (productList == null) {
+            return;
+        }
+        for (Product product : productList) {
+            if (product != null && product.getProductId() != null) {
+                products.put(product.getProductId(), product, defaultTtlMillis);
+            }
+        }
+        notifyCached(productList);
+    }
+
+    public void removeProduct(String productId) {
+        products.remove(productId);
+    }
+
+    public List<Product> getList(String key) {
+        return lists.get(key);
+    }
+
+    public List<Product> getStaleList(String key) {
+        return lists.getStale(key);
+    }
+
+    public boolean hasList(String key) {
+        return lists.contains(key);
+    }
+
+    /**
+     * Tiempo de vida restante de la lista en milisegundos, negativo si ya expiró.
+     */
+    public long getListRemainingTtl(String key) {
+        return lists.getRemainingTtl(key);
+    }
+
+    /**
+     * Guarda una copia inmutable de la lista y también cada producto individual.
+     */
+    public void putList(String key, List<Product> productList) {
+        putList(key, productList, defaultTtlMillis);
+    }
+
+    public void putList(String key, List<Product> productList, long ttlMillis) {
+        if (key == null || productList == null) {
+            return;
+        }
+        List<Product> copy = Collections.unmodifiableList(new ArrayList<>(productList));
+        lists.put(key, copy, ttlMillis);
+        for (Product product : copy) {
+            if (product != null && product.getProductId() != null) {
+                products.put(product.getProductId(), product, defaultTtlMillis);
+            }
+        }
+        notifyCached(copy);
+    }
+
+    private void notifyCached(Collection<Product> cached) {
+        OnProductsCachedListener listener = onProductsCachedListener;
+        if (listener != null && !cached.isEmpty()) {
+            listener.onProductsCached(cached);
+        }
+    }
+
+    /**
+     * Guarda solo la lista, sin tocar los productos individuales ni notificar; para listas cuyos
+     * productos ya están en caché (p. ej. el catálogo tras una sincronización incremental).
+     */
+    public void putListOnly(String key, List<Product> productList, long ttlMillis) {
+        if (key != null && productList != null) {
+            lists.put(key, Collections.unmodifiableList(new ArrayList<>(productList)), ttlMillis);
+        }
+    }
+
+    public void removeList(String key) {
+        lists.remove(key);
+    }
+
+    /**
+     * Productos actualmente en caché, vigentes o no.
+     */
+    public List<Product> getCachedProducts() {
+        return products.values();
+    }
+
+    public void clear() {
+        products.clear();
+        lists.clear();
+    }
+
+    /**
+     * Libera memoria de forma gradual según el nivel recibido en onTrimMemory.
+     */
+    public void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_COMPLETE) {
+            clear();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            trimToFraction(0.25f);
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            trimToFraction(0.5f);
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            products.removeExpired();
+            lists.removeExpired();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+            trimToFraction(0.75f);
+        }
+        Log.d(TAG, "onTrimMemory(" + level + ") productos[" + products.getStats() + "] listas[" + lists.getStats() + "]");
+    }
+
+    private void trimToFraction(float fraction) {
+        products.trimToFraction(fraction);
+        lists.trimToFraction(fraction);
+    }
+
+    public MemoryCache.Stats getProductStats() {
+        return products.getStats();
+    }
+
+    public MemoryCache.Stats getListStats() {
+        return lists.getStats();
+    }
+
+    /**
+     * Estimación aproximada del tamaño retenido por un producto en el heap.
+     */
+    static int estimateSize(Product product) {
+        int size = 64
+                + sizeOf(product.getProductId())
+                + sizeOf(product.getName())
+                + sizeOf(product.getDescription())
+                + sizeOf(product.getCategory());
+
+        if (product.getDimensions() != null) {
+            size += 40 + sizeOf(product.getDimensions().getUnit());
+        }
+        if (product.getImageUrls() != null) {
+            for (String url : product.getImageUrls()) {
+                size += 8 + sizeOf(url);
+            }
+        }
+        if (product.getArModels() != null) {
+            for (ArModel model : product.getArModels()) {
+                size += 24 + (model != null ? sizeOf(model.getUrl()) + sizeOf(model.getFormat()) : 0);
+            }
+        }
+        if (product.getTags() != null) {
+            for (String tag : product.getTags()) {
+                size += 8 + sizeOf(tag);
+            }
+        }
+        return size;
+    }
+
+    private static int sizeOf(String value) {
+        return value == null ? 0 : 40 + value.length() * 2;
+    }
+}
@@ -65,6 +65,34 @@ public class PreferenceManager {
         return sharedPreferences.getString(Constants.PREF_USER_PHONE, null);
     }
     
+    // Marca de agua de la sincronización incremental (microsegundos del último updatedAt visto)
+    public void saveSyncWatermark(String collection, long watermarkMicros) {
+        SharedPreferences.Editor editor = sharedPreferences.edit();
+        editor.putLong(Constants.PREF_SYNC_WATERMARK_PREFIX + collection, watermarkMicros);
+        editor.apply();
+    }
+    
+    public long getSyncWatermark(String collection) {
+        return sharedPreferences.getLong(Constants.PREF_SYNC_WATERMARK_PREFIX + collection, 0L);
+    }
+    
+    public void saveLastFullSync(String collection, long timeMillis) {
+        SharedPreferences.Editor editor = sharedPreferences.edit();
+        editor.putLong(Constants.PREF_LAST_FULL_SYNC_PREFIX + collection, timeMillis);
+        editor.apply();
+    }
+    
+    public long getLastFullSync(String collection) {
+        return sharedPreferences.getLong(Constants.PREF_LAST_FULL_SYNC_PREFIX + collection, 0L);
+    }
+    
+    public void clearSyncState(String collection) {
+        SharedPreferences.Editor editor = sharedPreferences.edit();
+        editor.remove(Constants.PREF_SYNC_WATERMARK_PREFIX + collection);
+        editor.remove(Constants.PREF_LAST_FULL_SYNC_PREFIX + collection);
+        editor.apply();
+    }
+    
     // Limpiar información de usuario (logout)
     public void clearUserData() {
         SharedPreferences.Editor editor = sharedPreferences.edit();
@@ -0,0 +1,323 @@
+package com.pinwood.app.data.local.snapshot;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.pinwood.app.data.model.product.ArModel;
+import com.pinwood.app.data.model.product.Dimensions;
+import com.pinwood.app.data.model.product.Product;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Almacén en disco de listas de productos (destacados, nuevos, por categoría, etc.)
+ * en un formato binario compacto con cabecera versionada. Permite pintar la pantalla
+ * principal desde disco en el arranque en frío mientras se consulta Firestore.
+ *
+ * Formato de cada archivo:
+ * magic(int) versión(short) clave(string) guardadoEn(long) cantidad(int) productos...
+ */
+public class ProductSnapshotStore {
+    private static final String TAG = "ProductSnapshotStore";
+    private static final String DIRECTORY = "product_snapshots";
+
+    private static final int MAGIC = 0x50574E53; // "PWNS"
+    // Incrementar al cambiar el formato; los archivos de otra versión se descartan
+    private static final short FORMAT_VERSION = 1;
+
+    // Bytes mínimos que ocupa cada elemento: sirven para rechazar cantidades imposibles antes de
+    // reservar memoria con ellas (un archivo truncado o corrupto no debe provocar un OOM)
+    private static final int MIN_STRING_BYTES = 4;
+    private static final int MIN_AR_MODEL_BYTES = 2 * MIN_STRING_BYTES;
+    // id, nombre, descripción, precio, categoría, dimensiones, imágenes, modelos RA, stock, etiquetas
+    private static final int MIN_PRODUCT_BYTES = 3 * MIN_STRING_BYTES + 8 + MIN_STRING_BYTES + 1 + 4 + 4 + 4 + 4;
+
+    private final File directory;
+    private final Executor diskExecutor = Executors.newSingleThreadExecutor();
+
+    /**
+     * Lista de productos leída de disco junto con el momento en que se guardó.
+     */
+    public static final class Snapshot {
+        public final List<Product> products;
+        public final long savedAt;
+
+        Snapshot(List<Product> products, long savedAt) {
+            this.products = products;
+            this.savedAt = savedAt;
+        }
+    }
+
+    public interface SnapshotCallback {
+        void onSnapshot(Snapshot snapshot);
+    }
+
+    public ProductSnapshotStore(Context context) {
+        this(new File(context.getApplicationContext().getFilesDir(), DIRECTORY));
+    }
+
+    @VisibleForTesting
+    ProductSnapshotStore(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Lee la instantánea en el hilo de disco y entrega el resultado (o null) al callback.
+     */
+    public void readAsync(String key, SnapshotCallback callback) {
+        diskExecutor.execute(() -> callback.onSnapshot(read(key)));
+    }
+
+    /**
+     * Escribe la instantánea en el hilo de disco, reemplazando la anterior de forma atómica.
+     */
+    public void writeAsync(String key, List<Product> products) {
+        writeAsync(key, products, null);
+    }
+
+    /**
+     * Igual que {@link #writeAsync(String, List)}, pero ejecuta {@code onWritten} en el hilo de
+     * disco solo si la instantánea quedó guardada.
+     */
+    public void writeAsync(String key, List<Product> products, Runnable onWritten) {
+        if (key == null || products == null) {
+            return;
+        }
+        List<Product> copy = new ArrayList<>(products);
+        long savedAt = System.currentTimeMillis();
+        diskExecutor.execute(() -> {
+            if (write(key, copy, savedAt) && onWritten != null) {
+                onWritten.run();
+            }
+        });
+    }
+
+    public void deleteAsync(String key) {
+        diskExecutor.execute(() -> {
+            File file = fileFor(key);
+            if (file.exists() && !file.delete()) {
+                Log.w(TAG, "No se pudo borrar la instantánea " + key);
+            }
+        });
+    }
+
+    public void clearAsync() {
+        diskExecutor.execute(() -> {
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+        });
+    }
+
+    /**
+     * Lectura síncrona mediante un buffer mapeado en memoria; devuelve null si no existe,
+     * es de otra versión o está corrupta.
+     */
+    public Snapshot read(String key) {
+        File file = fileFor(key);
+        if (!file.exists()) {
+            return null;
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != MAGIC || buffer.getShort() != FORMAT_VERSION) {
+                Log.d(TAG, "Instantánea descartada por versión: " + key);
+                file.delete();
+                return null;
+            }
+            if (!key.equals(readString(buffer))) {
+                return null;
+            }
+
+            long savedAt = buffer.getLong();
+            int count = readCount(buffer, MIN_PRODUCT_BYTES);
+            List<Product> products = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                products.add(readProduct(buffer));
+            }
+            return new Snapshot(Collections.unmodifiableList(products), savedAt);
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            Log.e(TAG, "Error al leer instantánea " + key + ": " + e.getMessage());
+            file.delete();
+            return null;
+        }
+    }
+
+    boolean write(String key, List<Product> products, long savedAt) {
+        if (!directory.exists() && !directory.mkdirs()) {
+            Log.e(TAG, "No se pudo crear el directorio de instantáneas");
+            return false;
+        }
+
+        File target = fileFor(key);
+        File temp = new File(directory, target.getName() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            out.writeInt(MAGIC);
+            out.writeShort(FORMAT_VERSION);
+            writeString(out, key);
+            out.writeLong(savedAt);
+            out.writeInt(products.size());
+            for (Product product : products) {
+                writeProduct(out, product);
+            }
+            out.flush();
+            // A disco antes del rename: tras un corte de luz no debe quedar un archivo a medias
+            fileOut.getFD().sync();
+        } catch (IOException e) {
+            Log.e(TAG, "Error al escribir instantánea " + key + ": " + e.getMessage());
+            temp.delete();
+            return false;
+        }
+
+        if (!temp.renameTo(target)) {
+            Log.e(TAG, "No se pudo reemplazar la instantánea " + key);
+            temp.delete();
+            return false;
+        }
+        return true;
+    }
+
+    private File fileFor(String key) {
+        // El hash evita colisiones entre claves que solo difieren en caracteres no válidos
+        String safeName = key.replaceAll("[^A-Za-z0-9_-]", "_");
+        return new File(directory, safeName + "_" + Integer.toHexString(key.hashCode()) + ".bin");
+    }
+
+    private static void writeProduct(DataOutputStream out, Product product) throws IOException {
+        writeString(out, product.getProductId());
+        writeString(out, product.getName());
+        writeString(out, product.getDescription());
+        out.writeDouble(product.getPrice());
+        writeString(out, product.getCategory());
+
+        Dimensions dimensions = product.getDimensions();
+        out.writeBoolean(dimensions != null);
+        if (dimensions != null) {
+            out.writeDouble(dimensions.getWidth());
+            out.writeDouble(dimensions.getHeight());
+            out.writeDouble(dimensions.getDepth());
+            writeString(out, dimensions.getUnit());
+        }
+
+        writeStringList(out, product.getImageUrls());
+
+        List<ArModel> arModels = product.getArModels();
+        int arCount = arModels != null ? arModels.size() : 0;
+        out.writeInt(arCount);
+        for (int i = 0; i < arCount; i++) {
+            ArModel model = arModels.get(i);
+            writeString(out, model != null ? model.getUrl() : null);
+            writeString(out, model != null ? model.getFormat() : null);
+        }
+
+        out.writeInt(product.getAvailableStock());
+        writeStringList(out, product.getTags());
+    }
+
+    private static Product readProduct(ByteBuffer in) {
+        String productId = readString(in);
+        String name = readString(in);
+        String description = readString(in);
+        double price = in.getDouble();
+        String category = readString(in);
+
+        Dimensions dimensions = null;
+        if (in.get() != 0) {
+            double width = in.getDouble();
+            double height = in.getDouble();
+            double depth = in.getDouble();
+            dimensions = new Dimensions(width, height, depth, readString(in));
+        }
+
+        List<String> imageUrls = readStringList(in);
+
+        int arCount = readCount(in, MIN_AR_MODEL_BYTES);
+        List<ArModel> arModels = new ArrayList<>(arCount);
+        for (int i = 0; i < arCount; i++) {
+            String url = readString(in);
+            arModels.add(new ArModel(url, readString(in)));
+        }
+
+        int availableStock = in.getInt();
+        List<String> tags = readStringList(in);
+
+        return new Product(productId, name, description, price, category,
+                dimensions, imageUrls, arModels, availableStock, tags);
+    }
+
+    /**
+     * Lee una cantidad de elementos y comprueba que quepan en lo que queda del archivo.
+     */
+    private static int readCount(ByteBuffer in, int minBytesPerItem) {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining() / minBytesPerItem) {
+            throw new IllegalArgumentException("cantidad inválida: " + count);
+        }
+        return count;
+    }
+
+    private static void writeStringList(DataOutputStream out, List<String> values) throws IOException {
+        int count = values != null ? values.size() : 0;
+        out.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            writeString(out, values.get(i));
+        }
+    }
+
+    private static List<String> readStringList(ByteBuffer in) {
+        int count = readCount(in, MIN_STRING_BYTES);
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    // Longitud -1 representa null; el resto es UTF-8 sin el límite de 64 KB de writeUTF
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("longitud de texto inválida: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,8 +1,10 @@
 package com.pinwood.app.data.model.cart;
 
-import java.util.HashMap;
+import com.pinwood.codegen.FirestoreModel;
+
 import java.util.Map;
 
+@FirestoreModel
 public class CartItem {
     private String productId;
     private String name;
@@ -24,38 +26,12 @@ public class CartItem {
     
     // Método para convertir a Map para Firestore
     public Map<String, Object> toMap() {
-        Map<String, Object> map = new HashMap<>();
-        map.put("productId", productId);
-        map.put("name", name);
-        map.put("price", price);
-        map.put("quantity", quantity);
-        map.put("imageUrl", imageUrl);
-        return map;
+        return CartItemCodec.encode(this);
     }
     
     // Método para crear un objeto CartItem desde un Map de Firestore
     public static CartItem fromMap(Map<String, Object> map) {
-        if (map == null) return null;
-        
-        CartItem cartItem = new CartItem();
-        cartItem.productId = (String) map.get("productId");
-        cartItem.name = (String) map.get("name");
-        
-        if (map.get("price") instanceof Double) {
-            cartItem.price = (Double) map.get("price");
-        } else if (map.get("price") instanceof Long) {
-            cartItem.price = ((Long) map.get("price")).doubleValue();
-        }
-        
-        if (map.get("quantity") instanceof Integer) {
-            cartItem.quantity = (Integer) map.get("quantity");
-        } else if (map.get("quantity") instanceof Long) {
-            cartItem.quantity = ((Long) map.get("quantity")).intValue();
-        }
-        
-        cartItem.imageUrl = (String) map.get("imageUrl");
-        
-        return cartItem;
+        return CartItemCodec.decode(map);
     }
     
     // Getters y setters
@@ -1,8 +1,10 @@
 package com.pinwood.app.data.model.product;
 
-import java.util.HashMap;
+import com.pinwood.codegen.FirestoreModel;
+
 import java.util.Map;
 
+@FirestoreModel
 public class ArModel {
     private String url;
     private String format; // "glb", "gltf", etc.
@@ -18,21 +20,12 @@ public class ArModel {
     
     // Método para convertir a Map para Firestore
     public Map<String, Object> toMap() {
-        Map<String, Object> map = new HashMap<>();
-        map.put("url", url);
-        map.put("format", format);
-        return map;
+        return ArModelCodec.encode(this);
     }
     
     // Método para crear un objeto ArModel desde un Map de Firestore
     public static ArModel fromMap(Map<String, Object> map) {
-        if (map == null) return null;
-        
-        ArModel arModel = new ArModel();
-        arModel.url = (String) map.get("url");
-        arModel.format = (String) map.get("format");
-        
-        return arModel;
+        return ArModelCodec.decode(map);
     }
     
     // Getters y setters
@@ -1,8 +1,10 @@
 package com.pinwood.app.data.model.product;
 
-import java.util.HashMap;
+import com.pinwood.codegen.FirestoreModel;
+
 import java.util.Map;
 
+@FirestoreModel
 public class Dimensions {
     private double width;
     private double height;
@@ -22,41 +24,12 @@ public class Dimensions {
     
     // Método para convertir a Map para Firestore
     public Map<String, Object> toMap() {
-        Map<String, Object> map = new HashMap<>();
-        map.put("width", width);
-        map.put("height", height);
-        map.put("depth", depth);
-        map.put("unit", unit);
-        return map;
+        return DimensionsCodec.encode(this);
     }
     
     // Método para crear un objeto Dimensions desde un Map de Firestore
     public static Dimensions fromMap(Map<String, Object> map) {
-        if (map == null) return null;
-        
-        Dimensions dimensions = new Dimensions();
-        
-        if (map.get("width") instanceof Double) {
-            dimensions.width = (Double) map.get("width");
-        } else if (map.get("width") instanceof Long) {
-            dimensions.width = ((Long) map.get("width")).doubleValue();
-        }
-        
-        if (map.get("height") instanceof Double) {
-            dimensions.height = (Double) map.get("height");
-        } else if (map.get("height") instanceof Long) {
-            dimensions.height = ((Long) map.get("height")).doubleValue();
-        }
-        
-        if (map.get("depth") instanceof Double) {
-            dimensions.depth = (Double) map.get("depth");
-        } else if (map.get("depth") instanceof Long) {
-            dimensions.depth = ((Long) map.get("depth")).doubleValue();
-        }
-        
-        dimensions.unit = (String) map.get("unit");
-        
-        return dimensions;
+        return DimensionsCodec.decode(map);
     }
     
     // Getters y setters
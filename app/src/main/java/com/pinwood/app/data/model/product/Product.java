@@ -1,10 +1,13 @@
 package com.pinwood.app.data.model.product;
 
+import com.pinwood.codegen.FirestoreModel;
+
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
+@FirestoreModel
 public class Product {
     private String productId;
     private String name;
@@ -16,6 +19,10 @@ public class Product {
     private List<ArModel> arModels;
     private int availableStock;
     private List<String> tags;
+    // Hash de contenido calculado una sola vez (0 = sin calcular); los setters lo invalidan.
+    // Las listas y las dimensiones se tratan como inmutables una vez asignadas (los codecs
+    // ya las crean así). Un solo campo int: leerlo desde el hilo del diff es seguro
+    private transient int contentHash;
     
     // Constructor vacío requerido para Firestore
     public Product() {
@@ -41,78 +48,52 @@ public class Product {
     
     // Método para convertir a Map para Firestore
     public Map<String, Object> toMap() {
-        Map<String, Object> map = new HashMap<>();
-        map.put("productId", productId);
-        map.put("name", name);
-        map.put("description", description);
-        map.put("price", price);
-        map.put("category", category);
-        
-        if (dimensions != null) {
-            map.put("dimensions", dimensions.toMap());
-        }
-        
-        map.put("imageUrls", imageUrls);
-        
-        List<Map<String, Object>> arModelMaps = new ArrayList<>();
-        for (ArModel model : arModels) {
-            arModelMaps.add(model.toMap());
-        }
-        map.put("arModels", arModelMaps);
-        
-        map.put("availableStock", availableStock);
-        map.put("tags", tags);
-        
-        return map;
+        return ProductCodec.encode(this);
     }
     
     // Método para crear un objeto Product desde un Map de Firestore
     public static Product fromMap(Map<String, Object> map) {
-        if (map == null) return null;
-        
-        Product product = new Product();
-        product.productId = (String) map.get("productId");
-        product.name = (String) map.get("name");
-        product.description = (String) map.get("description");
-        
-        if (map.get("price") instanceof Double) {
-            product.price = (Double) map.get("price");
-        } else if (map.get("price") instanceof Long) {
-            product.price = ((Long) map.get("price")).doubleValue();
-        }
-        
-        product.category = (String) map.get("category");
-        
-        Map<String, Object> dimensionsMap = (Map<String, Object>) map.get("dimensions");
-        if (dimensionsMap != null) {
-            product.dimensions = Dimensions.fromMap(dimensionsMap);
+        return ProductCodec.decode(map);
+    }
+    
+    // Hash del contenido visible del producto, para detectar si una lista cambió realmente
+    public int contentHash() {
+        int hash = contentHash;
+        if (hash == 0) {
+            hash = computeContentHash();
+            // El 0 queda reservado para "sin calcular"
+            if (hash == 0) {
+                hash = 1;
+            }
+            contentHash = hash;
         }
-        
-        List<String> imageUrls = (List<String>) map.get("imageUrls");
-        if (imageUrls != null) {
-            product.imageUrls = imageUrls;
+        return hash;
+    }
+    
+    private int computeContentHash() {
+        int hash = Objects.hash(productId, name, description, price, category, availableStock, imageUrls, tags);
+        if (dimensions != null) {
+            hash = 31 * hash + Objects.hash(dimensions.getWidth(), dimensions.getHeight(),
+                    dimensions.getDepth(), dimensions.getUnit());
         }
-        
-        List<Map<String, Object>> arModelMaps = (List<Map<String, Object>>) map.get("arModels");
-        if (arModelMaps != null) {
-            product.arModels = new ArrayList<>();
-            for (Map<String, Object> modelMap : arModelMaps) {
-                product.arModels.add(ArModel.fromMap(modelMap));
+        if (arModels != null) {
+            for (ArModel model : arModels) {
+                hash = 31 * hash + (model != null ? Objects.hash(model.getUrl(), model.getFormat()) : 0);
             }
         }
-        
-        if (map.get("availableStock") instanceof Long) {
-            product.availableStock = ((Long) map.get("availableStock")).intValue();
-        } else if (map.get("availableStock") instanceof Integer) {
-            product.availableStock = (Integer) map.get("availableStock");
+        return hash;
+    }
+    
+    // Hash del contenido de una lista de productos, sensible al orden
+    public static int contentHash(List<Product> products) {
+        if (products == null) {
+            return 0;
         }
-        
-        List<String> tags = (List<String>) map.get("tags");
-        if (tags != null) {
-            product.tags = tags;
+        int hash = 1;
+        for (Product product : products) {
+            hash = 31 * hash + (product != null ? product.contentHash() : 0);
         }
-        
-        return product;
+        return hash;
     }
     
     // Getters y setters
@@ -122,6 +103,7 @@ public class Product {
     
     public void setProductId(String productId) {
         this.productId = productId;
+        contentHash = 0;
     }
     
     public String getName() {
@@ -130,6 +112,7 @@ public class Product {
     
     public void setName(String name) {
         this.name = name;
+        contentHash = 0;
     }
     
     public String getDescription() {
@@ -138,6 +121,7 @@ public class Product {
     
     public void setDescription(String description) {
         this.description = description;
+        contentHash = 0;
     }
     
     public double getPrice() {
@@ -146,6 +130,7 @@ public class Product {
     
     public void setPrice(double price) {
         this.price = price;
+        contentHash = 0;
     }
     
     public String getCategory() {
@@ -154,6 +139,7 @@ public class Product {
     
     public void setCategory(String category) {
         this.category = category;
+        contentHash = 0;
     }
     
     public Dimensions getDimensions() {
@@ -162,6 +148,7 @@ public class Product {
     
     public void setDimensions(Dimensions dimensions) {
         this.dimensions = dimensions;
+        contentHash = 0;
     }
     
     public List<String> getImageUrls() {
@@ -170,6 +157,7 @@ public class Product {
     
     public void setImageUrls(List<String> imageUrls) {
         this.imageUrls = imageUrls;
+        contentHash = 0;
     }
     
     public List<ArModel> getArModels() {
@@ -178,6 +166,7 @@ public class Product {
     
     public void setArModels(List<ArModel> arModels) {
         this.arModels = arModels;
+        contentHash = 0;
     }
     
     public int getAvailableStock() {
@@ -186,6 +175,7 @@ public class Product {
     
     public void setAvailableStock(int availableStock) {
         this.availableStock = availableStock;
+        contentHash = 0;
     }
     
     public List<String> getTags() {
@@ -194,5 +184,6 @@ public class Product {
     
     public void setTags(List<String> tags) {
         this.tags = tags;
+        contentHash = 0;
     }
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package com.pinwood.app.data.model.user;
 
-import java.util.HashMap;
+import com.pinwood.codegen.FirestoreModel;
+
 import java.util.Map;
 
+@FirestoreModel
 public class Address {
     private String street;
     private String city;
@@ -24,27 +26,12 @@ public class Address {
     
     // Método para convertir a Map para Firestore
     public Map<String, Object> toMap() {
-        Map<String, Object> map = new HashMap<>();
-        map.put("street", street);
-        map.put("city", city);
-        map.put("state", state);
-        map.put("zipCode", zipCode);
-        map.put("country", country);
-        return map;
+        return AddressCodec.encode(this);
     }
     
     // Método para crear un objeto Address desde un Map de Firestore
     public static Address fromMap(Map<String, Object> map) {
-        if (map == null) return null;
-        
-        Address address = new Address();
-        address.street = (String) map.get("street");
-        address.city = (String) map.get("city");
-        address.state = (String) map.get("state");
-        address.zipCode = (String) map.get("zipCode");
-        address.country = (String) map.get("country");
-        
-        return address;
+        return AddressCodec.decode(map);
     }
     
     // Getters y setters
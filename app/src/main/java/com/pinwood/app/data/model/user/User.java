@@ -1,9 +1,11 @@
 package com.pinwood.app.data.model.user;
 
+import com.pinwood.codegen.FirestoreModel;
+
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
 
+@FirestoreModel
 public class User {
     private String userId;
     private String name;
@@ -29,38 +31,12 @@ public class User {
     
     // Método para convertir a Map para Firestore
     public Map<String, Object> toMap() {
-        Map<String, Object> map = new HashMap<>();
-        map.put("userId", userId);
-        map.put("name", name);
-        map.put("email", email);
-        map.put("phone", phone);
-        if (address != null) {
-            map.put("address", address.toMap());
-        }
-        map.put("profileImageUrl", profileImageUrl);
-        map.put("createdAt", createdAt);
-        return map;
+        return UserCodec.encode(this);
     }
     
     // Método para crear un objeto User desde un Map de Firestore
     public static User fromMap(Map<String, Object> map) {
-        if (map == null) return null;
-        
-        User user = new User();
-        user.userId = (String) map.get("userId");
-        user.name = (String) map.get("name");
-        user.email = (String) map.get("email");
-        user.phone = (String) map.get("phone");
-        
-        Map<String, Object> addressMap = (Map<String, Object>) map.get("address");
-        if (addressMap != null) {
-            user.address = Address.fromMap(addressMap);
-        }
-        
-        user.profileImageUrl = (String) map.get("profileImageUrl");
-        user.createdAt = (Date) map.get("createdAt");
-        
-        return user;
+        return UserCodec.decode(map);
     }
     
     // Getters y setters
@@ -0,0 +1,95 @@
+package com.pinwood.app.data.paging;
+
+import com.pinwood.app.data.model.product.Product;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Estado inmutable de una lista paginada tal como la ve la interfaz.
+ *
+ * Las páginas descartadas del principio de la ventana se conservan como marcadores de posición
+ * ({@link #get(int)} devuelve null), de modo que las posiciones no se desplazan al liberar memoria.
+ * Cada estado describe además el rango que cambió respecto al anterior, para que el adaptador
+ * notifique solo ese rango.
+ */
+public final class PagedProducts {
+
+    public enum Change {
+        // La lista se reemplaza entera (carga inicial o recarga)
+        REFRESH,
+        // Elementos añadidos en [changeStart, changeStart + changeCount)
+        INSERTED,
+        // Elementos de ese rango pasaron a (o dejaron de ser) marcadores de posición
+        CHANGED,
+        // Elementos quitados del final de la lista
+        REMOVED,
+        // Solo cambió el estado de carga
+        NONE
+    }
+
+    private final int leadingPlaceholders;
+    private final List<Product> loaded;
+    private final boolean loading;
+    private final boolean endReached;
+    private final Change change;
+    private final int changeStart;
+    private final int changeCount;
+
+    PagedProducts(int leadingPlaceholders, List<Product> loaded, boolean loading, boolean endReached,
+                  Change change, int changeStart, int changeCount) {
+        this.leadingPlaceholders = leadingPlaceholders;
+        this.loaded = Collections.unmodifiableList(loaded);
+        this.loading = loading;
+        this.endReached = endReached;
+        this.change = change;
+        this.changeStart = changeStart;
+        this.changeCount = changeCount;
+    }
+
+    public static PagedProducts empty() {
+        return new PagedProducts(0, Collections.emptyList(), false, false, Change.REFRESH, 0, 0);
+    }
+
+    /**
+     * Total de posiciones, incluidos los marcadores de posición.
+     */
+    public int size() {
+        return leadingPlaceholders + loaded.size();
+    }
+
+    /**
+     * Producto en la posición, o null si su página fue descartada y aún no se ha vuelto a cargar.
+     */
+    public Product get(int position) {
+        return position < leadingPlaceholders ? null : loaded.get(position - leadingPlaceholders);
+    }
+
+    public int getLeadingPlaceholders() {
+        return leadingPlaceholders;
+    }
+
+    public List<Product> getLoadedProducts() {
+        return loaded;
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    public boolean isEndReached() {
+        return endReached;
+    }
+
+    public Change getChange() {
+        return change;
+    }
+
+    public int getChangeStart() {
+        return changeStart;
+    }
+
+    public int getChangeCount() {
+        return changeCount;
+    }
+}
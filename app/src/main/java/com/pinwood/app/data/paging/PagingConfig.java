@@ -0,0 +1,40 @@
+package com.pinwood.app.data.paging;
+
+/**
+ * Parámetros de paginación de una lista de productos.
+ */
+public final class PagingConfig {
+    public static final PagingConfig DEFAULT = new PagingConfig(20, 6, 5);
+
+    private final int pageSize;
+    private final int prefetchDistance;
+    private final int maxLoadedPages;
+
+    /**
+     * @param pageSize         Documentos por página (consulta a Firestore)
+     * @param prefetchDistance Elementos antes del final (o del inicio de la ventana) a partir de
+     *                         los cuales se pide la página siguiente (o la anterior)
+     * @param maxLoadedPages   Páginas que se mantienen en memoria; las más lejanas se descartan
+     *                         y quedan como marcadores de posición
+     */
+    public PagingConfig(int pageSize, int prefetchDistance, int maxLoadedPages) {
+        if (pageSize <= 0 || prefetchDistance < 0 || maxLoadedPages < 2) {
+            throw new IllegalArgumentException("Configuración de paginación no válida");
+        }
+        this.pageSize = pageSize;
+        this.prefetchDistance = prefetchDistance;
+        this.maxLoadedPages = maxLoadedPages;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getPrefetchDistance() {
+        return prefetchDistance;
+    }
+
+    public int getMaxLoadedPages() {
+        return maxLoadedPages;
+    }
+}
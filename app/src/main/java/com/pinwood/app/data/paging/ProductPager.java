@@ -0,0 +1,267 @@
+package com.pinwood.app.data.paging;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.pinwood.app.data.concurrent.TaskPriority;
+import com.pinwood.app.data.concurrent.TaskScope;
+import com.pinwood.app.data.model.product.Product;
+import com.pinwood.app.data.remote.FirestoreQuery;
+import com.pinwood.app.data.repository.FirestoreRepository;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Carga una colección de productos por páginas con cursores de Firestore.
+ *
+ * Cada página continúa después del último documento de la anterior ({@code startAfter}) sobre
+ * una consulta con orden estable, así que no se repiten ni se saltan productos aunque se
+ * inserten otros mientras tanto. Solo se mantienen en memoria {@link PagingConfig#getMaxLoadedPages()}
+ * páginas: al superarse se descarta la más lejana y, si el usuario vuelve hacia ella, se recarga
+ * con {@code endBefore} + {@code limitToLast}.
+ *
+ * La primera página y las que vuelven a la ventana se piden en el carril visible; las
+ * siguientes, en el de precarga. Todos los métodos públicos deben llamarse desde el hilo principal.
+ */
+public class ProductPager {
+    private static final String TAG = "ProductPager";
+
+    /**
+     * Origen de las páginas; lo implementa el repositorio.
+     */
+    public interface PageSource {
+        void loadPage(FirestoreQuery query, TaskPriority priority, TaskScope scope,
+                      FirestoreRepository.PageCallback<Product> callback);
+    }
+
+    private static final class Page {
+        final List<Product> items;
+        final DocumentSnapshot first;
+        final DocumentSnapshot last;
+
+        Page(List<Product> items, DocumentSnapshot first, DocumentSnapshot last) {
+            this.items = items;
+            this.first = first;
+            this.last = last;
+        }
+    }
+
+    private final PageSource source;
+    private final Supplier<FirestoreQuery> queryFactory;
+    private final PagingConfig config;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final MutableLiveData<PagedProducts> products = new MutableLiveData<>(PagedProducts.empty());
+
+    private final ArrayDeque<Page> pages = new ArrayDeque<>();
+    private int leadingPlaceholders;
+    private boolean loadingNext;
+    private boolean loadingPrevious;
+    private boolean endReached;
+    // Invalida las respuestas de cargas iniciadas antes de la última recarga
+    private int generation;
+    // Cancela las peticiones en curso al recargar o al desechar el paginador
+    private TaskScope scope = new TaskScope();
+
+    /**
+     * @param queryFactory Crea la consulta base (colección, filtros y un orden estable) para cada página
+     */
+    public ProductPager(PageSource source, Supplier<FirestoreQuery> queryFactory, PagingConfig config) {
+        this.source = source;
+        this.queryFactory = queryFactory;
+        this.config = config != null ? config : PagingConfig.DEFAULT;
+    }
+
+    public LiveData<PagedProducts> getProducts() {
+        return products;
+    }
+
+    public PagingConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Descarta lo cargado y pide la primera página.
+     */
+    public void refresh() {
+        generation++;
+        scope.cancel();
+        scope = new TaskScope();
+        pages.clear();
+        leadingPlaceholders = 0;
+        loadingNext = false;
+        loadingPrevious = false;
+        endReached = false;
+        emit(PagedProducts.Change.REFRESH, 0, 0);
+        loadNext();
+    }
+
+    /**
+     * Cancela las peticiones pendientes; llamar cuando el dueño del paginador se destruye.
+     */
+    public void cancel() {
+        generation++;
+        scope.cancel();
+        loadingNext = false;
+        loadingPrevious = false;
+    }
+
+    /**
+     * Informa del rango visible; pide la página siguiente o la anterior cuando el usuario se
+     * acerca a menos de {@link PagingConfig#getPrefetchDistance()} elementos del borde cargado.
+     */
+    public void onVisibleRange(int firstVisible, int lastVisible) {
+        if (lastVisible >= size() - 1 - config.getPrefetchDistance()) {
+            loadNext();
+        }
+        if (leadingPlaceholders > 0 && firstVisible <= leadingPlaceholders + config.getPrefetchDistance()) {
+            loadPrevious();
+        }
+    }
+
+    /**
+     * Pide la página siguiente si no hay una en curso ni se llegó al final.
+     */
+    public void loadNext() {
+        if (loadingNext || endReached) {
+            return;
+        }
+        loadingNext = true;
+
+        FirestoreQuery query = queryFactory.get();
+        Page last = pages.peekLast();
+        if (last != null && last.last != null) {
+            query.startAfter(last.last);
+        }
+        query.limit(config.getPageSize());
+
+        final int requestGeneration = generation;
+        TaskPriority priority = pages.isEmpty() ? TaskPriority.USER_VISIBLE : TaskPriority.PREFETCH;
+        source.loadPage(query, priority, scope, new FirestoreRepository.PageCallback<Product>() {
+            @Override
+            public void onPage(List<Product> items, DocumentSnapshot first, DocumentSnapshot lastDoc) {
+                mainHandler.post(() -> onNextLoaded(requestGeneration, new Page(items, first, lastDoc)));
+            }
+
+            @Override
+            public void onError(Exception e) {
+                mainHandler.post(() -> onLoadFailed(requestGeneration, true, e));
+            }
+        });
+        emit(PagedProducts.Change.NONE, 0, 0);
+    }
+
+    private void loadPrevious() {
+        Page first = pages.peekFirst();
+        if (loadingPrevious || first == null || first.first == null) {
+            return;
+        }
+        loadingPrevious = true;
+
+        FirestoreQuery query = queryFactory.get()
+                .endBefore(first.first)
+                .limitToLast(config.getPageSize());
+
+        final int requestGeneration = generation;
+        source.loadPage(query, TaskPriority.USER_VISIBLE, scope, new FirestoreRepository.PageCallback<Product>() {
+            @Override
+            public void onPage(List<Product> items, DocumentSnapshot firstDoc, DocumentSnapshot last) {
+                mainHandler.post(() -> onPreviousLoaded(requestGeneration, new Page(items, firstDoc, last)));
+            }
+
+            @Override
+            public void onError(Exception e) {
+                mainHandler.post(() -> onLoadFailed(requestGeneration, false, e));
+            }
+        });
+    }
+
+    private void onNextLoaded(int requestGeneration, Page page) {
+        if (requestGeneration != generation) {
+            return;
+        }
+        loadingNext = false;
+        if (page.items.size() < config.getPageSize()) {
+            endReached = true;
+        }
+        if (page.items.isEmpty()) {
+            emit(PagedProducts.Change.NONE, 0, 0);
+            return;
+        }
+
+        int start = size();
+        pages.addLast(page);
+        emit(PagedProducts.Change.INSERTED, start, page.items.size());
+
+        // Liberar la página más antigua; sus posiciones quedan como marcadores
+        if (pages.size() > config.getMaxLoadedPages()) {
+            Page dropped = pages.removeFirst();
+            int droppedStart = leadingPlaceholders;
+            leadingPlaceholders += dropped.items.size();
+            emit(PagedProducts.Change.CHANGED, droppedStart, dropped.items.size());
+        }
+    }
+
+    private void onPreviousLoaded(int requestGeneration, Page page) {
+        if (requestGeneration != generation) {
+            return;
+        }
+        loadingPrevious = false;
+
+        int count = page.items.size();
+        if (count != config.getPageSize() || count > leadingPlaceholders) {
+            // La colección cambió desde que se descartó la página: empezar de nuevo desde arriba
+            Log.d(TAG, "Ventana desalineada al volver atrás, recargando");
+            refresh();
+            return;
+        }
+
+        pages.addFirst(page);
+        leadingPlaceholders -= count;
+        emit(PagedProducts.Change.CHANGED, leadingPlaceholders, count);
+
+        // Liberar la página del final; se volverá a pedir al bajar de nuevo
+        if (pages.size() > config.getMaxLoadedPages()) {
+            Page dropped = pages.removeLast();
+            endReached = false;
+            emit(PagedProducts.Change.REMOVED, size(), dropped.items.size());
+        }
+    }
+
+    private void onLoadFailed(int requestGeneration, boolean next, Exception e) {
+        if (requestGeneration != generation) {
+            return;
+        }
+        Log.e(TAG, "Error al cargar página: " + e.getMessage());
+        if (next) {
+            loadingNext = false;
+        } else {
+            loadingPrevious = false;
+        }
+        emit(PagedProducts.Change.NONE, 0, 0);
+    }
+
+    private int size() {
+        int size = leadingPlaceholders;
+        for (Page page : pages) {
+            size += page.items.size();
+        }
+        return size;
+    }
+
+    private void emit(PagedProducts.Change change, int start, int count) {
+        List<Product> loaded = new ArrayList<>(size() - leadingPlaceholders);
+        for (Page page : pages) {
+            loaded.addAll(page.items);
+        }
+        products.setValue(new PagedProducts(leadingPlaceholders, loaded, loadingNext || loadingPrevious,
+                endReached, change, start, count));
+    }
+}
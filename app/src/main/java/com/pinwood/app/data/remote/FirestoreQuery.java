@@ -0,0 +1,212 @@
+package com.pinwood.app.data.remote;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Constructor tipado de consultas de Firestore compartido por todos los repositorios.
+ * Describe la consulta (colección, filtros, orden, límite y cursor) sin tocar Firestore,
+ * y solo la traduce a un {@link Query} real al llamar a {@link #build(FirebaseFirestore)}.
+ */
+public final class FirestoreQuery {
+    /**
+     * Nombre de campo especial para filtrar u ordenar por el ID del documento.
+     */
+    public static final String DOCUMENT_ID = "__name__";
+
+    private enum Operator { EQUAL, GREATER_THAN, IN }
+
+    private static final class Filter {
+        final String field;
+        final Operator operator;
+        final Object value;
+
+        Filter(String field, Operator operator, Object value) {
+            this.field = field;
+            this.operator = operator;
+            this.value = value;
+        }
+    }
+
+    private static final class Order {
+        final String field;
+        final Query.Direction direction;
+
+        Order(String field, Query.Direction direction) {
+            this.field = field;
+            this.direction = direction;
+        }
+    }
+
+    private final String collectionPath;
+    private final List<Filter> filters = new ArrayList<>(2);
+    private final List<Order> orders = new ArrayList<>(1);
+    private long limit;
+    private boolean limitToLast;
+    private Object[] startAfterValues;
+    private DocumentSnapshot startAfterSnapshot;
+    private DocumentSnapshot endBeforeSnapshot;
+
+    private FirestoreQuery(String collectionPath) {
+        this.collectionPath = collectionPath;
+    }
+
+    public static FirestoreQuery collection(String collectionPath) {
+        return new FirestoreQuery(collectionPath);
+    }
+
+    public FirestoreQuery whereEqualTo(String field, Object value) {
+        if (field != null && !field.isEmpty()) {
+            filters.add(new Filter(field, Operator.EQUAL, value));
+        }
+        return this;
+    }
+
+    public FirestoreQuery whereGreaterThan(String field, Object value) {
+        filters.add(new Filter(field, Operator.GREATER_THAN, value));
+        return this;
+    }
+
+    public FirestoreQuery whereIn(String field, List<?> values) {
+        filters.add(new Filter(field, Operator.IN, new ArrayList<>(values)));
+        return this;
+    }
+
+    public FirestoreQuery orderBy(String field) {
+        return orderBy(field, Query.Direction.ASCENDING);
+    }
+
+    public FirestoreQuery orderBy(String field, Query.Direction direction) {
+        orders.add(new Order(field, direction));
+        return this;
+    }
+
+    public FirestoreQuery limit(long limit) {
+        this.limit = limit;
+        this.limitToLast = false;
+        return this;
+    }
+
+    /**
+     * Devuelve los últimos {@code limit} documentos según el orden; requiere al menos un orderBy.
+     */
+    public FirestoreQuery limitToLast(long limit) {
+        this.limit = limit;
+        this.limitToLast = true;
+        return this;
+    }
+
+    /**
+     * Continúa después de los valores indicados, en el mismo orden que las cláusulas orderBy.
+     */
+    public FirestoreQuery startAfter(Object... values) {
+        this.startAfterValues = values;
+        this.startAfterSnapshot = null;
+        return this;
+    }
+
+    public FirestoreQuery startAfter(DocumentSnapshot snapshot) {
+        this.startAfterSnapshot = snapshot;
+        this.startAfterValues = null;
+        return this;
+    }
+
+    /**
+     * Termina antes del documento indicado; junto con limitToLast permite paginar hacia atrás.
+     */
+    public FirestoreQuery endBefore(DocumentSnapshot snapshot) {
+        this.endBeforeSnapshot = snapshot;
+        return this;
+    }
+
+    public String getCollectionPath() {
+        return collectionPath;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * Traduce la descripción a una consulta de Firestore con llamadas directas (sin reflexión).
+     */
+    public Query build(FirebaseFirestore firestore) {
+        Query query = firestore.collection(collectionPath);
+
+        for (Filter filter : filters) {
+            boolean byId = DOCUMENT_ID.equals(filter.field);
+            switch (filter.operator) {
+                case EQUAL:
+                    query = byId ? query.whereEqualTo(FieldPath.documentId(), filter.value)
+                            : query.whereEqualTo(filter.field, filter.value);
+                    break;
+                case GREATER_THAN:
+                    query = byId ? query.whereGreaterThan(FieldPath.documentId(), filter.value)
+                            : query.whereGreaterThan(filter.field, filter.value);
+                    break;
+                case IN:
+                    List<?> values = (List<?>) filter.value;
+                    query = byId ? query.whereIn(FieldPath.documentId(), new ArrayList<>(values))
+                            : query.whereIn(filter.field, new ArrayList<>(values));
+                    break;
+            }
+        }
+
+        for (Order order : orders) {
+            query = DOCUMENT_ID.equals(order.field)
+                    ? query.orderBy(FieldPath.documentId(), order.direction)
+                    : query.orderBy(order.field, order.direction);
+        }
+
+        if (startAfterSnapshot != null) {
+            query = query.startAfter(startAfterSnapshot);
+        } else if (startAfterValues != null) {
+            query = query.startAfter(startAfterValues);
+        }
+        if (endBeforeSnapshot != null) {
+            query = query.endBefore(endBeforeSnapshot);
+        }
+
+        if (limit > 0) {
+            query = limitToLast ? query.limitToLast(limit) : query.limit(limit);
+        }
+
+        return query;
+    }
+
+    /**
+     * Clave canónica de la consulta: dos consultas con la misma clave devuelven los mismos datos.
+     */
+    public String key() {
+        StringBuilder key = new StringBuilder(collectionPath);
+        for (Filter filter : filters) {
+            key.append('|').append(filter.field).append(' ').append(filter.operator).append(' ').append(filter.value);
+        }
+        for (Order order : orders) {
+            key.append("|order ").append(order.field).append(' ').append(order.direction);
+        }
+        if (startAfterSnapshot != null) {
+            key.append("|after ").append(startAfterSnapshot.getId());
+        } else if (startAfterValues != null) {
+            key.append("|after ").append(Arrays.toString(startAfterValues));
+        }
+        if (endBeforeSnapshot != null) {
+            key.append("|before ").append(endBeforeSnapshot.getId());
+        }
+        if (limit > 0) {
+            key.append(limitToLast ? "|limitToLast " : "|limit ").append(limit);
+        }
+        return key.toString();
+    }
+
+    @Override
+    public String toString() {
+        return key();
+    }
+}
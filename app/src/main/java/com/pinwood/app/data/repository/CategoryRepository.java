@@ -1,7 +1,9 @@
 package com.pinwood.app.data.repository;
 
 import androidx.lifecycle.LiveData;
-import androidx.lifecycle.MutableLiveData;
+
+import com.pinwood.app.data.concurrent.AsyncResult;
+import com.pinwood.app.data.remote.FirestoreQuery;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -9,6 +11,8 @@ import java.util.Map;
 
 public class CategoryRepository extends FirestoreRepository {
     private static CategoryRepository instance;
+    // Consulta lanzada por prefetchCategories que aún nadie ha recogido
+    private AsyncResult<List<String>> prefetched;
 
     private CategoryRepository() {
         // Constructor privado para singleton
@@ -21,38 +25,47 @@ public class CategoryRepository extends FirestoreRepository {
         return instance;
     }
 
-    public LiveData<List<String>> getAllCategories() {
-        MutableLiveData<List<String>> categoriesLiveData = new MutableLiveData<>();
-        
-        executor.execute(() -> {
-            try {
-                // Obtener todas las categorías
-                LiveData<List<Map<String, Object>>> result = getCollectionData(
-                    "categories",
-                    null,
-                    null,
-                    0,
-                    data -> data // Devolver el mapa completo
-                );
-                
-                // Observar el resultado y extraer los nombres de categoría
-                result.observeForever(categoryMaps -> {
-                    List<String> categoryNames = new ArrayList<>();
-                    
-                    for (Map<String, Object> categoryMap : categoryMaps) {
-                        String name = (String) categoryMap.get("name");
-                        if (name != null && !name.isEmpty()) {
-                            categoryNames.add(name);
-                        }
-                    }
-                    
-                    categoriesLiveData.postValue(categoryNames);
-                });
-            } catch (Exception e) {
-                categoriesLiveData.postValue(new ArrayList<>());
+    /**
+     * Nombres de todas las categorías; ante un error se entrega una lista vacía.
+     * Cancelar el resultado descarta la consulta si aún no llegó a Firestore.
+     * Si hay una precarga pendiente de recoger, se entrega esa.
+     */
+    public AsyncResult<List<String>> loadCategories() {
+        synchronized (this) {
+            AsyncResult<List<String>> result = prefetched;
+            prefetched = null;
+            if (result != null && !result.isCancelled()) {
+                return result;
             }
-        });
-            
-        return categoriesLiveData;
+        }
+        return queryCategories();
+    }
+
+    /**
+     * Lanza la consulta por adelantado (durante el splash); la recoge la siguiente llamada a
+     * {@link #loadCategories()}.
+     */
+    public synchronized void prefetchCategories() {
+        if (prefetched == null) {
+            prefetched = queryCategories();
+        }
+    }
+
+    private AsyncResult<List<String>> queryCategories() {
+        return query(
+            FirestoreQuery.collection("categories"),
+            "id",
+            CategoryRepository::categoryName
+        ).recover(e -> new ArrayList<>());
+    }
+
+    public LiveData<List<String>> getAllCategories() {
+        return loadCategories().asLiveData();
+    }
+
+    // Las categorías sin nombre se omiten (el conversor devuelve null)
+    private static String categoryName(Map<String, Object> data) {
+        Object name = data.get("name");
+        return name instanceof String && !((String) name).isEmpty() ? (String) name : null;
     }
-}
\ No newline at end of file
+}
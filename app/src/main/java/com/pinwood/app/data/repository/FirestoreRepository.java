@@ -5,155 +5,432 @@ import android.util.Log;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
-import java.lang.reflect.Method;
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.pinwood.app.data.concurrent.AsyncResult;
+import com.pinwood.app.data.concurrent.RepositoryScheduler;
+import com.pinwood.app.data.concurrent.TaskPriority;
+import com.pinwood.app.data.concurrent.TaskScope;
+import com.pinwood.app.data.remote.FirestoreQuery;
+import com.pinwood.app.startup.AppInitializers;
+import com.pinwood.app.startup.AppStartup;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 /**
- * Clase base para acceder a Firestore sin usar importaciones directas.
- * Usa reflexión para acceder a las clases de Firestore.
+ * Clase base para acceder a Firestore.
+ * Las consultas se describen con {@link FirestoreQuery} y se ejecutan con llamadas directas
+ * al SDK; la conversión de documentos se hace en el executor, fuera del hilo principal.
  */
 public class FirestoreRepository {
     private static final String TAG = "FirestoreRepository";
-    protected static final Executor executor = Executors.newSingleThreadExecutor();
-
-    protected Object getFirestoreInstance() {
-        try {
-            Class<?> firestoreClass = Class.forName("com.google.firebase.firestore.FirebaseFirestore");
-            return firestoreClass.getMethod("getInstance").invoke(null);
-        } catch (Exception e) {
-            Log.e(TAG, "Error al obtener instancia de Firestore: " + e.getMessage());
-            return null;
-        }
-    }
+    protected static final RepositoryScheduler scheduler = RepositoryScheduler.getInstance();
+    // Carril por defecto: lo que la pantalla actual está esperando
+    protected static final Executor executor = scheduler.lane(TaskPriority.USER_VISIBLE);
+
+    // Instancia resuelta una sola vez para todos los repositorios
+    private static volatile FirebaseFirestore firestore;
+
+    // Consultas en vivo por clave: un solo snapshot listener por consulta en toda la app
+    private static final Map<QueryKey, LiveQueryLiveData<?>> liveQueries = new ConcurrentHashMap<>();
+
+    // Consultas puntuales en curso, compartidas entre solicitantes concurrentes
+    private static final SingleFlightQueries singleFlight = new SingleFlightQueries();
 
-    protected Object getCollectionReference(String collectionPath) {
-        try {
-            Object firestore = getFirestoreInstance();
-            if (firestore != null) {
-                return firestore.getClass()
-                        .getMethod("collection", String.class)
-                        .invoke(firestore, collectionPath);
+    protected FirebaseFirestore getFirestoreInstance() {
+        FirebaseFirestore instance = firestore;
+        if (instance == null) {
+            // Los ajustes de persistencia se aplican al arrancar y deben ir antes de la primera consulta
+            AppStartup startup = AppStartup.getInstance();
+            if (startup != null) {
+                startup.require(AppInitializers.FIRESTORE);
+            }
+            try {
+                instance = FirebaseFirestore.getInstance();
+                firestore = instance;
+            } catch (Exception e) {
+                Log.e(TAG, "Error al obtener instancia de Firestore: " + e.getMessage());
             }
-        } catch (Exception e) {
-            Log.e(TAG, "Error al obtener referencia de colección: " + e.getMessage());
         }
-        return null;
+        return instance;
     }
 
-    protected Object getDocumentReference(String collectionPath, String documentId) {
-        try {
-            Object collection = getCollectionReference(collectionPath);
-            if (collection != null) {
-                return collection.getClass()
-                        .getMethod("document", String.class)
-                        .invoke(collection, documentId);
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error al obtener referencia de documento: " + e.getMessage());
-        }
-        return null;
+    protected CollectionReference getCollectionReference(String collectionPath) {
+        FirebaseFirestore instance = getFirestoreInstance();
+        return instance != null ? instance.collection(collectionPath) : null;
+    }
+
+    protected DocumentReference getDocumentReference(String collectionPath, String documentId) {
+        CollectionReference collection = getCollectionReference(collectionPath);
+        return collection != null ? collection.document(documentId) : null;
     }
 
     protected <T> LiveData<List<T>> getCollectionData(
-            String collectionPath, 
-            String whereField, 
-            Object whereValue, 
+            String collectionPath,
+            String whereField,
+            Object whereValue,
             int limit,
             DocumentConverter<T> converter) {
-        
+
+        return getCollectionData(
+            FirestoreQuery.collection(collectionPath)
+                .whereEqualTo(whereField, whereValue)
+                .limit(limit),
+            "id",
+            converter
+        );
+    }
+
+    protected <T> LiveData<List<T>> getCollectionData(
+            FirestoreQuery query,
+            String idField,
+            DocumentConverter<T> converter) {
+
         MutableLiveData<List<T>> liveData = new MutableLiveData<>();
-        executor.execute(() -> {
+        fetchCollection(query, idField, converter, new QueryCallback<T>() {
+            @Override
+            public void onResult(List<T> items) {
+                liveData.postValue(items);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                liveData.postValue(new ArrayList<>());
+            }
+        });
+        return liveData;
+    }
+
+    /**
+     * Resultado componible de la consulta; cancelarlo (o cualquier resultado derivado con
+     * map/transform) descarta la lectura si aún no empezó y evita la entrega.
+     */
+    protected <T> AsyncResult<List<T>> query(
+            FirestoreQuery query,
+            String idField,
+            DocumentConverter<T> converter) {
+
+        AsyncResult<List<T>> result = AsyncResult.create();
+        fetchCollection(query, idField, converter, TaskPriority.USER_VISIBLE, result.getScope(),
+                new QueryCallback<T>() {
+                    @Override
+                    public void onResult(List<T> items) {
+                        result.complete(items);
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        result.fail(e);
+                    }
+                });
+        return result;
+    }
+
+    /**
+     * Resultado en vivo de la consulta mediante un snapshot listener compartido: todas las
+     * llamadas con la misma consulta reciben la misma instancia. El listener se conecta con el
+     * primer observador y se quita al no quedar ninguno.
+     *
+     * @param onUpdate Opcional; recibe cada lista nueva en el executor (p. ej. para cachearla)
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> LiveData<List<T>> observeCollection(
+            FirestoreQuery query,
+            String idField,
+            DocumentConverter<T> converter,
+            QueryCallback<T> onUpdate) {
+
+        FirebaseFirestore instance = getFirestoreInstance();
+        if (instance == null) {
+            return new MutableLiveData<>(new ArrayList<>());
+        }
+        return (LiveData<List<T>>) liveQueries.computeIfAbsent(new QueryKey(query, idField, converter),
+                key -> new LiveQueryLiveData<>(query, idField, converter, onUpdate, instance,
+                        scheduler.serial(TaskPriority.USER_VISIBLE)));
+    }
+
+    /**
+     * Ejecuta la consulta y entrega los documentos convertidos al callback desde el executor.
+     *
+     * @param idField Campo donde se copia el ID del documento si el mapa no lo trae
+     */
+    protected <T> void fetchCollection(
+            FirestoreQuery query,
+            String idField,
+            DocumentConverter<T> converter,
+            QueryCallback<T> callback) {
+
+        fetchCollection(query, idField, converter, TaskPriority.USER_VISIBLE, null, callback);
+    }
+
+    /**
+     * Igual que {@link #fetchCollection(FirestoreQuery, String, DocumentConverter, QueryCallback)}
+     * en el carril indicado. Si {@code scope} se cancela, la tarea se descarta y el callback no
+     * se llama.
+     *
+     * Las llamadas concurrentes con la misma consulta, campo de ID y conversor comparten una
+     * sola lectura y reciben la misma lista, que no debe modificarse. Si Firestore no está
+     * disponible, el callback recibe un error, igual que en {@link #fetchPage}.
+     */
+    protected <T> void fetchCollection(
+            FirestoreQuery query,
+            String idField,
+            DocumentConverter<T> converter,
+            TaskPriority priority,
+            TaskScope scope,
+            QueryCallback<T> callback) {
+
+        singleFlight.execute(new QueryKey(query, idField, converter), scope, callback,
+                (flightScope, flightCallback) -> runQuery(query, idField, converter, priority, flightScope, flightCallback));
+    }
+
+    private <T> void runQuery(
+            FirestoreQuery query,
+            String idField,
+            DocumentConverter<T> converter,
+            TaskPriority priority,
+            TaskScope scope,
+            QueryCallback<T> callback) {
+
+        scheduler.submit(priority, scope, () -> {
             try {
-                Object collectionRef = getCollectionReference(collectionPath);
-                if (collectionRef == null) {
-                    liveData.postValue(new ArrayList<>());
+                FirebaseFirestore instance = getFirestoreInstance();
+                if (instance == null) {
+                    // Un error y no una lista vacía: quien cachea el resultado no debe guardarla
+                    callback.onError(firestoreUnavailable());
                     return;
                 }
 
-                // Aplicar filtro si es necesario
-                Object query = collectionRef;
-                if (whereField != null && !whereField.isEmpty()) {
-                    Class<?> objectClass = Class.forName("java.lang.Object");
-                    Method whereEqualToMethod = query.getClass()
-                            .getMethod("whereEqualTo", String.class, objectClass);
-                    query = whereEqualToMethod.invoke(query, whereField, whereValue);
-                }
+                query.build(instance).get().addOnCompleteListener(scheduler.lane(priority), task -> {
+                    if (scope == null || !scope.isCancelled()) {
+                        new CollectionListener<>(query, idField, converter, callback).onComplete(task);
+                    }
+                });
+            } catch (Exception e) {
+                Log.e(TAG, "Error al obtener datos de la colección: " + e.getMessage());
+                callback.onError(e);
+            }
+        });
+    }
+
+    private static IllegalStateException firestoreUnavailable() {
+        return new IllegalStateException("Firestore no disponible");
+    }
 
-                // Aplicar límite si es necesario
-                if (limit > 0) {
-                    Method limitMethod = query.getClass().getMethod("limit", long.class);
-                    query = limitMethod.invoke(query, (long) limit);
+    /**
+     * Consultas ejecutadas y compartidas por la capa single-flight desde el arranque.
+     */
+    public static SingleFlightQueries.Stats getQueryStats() {
+        return singleFlight.getStats();
+    }
+
+    /**
+     * Ejecuta una consulta paginada y entrega los documentos convertidos junto con el primer y
+     * último documento, que sirven de cursor para la página anterior y la siguiente.
+     */
+    protected <T> void fetchPage(
+            FirestoreQuery query,
+            String idField,
+            DocumentConverter<T> converter,
+            PageCallback<T> callback) {
+
+        fetchPage(query, idField, converter, TaskPriority.USER_VISIBLE, null, callback);
+    }
+
+    protected <T> void fetchPage(
+            FirestoreQuery query,
+            String idField,
+            DocumentConverter<T> converter,
+            TaskPriority priority,
+            TaskScope scope,
+            PageCallback<T> callback) {
+
+        scheduler.submit(priority, scope, () -> {
+            try {
+                FirebaseFirestore instance = getFirestoreInstance();
+                if (instance == null) {
+                    callback.onError(firestoreUnavailable());
+                    return;
                 }
 
-                // Obtener datos
-                Class<?> taskClass = Class.forName("com.google.android.gms.tasks.Task");
-                Method getMethod = query.getClass().getMethod("get");
-                Object task = getMethod.invoke(query);
-
-                // Añadir listener de completado
-                Class<?> completeListenerClass = Class.forName("com.google.android.gms.tasks.OnCompleteListener");
-                Object completeListener = java.lang.reflect.Proxy.newProxyInstance(
-                        getClass().getClassLoader(),
-                        new Class<?>[]{completeListenerClass},
-                        (proxy, method, args) -> {
-                            if (method.getName().equals("onComplete")) {
-                                Object taskResult = args[0];
-                                Boolean isSuccessful = (Boolean) taskResult.getClass()
-                                        .getMethod("isSuccessful")
-                                        .invoke(taskResult);
-
-                                if (isSuccessful) {
-                                    Object querySnapshot = taskResult.getClass()
-                                            .getMethod("getResult")
-                                            .invoke(taskResult);
-
-                                    Method getDocumentsMethod = querySnapshot.getClass()
-                                            .getMethod("getDocuments");
-                                    List<?> documents = (List<?>) getDocumentsMethod.invoke(querySnapshot);
-
-                                    List<T> resultList = new ArrayList<>();
-                                    for (Object doc : documents) {
-                                        Method getDataMethod = doc.getClass().getMethod("getData");
-                                        Map<String, Object> data = (Map<String, Object>) getDataMethod.invoke(doc);
-                                        
-                                        Method getIdMethod = doc.getClass().getMethod("getId");
-                                        String id = (String) getIdMethod.invoke(doc);
-                                        
-                                        // Añadir ID al mapa de datos si no existe
-                                        if (!data.containsKey("id")) {
-                                            data.put("id", id);
-                                        }
-                                        
-                                        T item = converter.convert(data);
-                                        if (item != null) {
-                                            resultList.add(item);
-                                        }
-                                    }
-                                    liveData.postValue(resultList);
-                                } else {
-                                    liveData.postValue(new ArrayList<>());
-                                }
-                            }
-                            return null;
-                        });
-
-                Method addOnCompleteListenerMethod = taskClass.getMethod("addOnCompleteListener", completeListenerClass);
-                addOnCompleteListenerMethod.invoke(task, completeListener);
+                query.build(instance).get().addOnCompleteListener(scheduler.lane(priority), task -> {
+                    if (scope != null && scope.isCancelled()) {
+                        return;
+                    }
+                    // getResult() lanza si la tarea falló: comprobar antes el éxito para que el
+                    // error llegue siempre al callback
+                    if (!task.isSuccessful() || task.getResult() == null) {
+                        Exception exception = task.getException();
+                        Log.e(TAG, "Error en la página " + query + ": " +
+                              (exception != null ? exception.getMessage() : "Desconocido"));
+                        callback.onError(exception != null ? exception : new IllegalStateException("Consulta fallida"));
+                        return;
+                    }
 
+                    List<T> items;
+                    QuerySnapshot snapshot = task.getResult();
+                    try {
+                        items = convertDocuments(snapshot, idField, converter);
+                    } catch (Exception e) {
+                        Log.e(TAG, "Error al convertir la página " + query + ": " + e.getMessage());
+                        callback.onError(e);
+                        return;
+                    }
+                    List<DocumentSnapshot> documents = snapshot.getDocuments();
+                    DocumentSnapshot first = documents.isEmpty() ? null : documents.get(0);
+                    DocumentSnapshot last = documents.isEmpty() ? null : documents.get(documents.size() - 1);
+                    callback.onPage(items, first, last);
+                });
             } catch (Exception e) {
-                Log.e(TAG, "Error al obtener datos de la colección: " + e.getMessage());
-                liveData.postValue(new ArrayList<>());
+                Log.e(TAG, "Error al obtener página de la colección: " + e.getMessage());
+                callback.onError(e);
             }
         });
+    }
 
-        return liveData;
+    /**
+     * Convierte los documentos de un snapshot añadiendo el ID en {@code idField} si falta.
+     */
+    protected static <T> List<T> convertDocuments(
+            QuerySnapshot snapshot,
+            String idField,
+            DocumentConverter<T> converter) {
+
+        List<DocumentSnapshot> documents = snapshot.getDocuments();
+        List<T> resultList = new ArrayList<>(documents.size());
+        for (DocumentSnapshot doc : documents) {
+            T item = convertDocument(doc, idField, converter);
+            if (item != null) {
+                resultList.add(item);
+            }
+        }
+        return resultList;
+    }
+
+    protected static <T> T convertDocument(
+            DocumentSnapshot doc,
+            String idField,
+            DocumentConverter<T> converter) {
+
+        Map<String, Object> data = doc.getData();
+        if (data == null) {
+            return null;
+        }
+
+        // Añadir ID al mapa de datos si no existe
+        if (idField != null && !data.containsKey(idField)) {
+            data.put(idField, doc.getId());
+        }
+
+        return converter.convert(data);
+    }
+
+    /**
+     * Listener tipado de resultados de consulta; reemplaza al Proxy reflexivo por llamada.
+     */
+    private static final class CollectionListener<T> implements OnCompleteListener<QuerySnapshot> {
+        private final FirestoreQuery query;
+        private final String idField;
+        private final DocumentConverter<T> converter;
+        private final QueryCallback<T> callback;
+
+        CollectionListener(FirestoreQuery query, String idField,
+                           DocumentConverter<T> converter, QueryCallback<T> callback) {
+            this.query = query;
+            this.idField = idField;
+            this.converter = converter;
+            this.callback = callback;
+        }
+
+        @Override
+        public void onComplete(Task<QuerySnapshot> task) {
+            if (task.isSuccessful() && task.getResult() != null) {
+                try {
+                    callback.onResult(convertDocuments(task.getResult(), idField, converter));
+                } catch (Exception e) {
+                    Log.e(TAG, "Error al convertir documentos de " + query + ": " + e.getMessage());
+                    callback.onError(e);
+                }
+            } else {
+                Exception exception = task.getException();
+                Log.e(TAG, "Error en la consulta " + query + ": " +
+                      (exception != null ? exception.getMessage() : "Desconocido"));
+                callback.onError(exception != null ? exception : new IllegalStateException("Consulta fallida"));
+            }
+        }
+    }
+
+    /**
+     * Identidad de una consulta compartida. La misma consulta con otro campo de ID u otro
+     * conversor da otra lista, así que no puede compartir resultado. El conversor se compara por
+     * identidad: una referencia a método sin capturas es la misma instancia en cada llamada
+     * desde un mismo sitio, y los repositorios guardan en constantes las que reutilizan.
+     */
+    static final class QueryKey {
+        private final String query;
+        private final String idField;
+        private final DocumentConverter<?> converter;
+
+        QueryKey(FirestoreQuery query, String idField, DocumentConverter<?> converter) {
+            this.query = query.key();
+            this.idField = idField;
+            this.converter = converter;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof QueryKey)) {
+                return false;
+            }
+            QueryKey other = (QueryKey) o;
+            return converter == other.converter && query.equals(other.query)
+                    && Objects.equals(idField, other.idField);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * query.hashCode() + Objects.hashCode(idField))
+                    + System.identityHashCode(converter);
+        }
+
+        @Override
+        public String toString() {
+            return query + "#" + idField;
+        }
     }
 
     public interface DocumentConverter<T> {
         T convert(Map<String, Object> data);
     }
-}
\ No newline at end of file
+
+    /**
+     * Resultado de una consulta paginada, entregado en el hilo del executor.
+     */
+    public interface PageCallback<T> {
+        void onPage(List<T> items, DocumentSnapshot first, DocumentSnapshot last);
+
+        void onError(Exception e);
+    }
+
+    /**
+     * Resultado de una consulta de colección, entregado en el hilo del executor.
+     */
+    public interface QueryCallback<T> {
+        void onResult(List<T> items);
+
+        void onError(Exception e);
+    }
+}
@@ -0,0 +1,223 @@
+package com.pinwood.app.data.repository;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.Choreographer;
+
+import androidx.lifecycle.LiveData;
+
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.MetadataChanges;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.pinwood.app.data.remote.FirestoreQuery;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Resultado en vivo de una consulta, respaldado por un único snapshot listener de Firestore
+ * compartido por todos sus observadores.
+ *
+ * Solo se convierten los documentos que cambian en cada snapshot. Las ráfagas de cambios se
+ * agrupan hasta el siguiente frame (más una ventana corta), de modo que la interfaz recibe una
+ * sola lista por ráfaga. El listener se quita al quedarse sin observadores activos, tras un
+ * margen breve para no reconectar en una rotación de pantalla.
+ *
+ * Si el listener falla (Firestore lo da de baja), se vuelve a emitir el último valor, o una
+ * lista vacía si aún no había ninguno, para que quien espera la primera emisión no se quede
+ * esperando, y se vuelve a registrar con espera exponencial mientras haya observadores.
+ */
+class LiveQueryLiveData<T> extends LiveData<List<T>> {
+    private static final String TAG = "LiveQueryLiveData";
+
+    // Ventana de agrupación tras el siguiente frame (~2 frames a 60 Hz)
+    private static final long COALESCE_WINDOW_MS = 32;
+    private static final long DETACH_GRACE_MS = 2000;
+    private static final long RETRY_BASE_MS = 1000;
+    private static final long RETRY_MAX_MS = 60_000;
+
+    private final FirestoreQuery query;
+    private final String idField;
+    private final FirestoreRepository.DocumentConverter<T> converter;
+    private final FirestoreRepository.QueryCallback<T> onUpdate;
+    private final FirebaseFirestore firestore;
+    private final Executor executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Documentos convertidos por ID; solo se usa desde el executor
+    private final Map<String, T> converted = new HashMap<>();
+
+    // Última lista pendiente de entregar y si ya hay un frame programado
+    private final Object pendingLock = new Object();
+    private List<T> pendingList;
+    private boolean frameScheduled;
+
+    // Solo desde el hilo principal
+    private ListenerRegistration registration;
+    private int attachGeneration;
+    private final Runnable detachRunnable = this::detach;
+    private final Runnable retryRunnable = this::retry;
+
+    // Errores seguidos del listener; se pone a cero con el primer snapshot correcto
+    private volatile int failures;
+
+    private final Choreographer.FrameCallback frameCallback = frameTimeNanos -> {
+        List<T> list;
+        synchronized (pendingLock) {
+            list = pendingList;
+            pendingList = null;
+            frameScheduled = false;
+        }
+        if (list != null) {
+            setValue(list);
+        }
+    };
+
+    LiveQueryLiveData(FirestoreQuery query, String idField,
+                      FirestoreRepository.DocumentConverter<T> converter,
+                      FirestoreRepository.QueryCallback<T> onUpdate,
+                      FirebaseFirestore firestore, Executor executor) {
+        this.query = query;
+        this.idField = idField;
+        this.converter = converter;
+        this.onUpdate = onUpdate;
+        this.firestore = firestore;
+        this.executor = executor;
+    }
+
+    /**
+     * Muestra un valor inicial (p. ej. de caché) mientras llega el primer snapshot.
+     */
+    void seed(List<T> initial) {
+        if (getValue() == null && initial != null) {
+            setValue(initial);
+        }
+    }
+
+    boolean isAttached() {
+        return registration != null;
+    }
+
+    @Override
+    protected void onActive() {
+        mainHandler.removeCallbacks(detachRunnable);
+        if (registration == null) {
+            attach();
+        }
+    }
+
+    @Override
+    protected void onInactive() {
+        mainHandler.postDelayed(detachRunnable, DETACH_GRACE_MS);
+    }
+
+    private void attach() {
+        mainHandler.removeCallbacks(retryRunnable);
+        int generation = ++attachGeneration;
+        registration = query.build(firestore).addSnapshotListener(executor, MetadataChanges.EXCLUDE,
+                (snapshot, error) -> onSnapshot(generation, snapshot, error));
+    }
+
+    private void detach() {
+        if (registration != null && !hasActiveObservers()) {
+            registration.remove();
+            registration = null;
+            executor.execute(converted::clear);
+        }
+    }
+
+    private void retry() {
+        if (registration == null && hasActiveObservers()) {
+            attach();
+        }
+    }
+
+    private void onSnapshot(int generation, QuerySnapshot snapshot, FirebaseFirestoreException error) {
+        if (error != null || snapshot == null) {
+            Log.e(TAG, "Error en el listener de " + query + ": " +
+                  (error != null ? error.getMessage() : "snapshot nulo"));
+            // Al volver a registrar llegan todos los documentos otra vez
+            converted.clear();
+            if (onUpdate != null && error != null) {
+                onUpdate.onError(error);
+            }
+            mainHandler.post(() -> onListenerFailed(generation));
+            return;
+        }
+        if (failures != 0) {
+            failures = 0;
+        }
+
+        try {
+            for (DocumentChange change : snapshot.getDocumentChanges()) {
+                DocumentSnapshot doc = change.getDocument();
+                if (change.getType() == DocumentChange.Type.REMOVED) {
+                    converted.remove(doc.getId());
+                } else {
+                    T item = FirestoreRepository.convertDocument(doc, idField, converter);
+                    if (item != null) {
+                        converted.put(doc.getId(), item);
+                    }
+                }
+            }
+
+            // El orden lo da el snapshot; los documentos sin cambios no se vuelven a convertir
+            List<DocumentSnapshot> documents = snapshot.getDocuments();
+            List<T> list = new ArrayList<>(documents.size());
+            for (DocumentSnapshot doc : documents) {
+                T item = converted.get(doc.getId());
+                if (item != null) {
+                    list.add(item);
+                }
+            }
+
+            if (onUpdate != null) {
+                onUpdate.onResult(list);
+            }
+            deliver(list);
+        } catch (Exception e) {
+            Log.e(TAG, "Error al convertir el snapshot de " + query + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Firestore ya quitó el listener: se emite lo que había y se programa el nuevo registro.
+     */
+    private void onListenerFailed(int generation) {
+        if (generation != attachGeneration || registration == null) {
+            // Error de un registro anterior, ya sustituido o quitado
+            return;
+        }
+        registration = null;
+
+        List<T> last = getValue();
+        setValue(last != null ? last : new ArrayList<>());
+
+        if (hasActiveObservers()) {
+            int attempt = failures++;
+            long delay = Math.min(RETRY_MAX_MS, RETRY_BASE_MS << Math.min(attempt, 6));
+            Log.w(TAG, "Se volverá a registrar el listener de " + query + " en " + delay + " ms");
+            mainHandler.postDelayed(retryRunnable, delay);
+        }
+    }
+
+    private void deliver(List<T> list) {
+        synchronized (pendingLock) {
+            pendingList = list;
+            if (frameScheduled) {
+                return;
+            }
+            frameScheduled = true;
+        }
+        mainHandler.post(() -> Choreographer.getInstance()
+                .postFrameCallbackDelayed(frameCallback, COALESCE_WINDOW_MS));
+    }
+}
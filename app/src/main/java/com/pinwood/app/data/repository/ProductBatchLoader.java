@@ -0,0 +1,144 @@
+package com.pinwood.app.data.repository;
+
+import android.os.Handler;
+import android.util.Log;
+
+import com.pinwood.app.data.local.cache.ProductCache;
+import com.pinwood.app.data.model.product.Product;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Agrupa las lecturas de productos por ID: las peticiones que llegan dentro de una ventana
+ * corta se resuelven con consultas {@code whereIn} sobre el ID del documento, en bloques del
+ * máximo que admite Firestore.
+ *
+ * Los aciertos de caché se devuelven de inmediato y todas las peticiones de un mismo ID
+ * comparten el mismo future mientras la lectura está en curso.
+ */
+class ProductBatchLoader {
+    private static final String TAG = "ProductBatchLoader";
+
+    // Límite de valores de un filtro "in" en Firestore
+    static final int MAX_BATCH_SIZE = 30;
+    // Ventana para reunir peticiones de la misma pantalla (aprox. un frame)
+    static final long BATCH_WINDOW_MS = 16;
+
+    /**
+     * Lee un bloque de hasta {@link #MAX_BATCH_SIZE} productos; los que no existen se omiten.
+     */
+    interface BatchSource {
+        void load(List<String> productIds, FirestoreRepository.QueryCallback<Product> callback);
+    }
+
+    private final ProductCache cache;
+    private final BatchSource source;
+    private final Handler handler;
+
+    private final Map<String, CompletableFuture<Product>> inFlight = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private Set<String> pending = new LinkedHashSet<>();
+    private boolean flushScheduled;
+
+    private final Runnable flushRunnable = this::flush;
+
+    ProductBatchLoader(ProductCache cache, BatchSource source, Handler handler) {
+        this.cache = cache;
+        this.source = source;
+        this.handler = handler;
+    }
+
+    /**
+     * Producto con ese ID, o null si no existe. Falla con la excepción de la consulta si
+     * el bloque no pudo leerse.
+     */
+    CompletableFuture<Product> load(String productId) {
+        Product cached = cache.getProduct(productId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<Product> created = new CompletableFuture<>();
+        CompletableFuture<Product> existing = inFlight.putIfAbsent(productId, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        boolean flushNow;
+        synchronized (lock) {
+            pending.add(productId);
+            flushNow = pending.size() >= MAX_BATCH_SIZE;
+            if (!flushNow && !flushScheduled) {
+                flushScheduled = true;
+                handler.postDelayed(flushRunnable, BATCH_WINDOW_MS);
+            }
+        }
+        if (flushNow) {
+            flush();
+        }
+        return created;
+    }
+
+    private void flush() {
+        List<String> ids;
+        synchronized (lock) {
+            if (flushScheduled) {
+                flushScheduled = false;
+                handler.removeCallbacks(flushRunnable);
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+            ids = new ArrayList<>(pending);
+            pending = new LinkedHashSet<>();
+        }
+
+        for (int start = 0; start < ids.size(); start += MAX_BATCH_SIZE) {
+            loadChunk(ids.subList(start, Math.min(ids.size(), start + MAX_BATCH_SIZE)));
+        }
+    }
+
+    private void loadChunk(List<String> ids) {
+        List<String> chunk = new ArrayList<>(ids);
+        source.load(chunk, new FirestoreRepository.QueryCallback<Product>() {
+            @Override
+            public void onResult(List<Product> products) {
+                Map<String, Product> byId = new HashMap<>(products.size() * 2);
+                for (Product product : products) {
+                    byId.put(product.getProductId(), product);
+                }
+                cache.putProducts(products);
+                for (String productId : chunk) {
+                    complete(productId, byId.get(productId), null);
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.e(TAG, "Error al leer " + chunk.size() + " productos: " + e.getMessage());
+                for (String productId : chunk) {
+                    complete(productId, null, e);
+                }
+            }
+        });
+    }
+
+    private void complete(String productId, Product product, Exception error) {
+        CompletableFuture<Product> future = inFlight.remove(productId);
+        if (future == null) {
+            return;
+        }
+        if (error != null) {
+            future.completeExceptionally(error);
+        } else {
+            future.complete(product);
+        }
+    }
+}
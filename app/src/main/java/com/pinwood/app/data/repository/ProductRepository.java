@@ -4,20 +4,40 @@ import android.content.Context;
 import android.util.Log;
 import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
+import android.os.Handler;
+import android.os.Looper;
 
 import androidx.lifecycle.LiveData;
-import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
 
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.Query;
+import com.pinwood.app.data.concurrent.AsyncResult;
+import com.pinwood.app.data.concurrent.TaskPriority;
+import com.pinwood.app.data.concurrent.TaskScope;
+import com.pinwood.app.data.local.cache.FreshnessPolicy;
+import com.pinwood.app.data.local.cache.MemoryCache;
+import com.pinwood.app.data.local.cache.ProductCache;
 import com.pinwood.app.data.local.preferences.PreferenceManager;
+import com.pinwood.app.data.local.snapshot.ProductSnapshotStore;
 import com.pinwood.app.data.model.product.Product;
+import com.pinwood.app.data.paging.PagingConfig;
+import com.pinwood.app.data.paging.ProductPager;
+import com.pinwood.app.data.remote.FirestoreQuery;
+import com.pinwood.app.data.search.FuzzyProductSearchIndex;
+import com.pinwood.app.data.search.ProductSearchIndex;
+import com.pinwood.app.data.search.ProductSearchStrategy;
+import com.pinwood.app.data.sync.CatalogSyncEngine;
 import com.pinwood.app.utils.Constants;
 
-import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -32,18 +52,84 @@ public class ProductRepository extends FirestoreRepository {
     private Context context;
     private PreferenceManager preferenceManager;
     
-    // Caché en memoria para productos
-    private final Map<String, Product> productCache = new HashMap<>();
-    private final Map<String, List<Product>> categoryProductsCache = new HashMap<>();
-    private final Map<String, Long> cacheTimes = new HashMap<>();
+    // Claves de caché de las listas de productos
+    public static final String CACHE_KEY_FEATURED = "featured_products";
+    public static final String CACHE_KEY_POPULAR = "popular_products";
+    public static final String CACHE_KEY_NEW = "new_products";
+    public static final String CACHE_KEY_CATEGORY_PREFIX = "category_";
+    private static final String CACHE_KEY_ALL = "all_products";
     
     // Tiempo máximo de caché en milisegundos (30 minutos)
     private static final long CACHE_EXPIRATION = TimeUnit.MINUTES.toMillis(30);
     
+    // Un solo conversor para todas las consultas de productos: forma parte de la clave con la
+    // que se comparten las consultas en curso y los listeners
+    private static final DocumentConverter<Product> PRODUCT_CONVERTER = Product::fromMap;
+    
+    // Lo que la precarga del splash mantiene conectados los destacados hasta que los observe
+    // la pantalla de inicio
+    private static final long PREFETCH_HOLD_MS = TimeUnit.SECONDS.toMillis(10);
+    
+    // Por defecto se muestran datos caducados hasta un día mientras se revalidan
+    private static final FreshnessPolicy DEFAULT_FRESHNESS =
+            FreshnessPolicy.staleWhileRevalidate(CACHE_EXPIRATION, TimeUnit.DAYS.toMillis(1));
+    
+    // Políticas de frescura por clave de caché (o por prefijo de categoría)
+    private final Map<String, FreshnessPolicy> freshnessPolicies = new ConcurrentHashMap<>();
+    
+    // Caché en memoria para productos y listas de productos
+    private final ProductCache productCache = new ProductCache(CACHE_EXPIRATION);
+    
+    // Instantáneas en disco de las listas para el arranque en frío
+    private final ProductSnapshotStore snapshotStore;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    
+    // Lecturas por ID agrupadas en consultas whereIn y compartidas entre solicitantes
+    private final ProductBatchLoader productLoader;
+    
+    // Catálogo completo sincronizado por marcas de agua de updatedAt
+    private final CatalogSyncEngine catalogSync;
+    private volatile boolean catalogIndexed;
+    
+    /**
+     * Estrategia de búsqueda usada por {@link #searchProducts(String)}.
+     */
+    public enum SearchMode {
+        // Índice invertido con ranking BM25 y coincidencia por prefijo
+        RANKED,
+        // Tolerante a errores de escritura sobre nombre y etiquetas
+        FUZZY,
+        // Ranking normal y, si no hay resultados, búsqueda tolerante a errores
+        RANKED_THEN_FUZZY
+    }
+    
+    // Índices de búsqueda y su hilo propio, para no competir con las consultas
+    private static final int MAX_SEARCH_RESULTS = 100;
+    private final ProductSearchStrategy searchIndex = new ProductSearchIndex();
+    private final ProductSearchStrategy fuzzySearchIndex = new FuzzyProductSearchIndex();
+    private final Executor searchExecutor = Executors.newSingleThreadExecutor();
+    private volatile SearchMode searchMode = SearchMode.RANKED_THEN_FUZZY;
+    
     // Constructor privado para implementar singleton
     private ProductRepository(Context context) {
         this.context = context.getApplicationContext();
         this.preferenceManager = new PreferenceManager(this.context);
+        this.snapshotStore = new ProductSnapshotStore(this.context);
+        this.catalogSync = new CatalogSyncEngine(
+            Constants.COLLECTION_PRODUCTS, CACHE_KEY_ALL, snapshotStore, preferenceManager);
+        this.productLoader = new ProductBatchLoader(productCache, this::loadProductBatch, mainHandler);
+        
+        // Indexar cada producto que entra en caché
+        productCache.setOnProductsCachedListener(products -> {
+            searchIndex.indexAll(products);
+            fuzzySearchIndex.indexAll(products);
+        });
+        
+        // Los productos nuevos cambian más a menudo que los destacados
+        freshnessPolicies.put(CACHE_KEY_NEW,
+                FreshnessPolicy.staleWhileRevalidate(TimeUnit.MINUTES.toMillis(10), TimeUnit.DAYS.toMillis(1)));
+        freshnessPolicies.put(CACHE_KEY_POPULAR,
+                FreshnessPolicy.staleWhileRevalidate(TimeUnit.HOURS.toMillis(1), TimeUnit.DAYS.toMillis(1)));
     }
     
     public static synchronized ProductRepository getInstance(Context context) {
@@ -54,54 +140,28 @@ public class ProductRepository extends FirestoreRepository {
     }
     
     /**
-     * Verifica si hay conexión a internet
-     */
-    private boolean isNetworkAvailable() {
-        ConnectivityManager connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
-        NetworkInfo activeNetworkInfo = connectivityManager.getActiveNetworkInfo();
-        return activeNetworkInfo != null && activeNetworkInfo.isConnected();
-    }
-    
-    /**
-     * Verifica si la caché ha expirado
+     * Libera caché según el nivel de memoria; no crea el repositorio si aún no existe.
      */
-    private boolean isCacheValid(String cacheKey) {
-        Long cacheTime = cacheTimes.get(cacheKey);
-        if (cacheTime == null) {
-            return false;
+    public static synchronized void trimMemory(int level) {
+        if (instance != null) {
+            instance.productCache.onTrimMemory(level);
         }
-        return System.currentTimeMillis() - cacheTime < CACHE_EXPIRATION;
     }
     
     /**
-     * Guarda un producto en la caché
-     */
-    private void cacheProduct(Product product) {
-        if (product != null && product.getProductId() != null) {
-            productCache.put(product.getProductId(), product);
-            cacheTimes.put("product_" + product.getProductId(), System.currentTimeMillis());
-        }
-    }
-    
-    /**
-     * Guarda una lista de productos en caché por categoría
+     * Verifica si hay conexión a internet
      */
-    private void cacheProductsByCategory(String category, List<Product> products) {
-        if (category != null && products != null) {
-            categoryProductsCache.put(category, new ArrayList<>(products));
-            cacheTimes.put("category_" + category, System.currentTimeMillis());
-            
-            // También guardamos los productos individuales
-            for (Product product : products) {
-                cacheProduct(product);
-            }
-        }
+    private boolean isNetworkAvailable() {
+        ConnectivityManager connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        NetworkInfo activeNetworkInfo = connectivityManager.getActiveNetworkInfo();
+        return activeNetworkInfo != null && activeNetworkInfo.isConnected();
     }
     
     /**
      * Obtiene un producto por ID
      * 1. Intenta primero desde la caché
-     * 2. Si no está o expiró, lo obtiene de Firestore
+     * 2. Si no está o expiró, lo pide al cargador por lotes junto con las demás peticiones
+     *    de la misma ventana
      * 3. Lo guarda en caché si fue exitoso
      * 4. Notifica con LiveData
      */
@@ -109,106 +169,25 @@ public class ProductRepository extends FirestoreRepository {
         final MutableLiveData<Product> productData = new MutableLiveData<>();
         
         // Verificar si está en caché y es válido
-        if (productCache.containsKey(productId) && isCacheValid("product_" + productId)) {
-            productData.postValue(productCache.get(productId));
+        Product cached = productCache.getProduct(productId);
+        if (cached != null) {
+            productData.postValue(cached);
             return productData;
         }
         
         // Si no hay red, intentamos usar caché aunque haya expirado
-        if (!isNetworkAvailable() && productCache.containsKey(productId)) {
-            productData.postValue(productCache.get(productId));
+        Product stale = productCache.getStaleProduct(productId);
+        if (!isNetworkAvailable() && stale != null) {
+            productData.postValue(stale);
             return productData;
         }
         
-        // Obtener desde Firestore
-        executor.execute(() -> {
-            try {
-                Object documentRef = getDocumentReference(Constants.COLLECTION_PRODUCTS, productId);
-                if (documentRef == null) {
-                    productData.postValue(null);
-                    return;
-                }
-                
-                // Obtener el documento
-                Object task = documentRef.getClass().getMethod("get").invoke(documentRef);
-                
-                // Registrar listeners de éxito y fallo
-                Class<?> successListenerClass = Class.forName("com.google.android.gms.tasks.OnSuccessListener");
-                Class<?> failureListenerClass = Class.forName("com.google.android.gms.tasks.OnFailureListener");
-                
-                // Crear listener de éxito
-                Object successListener = java.lang.reflect.Proxy.newProxyInstance(
-                    getClass().getClassLoader(),
-                    new Class<?>[]{successListenerClass},
-                    (proxy, method, args) -> {
-                        if (method.getName().equals("onSuccess")) {
-                            Object documentSnapshot = args[0];
-                            Boolean exists = (Boolean) documentSnapshot.getClass()
-                                .getMethod("exists")
-                                .invoke(documentSnapshot);
-                                
-                            if (exists) {
-                                Map<String, Object> data = (Map<String, Object>) documentSnapshot.getClass()
-                                    .getMethod("getData")
-                                    .invoke(documentSnapshot);
-                                    
-                                // Asegurarse de que el productId está en el mapa
-                                if (!data.containsKey("productId")) {
-                                    data.put("productId", productId);
-                                }
-                                
-                                Product product = Product.fromMap(data);
-                                
-                                // Guardar en caché
-                                cacheProduct(product);
-                                
-                                productData.postValue(product);
-                            } else {
-                                productData.postValue(null);
-                            }
-                        }
-                        return null;
-                    }
-                );
-                
-                // Crear listener de fallo
-                Object failureListener = java.lang.reflect.Proxy.newProxyInstance(
-                    getClass().getClassLoader(),
-                    new Class<?>[]{failureListenerClass},
-                    (proxy, method, args) -> {
-                        if (method.getName().equals("onFailure")) {
-                            Exception exception = (Exception) args[0];
-                            Log.e(TAG, "Error al obtener producto: " + exception.getMessage());
-                            
-                            // Si hay error de red pero tenemos caché, usamos la caché aunque haya expirado
-                            if (productCache.containsKey(productId)) {
-                                productData.postValue(productCache.get(productId));
-                            } else {
-                                productData.postValue(null);
-                            }
-                        }
-                        return null;
-                    }
-                );
-                
-                // Añadir listeners
-                task.getClass()
-                    .getMethod("addOnSuccessListener", successListenerClass)
-                    .invoke(task, successListener);
-                    
-                task.getClass()
-                    .getMethod("addOnFailureListener", failureListenerClass)
-                    .invoke(task, failureListener);
-                
-            } catch (Exception e) {
-                Log.e(TAG, "Error en getProductById: " + e.getMessage());
-                
+        productLoader.load(productId).whenComplete((product, error) -> {
+            if (error != null) {
                 // Si hay error pero tenemos caché, usamos la caché aunque haya expirado
-                if (productCache.containsKey(productId)) {
-                    productData.postValue(productCache.get(productId));
-                } else {
-                    productData.postValue(null);
-                }
+                productData.postValue(productCache.getStaleProduct(productId));
+            } else {
+                productData.postValue(product);
             }
         });
             
@@ -216,34 +195,55 @@ public class ProductRepository extends FirestoreRepository {
     }
     
     /**
-     * Obtiene productos por categoría
+     * Obtiene varios productos por ID (carrito, favoritos, pedidos) en el orden pedido.
+     * Los que no existen se omiten; si una lectura falla se usa la versión caducada de caché.
      */
-    public LiveData<List<Product>> getProductsByCategory(String category) {
+    public LiveData<List<Product>> getProductsByIds(List<String> productIds) {
         final MutableLiveData<List<Product>> productsData = new MutableLiveData<>();
-        
-        // Verificar si está en caché y es válido
-        if (categoryProductsCache.containsKey(category) && isCacheValid("category_" + category)) {
-            productsData.postValue(categoryProductsCache.get(category));
+        if (productIds == null || productIds.isEmpty()) {
+            productsData.postValue(new ArrayList<>());
             return productsData;
         }
         
-        // Si no hay red, intentamos usar caché aunque haya expirado
-        if (!isNetworkAvailable() && categoryProductsCache.containsKey(category)) {
-            productsData.postValue(categoryProductsCache.get(category));
-            return productsData;
+        List<CompletableFuture<Product>> futures = new ArrayList<>(productIds.size());
+        for (String productId : productIds) {
+            futures.add(productLoader.load(productId)
+                    .exceptionally(error -> productCache.getStaleProduct(productId)));
         }
-        
-        // Obtener desde Firestore
-        return getCollectionDataWithCache(
-            Constants.COLLECTION_PRODUCTS,
-            "category",
-            category,
-            0,
-            Product::fromMap,
-            products -> {
-                // Guardar en caché
-                cacheProductsByCategory(category, products);
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenRun(() -> {
+            List<Product> products = new ArrayList<>(futures.size());
+            for (CompletableFuture<Product> future : futures) {
+                Product product = future.join();
+                if (product != null) {
+                    products.add(product);
+                }
             }
+            productsData.postValue(products);
+        });
+        return productsData;
+    }
+    
+    /**
+     * Lee un bloque de productos por ID del documento con una sola consulta
+     */
+    private void loadProductBatch(List<String> productIds, QueryCallback<Product> callback) {
+        fetchCollection(
+            FirestoreQuery.collection(Constants.COLLECTION_PRODUCTS)
+                .whereIn(FirestoreQuery.DOCUMENT_ID, productIds),
+            "productId",
+            PRODUCT_CONVERTER,
+            callback
+        );
+    }
+    
+    /**
+     * Obtiene productos por categoría
+     */
+    public LiveData<List<Product>> getProductsByCategory(String category) {
+        return getProductList(
+            CACHE_KEY_CATEGORY_PREFIX + category,
+            FirestoreQuery.collection(Constants.COLLECTION_PRODUCTS)
+                .whereEqualTo("category", category)
         );
     }
     
@@ -251,242 +251,278 @@ public class ProductRepository extends FirestoreRepository {
      * Obtiene productos destacados
      */
     public LiveData<List<Product>> getFeaturedProducts() {
-        final String FEATURED_CACHE_KEY = "featured_products";
-        final MutableLiveData<List<Product>> productsData = new MutableLiveData<>();
-        
-        // Verificar si está en caché y es válido
-        if (categoryProductsCache.containsKey(FEATURED_CACHE_KEY) && isCacheValid(FEATURED_CACHE_KEY)) {
-            productsData.postValue(categoryProductsCache.get(FEATURED_CACHE_KEY));
-            return productsData;
+        return getFeaturedProducts(false);
+    }
+    
+    /**
+     * Obtiene productos destacados. Con {@code live}, la lista se mantiene con un snapshot
+     * listener compartido (el mismo que conecta {@link #prefetchFeaturedProducts()}) en lugar de
+     * una consulta puntual, y se desconecta sola cuando nadie la observa. Debe llamarse desde el
+     * hilo principal.
+     */
+    public LiveData<List<Product>> getFeaturedProducts(boolean live) {
+        if (live) {
+            return observeProductList(CACHE_KEY_FEATURED, featuredQuery());
         }
-        
-        // Si no hay red, intentamos usar caché aunque haya expirado
-        if (!isNetworkAvailable() && categoryProductsCache.containsKey(FEATURED_CACHE_KEY)) {
-            productsData.postValue(categoryProductsCache.get(FEATURED_CACHE_KEY));
-            return productsData;
+        return getProductList(CACHE_KEY_FEATURED, featuredQuery());
+    }
+    
+    private static FirestoreQuery featuredQuery() {
+        return FirestoreQuery.collection(Constants.COLLECTION_PRODUCTS)
+            .whereEqualTo("featured", true)
+            .limit(10);
+    }
+    
+    /**
+     * Carga en memoria la instantánea en disco de los destacados, si aún no hay nada en caché,
+     * para que la pantalla de inicio los pinte sin esperar a la red. El resultado indica si hay
+     * destacados que mostrar.
+     */
+    public AsyncResult<Boolean> warmFeaturedProducts() {
+        if (productCache.getStaleList(CACHE_KEY_FEATURED) != null) {
+            return AsyncResult.of(true);
         }
-        
-        // Obtener desde Firestore
-        return getCollectionDataWithCache(
-            Constants.COLLECTION_PRODUCTS,
-            "featured",
-            true,
-            10,
-            Product::fromMap,
-            products -> {
-                // Guardar en caché
-                categoryProductsCache.put(FEATURED_CACHE_KEY, new ArrayList<>(products));
-                cacheTimes.put(FEATURED_CACHE_KEY, System.currentTimeMillis());
-                
-                // También guardamos los productos individuales
-                for (Product product : products) {
-                    cacheProduct(product);
-                }
+        AsyncResult<Boolean> result = AsyncResult.create();
+        snapshotStore.readAsync(CACHE_KEY_FEATURED, snapshot -> {
+            boolean hasProducts = snapshot != null && !snapshot.products.isEmpty();
+            if (hasProducts && productCache.getStaleList(CACHE_KEY_FEATURED) == null) {
+                // Sembrar como expirada: se muestra enseguida y se revalida al pedirla. Solo la
+                // lista, para no servir como vigentes productos leídos de disco
+                productCache.putListOnly(CACHE_KEY_FEATURED, snapshot.products, 0);
             }
-        );
+            result.complete(hasProducts);
+        });
+        return result;
+    }
+    
+    /**
+     * Conecta de antemano la lista en vivo de destacados, la misma que observa la pantalla de
+     * inicio con {@code getFeaturedProducts(true)}: al abrirse se engancha a ese listener en lugar de leer de nuevo
+     * los documentos. Se retiene durante {@link #PREFETCH_HOLD_MS}; si nadie la observa para
+     * entonces, se desconecta sola. Debe llamarse desde el hilo principal.
+     */
+    public void prefetchFeaturedProducts() {
+        LiveData<List<Product>> featured = observeProductList(CACHE_KEY_FEATURED, featuredQuery());
+        Observer<List<Product>> hold = products -> { };
+        featured.observeForever(hold);
+        mainHandler.postDelayed(() -> featured.removeObserver(hold), PREFETCH_HOLD_MS);
     }
     
     /**
      * Obtiene productos populares (por ejemplo, los más vendidos)
      */
     public LiveData<List<Product>> getPopularProducts(int limit) {
-        final String POPULAR_CACHE_KEY = "popular_products";
-        final MutableLiveData<List<Product>> productsData = new MutableLiveData<>();
+        return getProductList(
+            CACHE_KEY_POPULAR,
+            FirestoreQuery.collection(Constants.COLLECTION_PRODUCTS)
+                .whereEqualTo("popular", true)
+                .limit(limit)
+        );
+    }
+    
+    /**
+     * Obtiene productos nuevos (últimas adiciones)
+     */
+    public LiveData<List<Product>> getNewProducts(int limit) {
+        // Ordenar por fecha descendente
+        return getProductList(
+            CACHE_KEY_NEW,
+            FirestoreQuery.collection(Constants.COLLECTION_PRODUCTS)
+                .orderBy("timestamp", Query.Direction.DESCENDING)
+                .limit(limit)
+        );
+    }
+    
+    /**
+     * Obtiene una lista de productos según la política de frescura de su clave:
+     * 1. Desde la caché en memoria si es válida (o aunque haya expirado si no hay red)
+     * 2. Si expiró dentro de la ventana stale-while-revalidate, la muestra y revalida en segundo plano
+     * 3. Si no está en memoria, muestra primero la instantánea en disco mientras consulta Firestore
+     * La respuesta de red solo se emite de nuevo si su contenido cambió respecto a lo mostrado.
+     */
+    private LiveData<List<Product>> getProductList(String cacheKey, FirestoreQuery query) {
+        final FreshnessPolicy policy = getFreshnessPolicy(cacheKey);
+        final RevalidatingLiveData productsData = new RevalidatingLiveData(mainHandler);
         
         // Verificar si está en caché y es válido
-        if (categoryProductsCache.containsKey(POPULAR_CACHE_KEY) && isCacheValid(POPULAR_CACHE_KEY)) {
-            productsData.postValue(categoryProductsCache.get(POPULAR_CACHE_KEY));
+        List<Product> cached = productCache.getList(cacheKey);
+        if (cached != null) {
+            productsData.postValue(cached);
             return productsData;
         }
         
         // Si no hay red, intentamos usar caché aunque haya expirado
-        if (!isNetworkAvailable() && categoryProductsCache.containsKey(POPULAR_CACHE_KEY)) {
-            productsData.postValue(categoryProductsCache.get(POPULAR_CACHE_KEY));
+        List<Product> stale = productCache.getStaleList(cacheKey);
+        if (stale != null && !isNetworkAvailable()) {
+            productsData.postValue(stale);
             return productsData;
         }
         
-        // Obtener desde Firestore
-        return getCollectionDataWithCache(
-            Constants.COLLECTION_PRODUCTS,
-            "popular",
-            true,
-            limit,
-            Product::fromMap,
-            products -> {
-                // Guardar en caché
-                categoryProductsCache.put(POPULAR_CACHE_KEY, new ArrayList<>(products));
-                cacheTimes.put(POPULAR_CACHE_KEY, System.currentTimeMillis());
-                
-                // También guardamos los productos individuales
-                for (Product product : products) {
-                    cacheProduct(product);
+        if (stale != null && policy.allowsStale(productCache.getListRemainingTtl(cacheKey))) {
+            // Stale-while-revalidate: mostrar lo caducado y revalidar
+            productsData.showCached(stale);
+        } else if (stale == null) {
+            // Arranque en frío: mostrar la instantánea en disco mientras llega la red
+            snapshotStore.readAsync(cacheKey, snapshot -> {
+                if (snapshot != null && !snapshot.products.isEmpty()) {
+                    // Sembrar como expirada para servir de respaldo ante errores; solo la lista,
+                    // para que getProductById no sirva como vigentes productos leídos de disco.
+                    // Si la red ya respondió, no se pisa su lista con la de disco
+                    if (productCache.getStaleList(cacheKey) == null) {
+                        productCache.putListOnly(cacheKey, snapshot.products, 0);
+                    }
+                    productsData.showCached(snapshot.products);
                 }
+            });
+        }
+        
+        // Obtener desde Firestore
+        fetchCollection(query, "productId", PRODUCT_CONVERTER, new QueryCallback<Product>() {
+            @Override
+            public void onResult(List<Product> products) {
+                // Guardar en caché (también los productos individuales) y en disco
+                productCache.putList(cacheKey, products, policy.getMaxAgeMillis());
+                snapshotStore.writeAsync(cacheKey, products);
+                productsData.deliverNetwork(products);
             }
-        );
+            
+            @Override
+            public void onError(Exception e) {
+                Log.e(TAG, "Error al obtener " + cacheKey + ": " + e.getMessage());
+                // Si hay error pero tenemos caché, usamos la caché aunque haya expirado
+                productsData.deliverError(productCache.getStaleList(cacheKey));
+            }
+        });
+        
+        return productsData;
     }
     
     /**
-     * Obtiene productos nuevos (últimas adiciones)
+     * Lista en vivo; muestra primero la caché (aunque haya expirado) y cachea cada actualización.
+     * Debe llamarse desde el hilo principal.
      */
-    public LiveData<List<Product>> getNewProducts(int limit) {
-        final String NEW_CACHE_KEY = "new_products";
-        final MutableLiveData<List<Product>> productsData = new MutableLiveData<>();
+    @SuppressWarnings("unchecked")
+    private LiveData<List<Product>> observeProductList(String cacheKey, FirestoreQuery query) {
+        LiveData<List<Product>> live = observeCollection(query, "productId", PRODUCT_CONVERTER,
+            new QueryCallback<Product>() {
+                @Override
+                public void onResult(List<Product> products) {
+                    productCache.putList(cacheKey, products, getFreshnessPolicy(cacheKey).getMaxAgeMillis());
+                    snapshotStore.writeAsync(cacheKey, products);
+                }
+                
+                @Override
+                public void onError(Exception e) {
+                    Log.e(TAG, "Error en la lista en vivo " + cacheKey + ": " + e.getMessage());
+                }
+            });
         
-        // Verificar si está en caché y es válido
-        if (categoryProductsCache.containsKey(NEW_CACHE_KEY) && isCacheValid(NEW_CACHE_KEY)) {
-            productsData.postValue(categoryProductsCache.get(NEW_CACHE_KEY));
-            return productsData;
+        if (live instanceof LiveQueryLiveData) {
+            ((LiveQueryLiveData<Product>) live).seed(productCache.getStaleList(cacheKey));
+        }
+        return live;
+    }
+    
+    /**
+     * Configura la política de frescura de una clave de caché
+     * ({@link #CACHE_KEY_FEATURED}, {@link #CACHE_KEY_CATEGORY_PREFIX} para todas las categorías, etc.).
+     */
+    public void setFreshnessPolicy(String cacheKey, FreshnessPolicy policy) {
+        if (cacheKey != null && policy != null) {
+            freshnessPolicies.put(cacheKey, policy);
         }
+    }
+    
+    private FreshnessPolicy getFreshnessPolicy(String cacheKey) {
+        FreshnessPolicy policy = freshnessPolicies.get(cacheKey);
+        if (policy == null && cacheKey.startsWith(CACHE_KEY_CATEGORY_PREFIX)) {
+            policy = freshnessPolicies.get(CACHE_KEY_CATEGORY_PREFIX);
+        }
+        return policy != null ? policy : DEFAULT_FRESHNESS;
+    }
+    
+    /**
+     * LiveData de una lista que combina datos cacheados y la respuesta de red.
+     * Todas las decisiones se toman en el hilo principal, por lo que no requiere sincronización.
+     */
+    private static final class RevalidatingLiveData extends MutableLiveData<List<Product>> {
+        private final Handler mainHandler;
+        private boolean networkDelivered;
+        private boolean hasShown;
+        private int shownHash;
         
-        // Si no hay red, intentamos usar caché aunque haya expirado
-        if (!isNetworkAvailable() && categoryProductsCache.containsKey(NEW_CACHE_KEY)) {
-            productsData.postValue(categoryProductsCache.get(NEW_CACHE_KEY));
-            return productsData;
+        RevalidatingLiveData(Handler mainHandler) {
+            this.mainHandler = mainHandler;
         }
         
-        // Obtener desde Firestore y ordenar por fecha
-        MutableLiveData<List<Product>> liveData = new MutableLiveData<>();
-        executor.execute(() -> {
-            try {
-                Object collectionRef = getCollectionReference(Constants.COLLECTION_PRODUCTS);
-                if (collectionRef == null) {
-                    liveData.postValue(new ArrayList<>());
-                    return;
+        /**
+         * Muestra datos cacheados, salvo que la red ya haya respondido.
+         */
+        void showCached(List<Product> products) {
+            mainHandler.post(() -> {
+                if (!networkDelivered) {
+                    show(products);
                 }
-                
-                // Obtener query con ordenamiento por fecha
-                Class<?> queryClass = Class.forName("com.google.firebase.firestore.Query");
-                Object query = collectionRef;
-                
-                // Ordenar por timestamp descendente
-                Method orderByMethod = queryClass.getMethod("orderBy", String.class);
-                query = orderByMethod.invoke(query, "timestamp");
-                
-                Method descMethod = query.getClass().getMethod("descending");
-                query = descMethod.invoke(query);
-                
-                // Aplicar límite
-                if (limit > 0) {
-                    Method limitMethod = query.getClass().getMethod("limit", long.class);
-                    query = limitMethod.invoke(query, (long) limit);
+            });
+        }
+        
+        /**
+         * Emite la respuesta de red solo si cambió respecto a lo mostrado.
+         */
+        void deliverNetwork(List<Product> products) {
+            mainHandler.post(() -> {
+                networkDelivered = true;
+                if (!hasShown || Product.contentHash(products) != shownHash) {
+                    show(products);
                 }
-                
-                // Obtener datos
-                Class<?> taskClass = Class.forName("com.google.android.gms.tasks.Task");
-                Method getMethod = query.getClass().getMethod("get");
-                Object task = getMethod.invoke(query);
-                
-                // Añadir listener de completado
-                Class<?> completeListenerClass = Class.forName("com.google.android.gms.tasks.OnCompleteListener");
-                Object completeListener = java.lang.reflect.Proxy.newProxyInstance(
-                        getClass().getClassLoader(),
-                        new Class<?>[]{completeListenerClass},
-                        (proxy, method, args) -> {
-                            if (method.getName().equals("onComplete")) {
-                                Object taskResult = args[0];
-                                Boolean isSuccessful = (Boolean) taskResult.getClass()
-                                        .getMethod("isSuccessful")
-                                        .invoke(taskResult);
-                                
-                                if (isSuccessful) {
-                                    Object querySnapshot = taskResult.getClass()
-                                            .getMethod("getResult")
-                                            .invoke(taskResult);
-                                    
-                                    Method getDocumentsMethod = querySnapshot.getClass()
-                                            .getMethod("getDocuments");
-                                    List<?> documents = (List<?>) getDocumentsMethod.invoke(querySnapshot);
-                                    
-                                    List<Product> resultList = new ArrayList<>();
-                                    for (Object doc : documents) {
-                                        Method getDataMethod = doc.getClass().getMethod("getData");
-                                        Map<String, Object> data = (Map<String, Object>) getDataMethod.invoke(doc);
-                                        
-                                        Method getIdMethod = doc.getClass().getMethod("getId");
-                                        String id = (String) getIdMethod.invoke(doc);
-                                        
-                                        // Añadir ID al mapa de datos si no existe
-                                        if (!data.containsKey("productId")) {
-                                            data.put("productId", id);
-                                        }
-                                        
-                                        Product item = Product.fromMap(data);
-                                        if (item != null) {
-                                            resultList.add(item);
-                                        }
-                                    }
-                                    
-                                    // Guardar en caché
-                                    categoryProductsCache.put(NEW_CACHE_KEY, new ArrayList<>(resultList));
-                                    cacheTimes.put(NEW_CACHE_KEY, System.currentTimeMillis());
-                                    
-                                    // También guardamos los productos individuales
-                                    for (Product product : resultList) {
-                                        cacheProduct(product);
-                                    }
-                                    
-                                    liveData.postValue(resultList);
-                                } else {
-                                    // Si hay error pero tenemos caché, usamos la caché aunque haya expirado
-                                    if (categoryProductsCache.containsKey(NEW_CACHE_KEY)) {
-                                        liveData.postValue(categoryProductsCache.get(NEW_CACHE_KEY));
-                                    } else {
-                                        liveData.postValue(new ArrayList<>());
-                                    }
-                                }
-                            }
-                            return null;
-                        });
-                
-                Method addOnCompleteListenerMethod = taskClass.getMethod("addOnCompleteListener", completeListenerClass);
-                addOnCompleteListenerMethod.invoke(task, completeListener);
-                
-            } catch (Exception e) {
-                Log.e(TAG, "Error al obtener nuevos productos: " + e.getMessage());
-                
-                // Si hay error pero tenemos caché, usamos la caché aunque haya expirado
-                if (categoryProductsCache.containsKey(NEW_CACHE_KEY)) {
-                    liveData.postValue(categoryProductsCache.get(NEW_CACHE_KEY));
-                } else {
-                    liveData.postValue(new ArrayList<>());
+            });
+        }
+        
+        /**
+         * Ante un error conserva lo mostrado; si no había nada, usa el respaldo o una lista vacía.
+         */
+        void deliverError(List<Product> fallback) {
+            mainHandler.post(() -> {
+                networkDelivered = true;
+                if (!hasShown) {
+                    show(fallback != null ? fallback : new ArrayList<>());
                 }
-            }
-        });
+            });
+        }
         
-        return liveData;
+        private void show(List<Product> products) {
+            hasShown = true;
+            shownHash = Product.contentHash(products);
+            setValue(products);
+        }
     }
     
     /**
-     * Busca productos por palabra clave en nombre, descripción o tags
+     * Busca productos por palabra clave en nombre, descripción o tags.
+     * La consulta se resuelve fuera del hilo principal con el índice de búsqueda,
+     * que se alimenta de los productos que entran en caché.
      */
     public LiveData<List<Product>> searchProducts(String query) {
-        final MediatorLiveData<List<Product>> searchResults = new MediatorLiveData<>();
+        final MutableLiveData<List<Product>> searchResults = new MutableLiveData<>();
         
-        // Si no hay conexión, buscamos en caché
-        if (!isNetworkAvailable()) {
-            List<Product> results = new ArrayList<>();
-            for (Product product : productCache.values()) {
-                if (matchesSearchQuery(product, query)) {
-                    results.add(product);
-                }
-            }
-            searchResults.setValue(results);
+        // Si no hay conexión o el catálogo ya está cargado, buscamos directamente en el índice
+        if (!isNetworkAvailable() || productCache.getList(CACHE_KEY_ALL) != null) {
+            searchIndexAsync(query, searchResults);
             return searchResults;
         }
         
-        // Obtener todos los productos para filtrar manualmente
+        // Sincronizar el catálogo (se indexa al guardarse en caché) y después buscar
         // En una implementación real, se debería usar Cloud Functions o Algolia
-        LiveData<List<Product>> allProductsLiveData = getAllProducts();
-        
-        searchResults.addSource(allProductsLiveData, products -> {
-            if (products != null) {
-                List<Product> filteredProducts = new ArrayList<>();
-                for (Product product : products) {
-                    if (matchesSearchQuery(product, query)) {
-                        filteredProducts.add(product);
-                    }
-                }
-                searchResults.setValue(filteredProducts);
+        syncCatalog(new QueryCallback<Product>() {
+            @Override
+            public void onResult(List<Product> products) {
+                searchIndexAsync(query, searchResults);
+            }
+            
+            @Override
+            public void onError(Exception e) {
+                // Buscar al menos en lo que ya está indexado
+                searchIndexAsync(query, searchResults);
             }
         });
         
@@ -494,184 +530,147 @@ public class ProductRepository extends FirestoreRepository {
     }
     
     /**
-     * Verifica si un producto coincide con la búsqueda
+     * Cambia la estrategia de búsqueda (por defecto {@link SearchMode#RANKED_THEN_FUZZY}).
      */
-    private boolean matchesSearchQuery(Product product, String query) {
-        if (query == null || query.trim().isEmpty()) return false;
-        
-        String lowerQuery = query.toLowerCase();
-        
-        // Buscar en nombre
-        if (product.getName() != null && product.getName().toLowerCase().contains(lowerQuery)) {
-            return true;
-        }
-        
-        // Buscar en descripción
-        if (product.getDescription() != null && product.getDescription().toLowerCase().contains(lowerQuery)) {
-            return true;
+    public void setSearchMode(SearchMode mode) {
+        if (mode != null) {
+            searchMode = mode;
         }
-        
-        // Buscar en tags
-        if (product.getTags() != null) {
-            for (String tag : product.getTags()) {
-                if (tag.toLowerCase().contains(lowerQuery)) {
-                    return true;
+    }
+    
+    private void searchIndexAsync(String query, MutableLiveData<List<Product>> searchResults) {
+        final SearchMode mode = searchMode;
+        searchExecutor.execute(() -> {
+            List<Product> results;
+            if (mode == SearchMode.FUZZY) {
+                results = fuzzySearchIndex.search(query, MAX_SEARCH_RESULTS);
+            } else {
+                results = searchIndex.search(query, MAX_SEARCH_RESULTS);
+                if (results.isEmpty() && mode == SearchMode.RANKED_THEN_FUZZY) {
+                    results = fuzzySearchIndex.search(query, MAX_SEARCH_RESULTS);
                 }
             }
-        }
-        
-        return false;
+            searchResults.postValue(results);
+        });
+    }
+    
+    /**
+     * Catálogo completo paginado por ID de documento, en lugar de descargar toda la colección.
+     */
+    public ProductPager createCatalogPager(PagingConfig config) {
+        return new ProductPager(
+            this::loadProductPage,
+            () -> FirestoreQuery.collection(Constants.COLLECTION_PRODUCTS)
+                .orderBy(FirestoreQuery.DOCUMENT_ID),
+            config
+        );
+    }
+    
+    /**
+     * Productos de una categoría paginados por ID de documento
+     */
+    public ProductPager createCategoryPager(String category, PagingConfig config) {
+        return new ProductPager(
+            this::loadProductPage,
+            () -> FirestoreQuery.collection(Constants.COLLECTION_PRODUCTS)
+                .whereEqualTo("category", category)
+                .orderBy(FirestoreQuery.DOCUMENT_ID),
+            config
+        );
+    }
+    
+    private void loadProductPage(FirestoreQuery query, TaskPriority priority, TaskScope scope,
+                                 PageCallback<Product> callback) {
+        fetchPage(query, "productId", PRODUCT_CONVERTER, priority, scope, new PageCallback<Product>() {
+            @Override
+            public void onPage(List<Product> items, DocumentSnapshot first, DocumentSnapshot last) {
+                // Los productos de cada página quedan en caché e indexados para la búsqueda
+                productCache.putProducts(items);
+                callback.onPage(items, first, last);
+            }
+            
+            @Override
+            public void onError(Exception e) {
+                callback.onError(e);
+            }
+        });
     }
     
     /**
-     * Obtiene todos los productos
+     * Obtiene todos los productos de una sola vez.
+     * Para mostrar el catálogo en pantalla usar {@link #createCatalogPager(PagingConfig)}.
      */
     public LiveData<List<Product>> getAllProducts() {
-        final String ALL_CACHE_KEY = "all_products";
-        
         // Verificar si está en caché y es válido
-        if (categoryProductsCache.containsKey(ALL_CACHE_KEY) && isCacheValid(ALL_CACHE_KEY)) {
+        List<Product> cached = productCache.getList(CACHE_KEY_ALL);
+        if (cached != null) {
             MutableLiveData<List<Product>> cachedData = new MutableLiveData<>();
-            cachedData.setValue(categoryProductsCache.get(ALL_CACHE_KEY));
+            cachedData.setValue(cached);
             return cachedData;
         }
         
-        // Obtener desde Firestore
-        return getCollectionDataWithCache(
-            Constants.COLLECTION_PRODUCTS,
-            null,
-            null,
-            0,
-            Product::fromMap,
-            products -> {
-                // Guardar en caché
-                categoryProductsCache.put(ALL_CACHE_KEY, new ArrayList<>(products));
-                cacheTimes.put(ALL_CACHE_KEY, System.currentTimeMillis());
-                
-                // También guardamos los productos individuales
-                for (Product product : products) {
-                    cacheProduct(product);
-                }
+        // Sincronizar solo lo que cambió desde la última vez
+        MutableLiveData<List<Product>> allProducts = new MutableLiveData<>();
+        syncCatalog(new QueryCallback<Product>() {
+            @Override
+            public void onResult(List<Product> products) {
+                allProducts.postValue(products);
             }
-        );
+            
+            @Override
+            public void onError(Exception e) {
+                List<Product> stale = productCache.getStaleList(CACHE_KEY_ALL);
+                allProducts.postValue(stale != null ? stale : new ArrayList<>());
+            }
+        });
+        return allProducts;
     }
     
     /**
-     * Versión mejorada de getCollectionData que incluye caché
+     * Sincroniza el catálogo de forma incremental y lo deja en caché.
+     * Solo se indexan y cachean los productos que cambiaron; los borrados se quitan de la
+     * caché y de los índices de búsqueda.
      */
-    private <T> LiveData<List<T>> getCollectionDataWithCache(
-            String collectionPath, 
-            String whereField, 
-            Object whereValue, 
-            int limit,
-            DocumentConverter<T> converter,
-            CacheCallback<T> cacheCallback) {
-        
-        MutableLiveData<List<T>> liveData = new MutableLiveData<>();
-        executor.execute(() -> {
-            try {
-                Object collectionRef = getCollectionReference(collectionPath);
-                if (collectionRef == null) {
-                    liveData.postValue(new ArrayList<>());
-                    return;
+    private void syncCatalog(QueryCallback<Product> callback) {
+        catalogSync.sync(new CatalogSyncEngine.SyncCallback() {
+            @Override
+            public void onSynced(List<Product> catalog, CatalogSyncEngine.SyncResult result) {
+                for (String productId : result.getDeletedIds()) {
+                    productCache.removeProduct(productId);
+                    searchIndex.remove(productId);
+                    fuzzySearchIndex.remove(productId);
                 }
                 
-                // Aplicar filtro si es necesario
-                Object query = collectionRef;
-                if (whereField != null && !whereField.isEmpty()) {
-                    Class<?> objectClass = Class.forName("java.lang.Object");
-                    Method whereEqualToMethod = query.getClass()
-                            .getMethod("whereEqualTo", String.class, objectClass);
-                    query = whereEqualToMethod.invoke(query, whereField, whereValue);
-                }
-                
-                // Aplicar límite si es necesario
-                if (limit > 0) {
-                    Method limitMethod = query.getClass().getMethod("limit", long.class);
-                    query = limitMethod.invoke(query, (long) limit);
+                if (!catalogIndexed) {
+                    // Primera sincronización del proceso: el catálogo puede venir de disco sin indexar
+                    productCache.putList(CACHE_KEY_ALL, catalog);
+                    catalogIndexed = true;
+                } else {
+                    productCache.putProducts(result.getUpserted());
+                    productCache.putListOnly(CACHE_KEY_ALL, catalog, CACHE_EXPIRATION);
                 }
-                
-                // Obtener datos
-                Class<?> taskClass = Class.forName("com.google.android.gms.tasks.Task");
-                Method getMethod = query.getClass().getMethod("get");
-                Object task = getMethod.invoke(query);
-                
-                // Añadir listener de completado
-                Class<?> completeListenerClass = Class.forName("com.google.android.gms.tasks.OnCompleteListener");
-                Object completeListener = java.lang.reflect.Proxy.newProxyInstance(
-                        getClass().getClassLoader(),
-                        new Class<?>[]{completeListenerClass},
-                        (proxy, method, args) -> {
-                            if (method.getName().equals("onComplete")) {
-                                Object taskResult = args[0];
-                                Boolean isSuccessful = (Boolean) taskResult.getClass()
-                                        .getMethod("isSuccessful")
-                                        .invoke(taskResult);
-                                
-                                if (isSuccessful) {
-                                    Object querySnapshot = taskResult.getClass()
-                                            .getMethod("getResult")
-                                            .invoke(taskResult);
-                                    
-                                    Method getDocumentsMethod = querySnapshot.getClass()
-                                            .getMethod("getDocuments");
-                                    List<?> documents = (List<?>) getDocumentsMethod.invoke(querySnapshot);
-                                    
-                                    List<T> resultList = new ArrayList<>();
-                                    for (Object doc : documents) {
-                                        Method getDataMethod = doc.getClass().getMethod("getData");
-                                        Map<String, Object> data = (Map<String, Object>) getDataMethod.invoke(doc);
-                                        
-                                        Method getIdMethod = doc.getClass().getMethod("getId");
-                                        String id = (String) getIdMethod.invoke(doc);
-                                        
-                                        // Añadir ID al mapa de datos si no existe
-                                        if (!data.containsKey("id")) {
-                                            data.put("id", id);
-                                        }
-                                        
-                                        T item = converter.convert(data);
-                                        if (item != null) {
-                                            resultList.add(item);
-                                        }
-                                    }
-                                    
-                                    // Guardar en caché
-                                    if (cacheCallback != null) {
-                                        cacheCallback.onCacheData(resultList);
-                                    }
-                                    
-                                    liveData.postValue(resultList);
-                                } else {
-                                    Exception exception = (Exception) taskResult.getClass()
-                                            .getMethod("getException")
-                                            .invoke(taskResult);
-                                            
-                                    Log.e(TAG, "Error en getCollectionDataWithCache: " + 
-                                          (exception != null ? exception.getMessage() : "Desconocido"));
-                                    liveData.postValue(new ArrayList<>());
-                                }
-                            }
-                            return null;
-                        });
-                
-                Method addOnCompleteListenerMethod = taskClass.getMethod("addOnCompleteListener", completeListenerClass);
-                addOnCompleteListenerMethod.invoke(task, completeListener);
-                
-            } catch (Exception e) {
-                Log.e(TAG, "Error al obtener datos de la colección: " + e.getMessage());
-                liveData.postValue(new ArrayList<>());
+                callback.onResult(catalog);
+            }
+            
+            @Override
+            public void onError(Exception e) {
+                callback.onError(e);
             }
         });
-        
-        return liveData;
     }
     
     /**
-     * Interfaz para manejar el guardado en caché
+     * Contadores de la caché de productos (aciertos, fallos, desalojos) para dimensionarla
+     */
+    public MemoryCache.Stats getCacheStats() {
+        return productCache.getProductStats();
+    }
+    
+    /**
+     * Contadores de la caché de listas de productos
      */
-    private interface CacheCallback<T> {
-        void onCacheData(List<T> data);
+    public MemoryCache.Stats getListCacheStats() {
+        return productCache.getListStats();
     }
     
     /**
@@ -679,16 +678,18 @@ public class ProductRepository extends FirestoreRepository {
      */
     public void clearCache() {
         productCache.clear();
-        categoryProductsCache.clear();
-        cacheTimes.clear();
+        catalogSync.reset();
+        catalogIndexed = false;
+        searchIndex.clear();
+        fuzzySearchIndex.clear();
+        snapshotStore.clearAsync();
     }
     
     /**
      * Actualiza la caché de un producto específico
      */
     public void refreshProduct(String productId) {
-        productCache.remove(productId);
-        cacheTimes.remove("product_" + productId);
+        productCache.removeProduct(productId);
         getProductById(productId);
     }
     
@@ -696,16 +697,24 @@ public class ProductRepository extends FirestoreRepository {
      * Actualiza la caché de productos por categoría
      */
     public void refreshCategoryProducts(String category) {
-        categoryProductsCache.remove(category);
-        cacheTimes.remove("category_" + category);
+        productCache.removeList(CACHE_KEY_CATEGORY_PREFIX + category);
+        snapshotStore.deleteAsync(CACHE_KEY_CATEGORY_PREFIX + category);
         getProductsByCategory(category);
     }
     
     /**
-     * Actualiza toda la caché de productos
+     * Actualiza el catálogo descargando solo los productos que cambiaron
      */
     public void refreshAllProducts() {
-        clearCache();
-        getAllProducts();
+        syncCatalog(new QueryCallback<Product>() {
+            @Override
+            public void onResult(List<Product> products) {
+            }
+            
+            @Override
+            public void onError(Exception e) {
+                Log.e(TAG, "Error al actualizar el catálogo: " + e.getMessage());
+            }
+        });
     }
 }
\ No newline at end of file
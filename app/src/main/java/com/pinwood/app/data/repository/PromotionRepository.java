@@ -1,13 +1,14 @@
 package com.pinwood.app.data.repository;
 
 import androidx.lifecycle.LiveData;
-import androidx.lifecycle.MutableLiveData;
 
-import java.util.List;
-import java.util.Map;
+import com.pinwood.app.data.concurrent.AsyncResult;
+import com.pinwood.app.data.remote.FirestoreQuery;
 
 public class PromotionRepository extends FirestoreRepository {
     private static PromotionRepository instance;
+    // Consulta lanzada por prefetchActiveBannerImageUrl que aún nadie ha recogido
+    private AsyncResult<String> prefetched;
 
     private PromotionRepository() {
         // Constructor privado para singleton
@@ -20,34 +21,43 @@ public class PromotionRepository extends FirestoreRepository {
         return instance;
     }
 
-    public LiveData<String> getActiveBannerImageUrl() {
-        MutableLiveData<String> bannerUrlLiveData = new MutableLiveData<>();
-        
-        executor.execute(() -> {
-            try {
-                // Obtener promociones activas
-                LiveData<List<Map<String, Object>>> result = getCollectionData(
-                    "promotions",
-                    "active",
-                    true,
-                    1,
-                    data -> data // Devolver el mapa completo
-                );
-                
-                // Observar el resultado y extraer la URL de la imagen
-                result.observeForever(promotions -> {
-                    if (promotions != null && !promotions.isEmpty()) {
-                        String url = (String) promotions.get(0).get("imageUrl");
-                        bannerUrlLiveData.postValue(url);
-                    } else {
-                        bannerUrlLiveData.postValue("");
-                    }
-                });
-            } catch (Exception e) {
-                bannerUrlLiveData.postValue("");
+    /**
+     * URL de la imagen de la promoción activa, o cadena vacía si no hay ninguna o falla la consulta.
+     * Si hay una precarga pendiente de recoger, se entrega esa.
+     */
+    public AsyncResult<String> loadActiveBannerImageUrl() {
+        synchronized (this) {
+            AsyncResult<String> result = prefetched;
+            prefetched = null;
+            if (result != null && !result.isCancelled()) {
+                return result;
             }
-        });
-            
-        return bannerUrlLiveData;
+        }
+        return queryActiveBannerImageUrl();
+    }
+
+    /**
+     * Lanza la consulta por adelantado (durante el splash); la recoge la siguiente llamada a
+     * {@link #loadActiveBannerImageUrl()}.
+     */
+    public synchronized void prefetchActiveBannerImageUrl() {
+        if (prefetched == null) {
+            prefetched = queryActiveBannerImageUrl();
+        }
+    }
+
+    private AsyncResult<String> queryActiveBannerImageUrl() {
+        return query(
+            FirestoreQuery.collection("promotions")
+                .whereEqualTo("active", true)
+                .limit(1),
+            "id",
+            data -> data.get("imageUrl") instanceof String ? (String) data.get("imageUrl") : null
+        ).map(urls -> urls.isEmpty() ? "" : urls.get(0))
+         .recover(e -> "");
+    }
+
+    public LiveData<String> getActiveBannerImageUrl() {
+        return loadActiveBannerImageUrl().asLiveData();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,190 @@
+package com.pinwood.app.data.repository;
+
+import com.pinwood.app.data.concurrent.TaskScope;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Comparte una misma consulta en curso entre todos los solicitantes que la piden con la misma
+ * clave (colección, filtros, orden, límite y conversor): solo la primera llega a Firestore y el
+ * resto recibe el mismo resultado, o el mismo error.
+ *
+ * La consulta compartida solo se cancela cuando todos sus solicitantes cancelaron su ámbito.
+ */
+public final class SingleFlightQueries {
+
+    /**
+     * Contadores de consultas ejecutadas, solicitantes que se unieron a una en curso y
+     * consultas abandonadas porque todos sus solicitantes cancelaron.
+     */
+    public static final class Stats {
+        private final long executed;
+        private final long coalesced;
+        private final long abandoned;
+        private final int inFlight;
+
+        Stats(long executed, long coalesced, long abandoned, int inFlight) {
+            this.executed = executed;
+            this.coalesced = coalesced;
+            this.abandoned = abandoned;
+            this.inFlight = inFlight;
+        }
+
+        public long getExecuted() {
+            return executed;
+        }
+
+        public long getCoalesced() {
+            return coalesced;
+        }
+
+        public long getAbandoned() {
+            return abandoned;
+        }
+
+        public int getInFlight() {
+            return inFlight;
+        }
+
+        /**
+         * Fracción de solicitudes que se resolvieron sin una consulta propia.
+         */
+        public double getCoalesceRate() {
+            long requests = executed + coalesced;
+            return requests == 0 ? 0 : (double) coalesced / requests;
+        }
+
+        @Override
+        public String toString() {
+            return "consultas{ejecutadas=" + executed + ", compartidas=" + coalesced +
+                   ", abandonadas=" + abandoned + ", en curso=" + inFlight +
+                   ", ahorro=" + String.format("%.0f", getCoalesceRate() * 100) + "%}";
+        }
+    }
+
+    /**
+     * Lanza la consulta real; debe llamar a {@code callback} una sola vez salvo que
+     * {@code scope} se cancele.
+     */
+    interface Starter<T> {
+        void start(TaskScope scope, FirestoreRepository.QueryCallback<T> callback);
+    }
+
+    private static final class Waiter<T> {
+        final FirestoreRepository.QueryCallback<T> callback;
+        final TaskScope scope;
+        Runnable cancelListener;
+
+        Waiter(FirestoreRepository.QueryCallback<T> callback, TaskScope scope) {
+            this.callback = callback;
+            this.scope = scope;
+        }
+
+        boolean isCancelled() {
+            return scope != null && scope.isCancelled();
+        }
+    }
+
+    private static final class Flight<T> {
+        final TaskScope scope = new TaskScope();
+        final List<Waiter<T>> waiters = new ArrayList<>(2);
+    }
+
+    private final Object lock = new Object();
+    private final Map<Object, Flight<?>> flights = new HashMap<>();
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong abandoned = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    <T> void execute(Object key, TaskScope callerScope,
+                     FirestoreRepository.QueryCallback<T> callback, Starter<T> starter) {
+        Waiter<T> waiter = new Waiter<>(callback, callerScope);
+        if (callerScope != null) {
+            // Se registra antes de unirse para que finish() siempre pueda quitarlo
+            waiter.cancelListener = () -> release(key, waiter);
+            callerScope.onCancel(waiter.cancelListener);
+            if (callerScope.isCancelled()) {
+                return;
+            }
+        }
+
+        Flight<T> flight;
+        synchronized (lock) {
+            flight = (Flight<T>) flights.get(key);
+            if (flight != null) {
+                flight.waiters.add(waiter);
+                coalesced.incrementAndGet();
+                return;
+            }
+            flight = new Flight<>();
+            flight.waiters.add(waiter);
+            flights.put(key, flight);
+            executed.incrementAndGet();
+        }
+
+        Flight<T> started = flight;
+        starter.start(flight.scope, new FirestoreRepository.QueryCallback<T>() {
+            @Override
+            public void onResult(List<T> items) {
+                for (Waiter<T> w : finish(key, started)) {
+                    if (!w.isCancelled()) {
+                        w.callback.onResult(items);
+                    }
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                for (Waiter<T> w : finish(key, started)) {
+                    if (!w.isCancelled()) {
+                        w.callback.onError(e);
+                    }
+                }
+            }
+        });
+    }
+
+    Stats getStats() {
+        int inFlight;
+        synchronized (lock) {
+            inFlight = flights.size();
+        }
+        return new Stats(executed.get(), coalesced.get(), abandoned.get(), inFlight);
+    }
+
+    /**
+     * Cierra la consulta a nuevos solicitantes y devuelve los que esperan el resultado.
+     */
+    private <T> List<Waiter<T>> finish(Object key, Flight<T> flight) {
+        List<Waiter<T>> waiters;
+        synchronized (lock) {
+            flights.remove(key, flight);
+            waiters = new ArrayList<>(flight.waiters);
+            flight.waiters.clear();
+        }
+        for (Waiter<T> waiter : waiters) {
+            if (waiter.scope != null) {
+                waiter.scope.removeOnCancel(waiter.cancelListener);
+            }
+        }
+        return waiters;
+    }
+
+    private <T> void release(Object key, Waiter<T> waiter) {
+        Flight<?> flight;
+        synchronized (lock) {
+            flight = flights.get(key);
+            if (flight == null || !flight.waiters.remove(waiter) || !flight.waiters.isEmpty()) {
+                return;
+            }
+            flights.remove(key);
+        }
+        abandoned.incrementAndGet();
+        flight.scope.cancel();
+    }
+}
@@ -0,0 +1,391 @@
+package com.pinwood.app.data.search;
+
+import com.pinwood.app.data.model.product.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Búsqueda tolerante a errores de escritura sobre nombre y etiquetas ("escritorrio" → "escritorio",
+ * "librero" → "librería").
+ *
+ * Los términos del vocabulario se indexan por trigramas. Una consulta genera candidatos con los
+ * trigramas que comparte con cada término y solo verifica con distancia de edición (acotada)
+ * los que pueden estar dentro del límite, por lo que el coste depende del vocabulario y no del
+ * tamaño del catálogo.
+ */
+public class FuzzyProductSearchIndex implements ProductSearchStrategy {
+    private static final float NAME_WEIGHT = 2f;
+    private static final float TAG_WEIGHT = 1f;
+    private static final char PADDING = '$';
+
+    /**
+     * Lista creciente de enteros sin boxing.
+     */
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Vocabulario: término → ID, y por ID su texto y los documentos donde aparece
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> termTexts = new ArrayList<>();
+    // Cada entrada codifica (doc << 1) | 1 si el término aparece en el nombre
+    private final List<IntList> termDocs = new ArrayList<>();
+    private final Map<String, IntList> trigramTerms = new HashMap<>();
+
+    private final Map<String, Integer> docIdsByProductId = new HashMap<>();
+    private Product[] documents = new Product[64];
+    private int nextDocId;
+    private int liveCount;
+
+    @Override
+    public void index(Product product) {
+        if (product == null || product.getProductId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            indexLocked(product);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void indexAll(Collection<Product> products) {
+        if (products == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Product product : products) {
+                if (product != null && product.getProductId() != null) {
+                    indexLocked(product);
+                }
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String productId) {
+        lock.writeLock().lock();
+        try {
+            Integer docId = docIdsByProductId.remove(productId);
+            if (docId != null && documents[docId] != null) {
+                documents[docId] = null;
+                liveCount--;
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            clearLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Productos cuyo nombre o etiquetas contienen, para cada término de la consulta,
+     * una palabra a una distancia de edición acotada.
+     */
+    @Override
+    public List<Product> search(String query, int limit) {
+        List<String> tokens = TextNormalizer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (liveCount == 0) {
+                return new ArrayList<>();
+            }
+
+            float[] scores = new float[nextDocId];
+            int[] matched = new int[nextDocId];
+            // Mejor puntuación del término actual en cada documento, para no sumar variantes
+            float[] tokenScores = new float[nextDocId];
+            int[] touched = new int[nextDocId];
+
+            for (int i = 0; i < tokens.size(); i++) {
+                int touchedCount = 0;
+                String token = tokens.get(i);
+                int maxEdits = maxEditsFor(token);
+
+                for (int termId : candidateTerms(token, maxEdits)) {
+                    int distance = boundedDistance(token, termTexts.get(termId), maxEdits);
+                    if (distance > maxEdits) {
+                        continue;
+                    }
+                    float similarity = 1f - (float) distance / (maxEdits + 1);
+
+                    IntList docs = termDocs.get(termId);
+                    for (int j = 0; j < docs.size; j++) {
+                        int doc = docs.values[j] >>> 1;
+                        if (documents[doc] == null || matched[doc] != i) {
+                            continue;
+                        }
+                        float weight = (docs.values[j] & 1) != 0 ? NAME_WEIGHT : TAG_WEIGHT;
+                        float score = similarity * weight;
+                        if (tokenScores[doc] == 0f) {
+                            touched[touchedCount++] = doc;
+                        }
+                        if (score > tokenScores[doc]) {
+                            tokenScores[doc] = score;
+                        }
+                    }
+                }
+
+                // Solo avanzan los documentos que coincidieron con este término
+                for (int t = 0; t < touchedCount; t++) {
+                    int doc = touched[t];
+                    matched[doc] = i + 1;
+                    scores[doc] += tokenScores[doc];
+                    tokenScores[doc] = 0f;
+                }
+            }
+
+            return topResults(scores, matched, tokens.size(), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Términos del vocabulario que comparten suficientes trigramas con el token para poder
+     * estar a {@code maxEdits} ediciones o menos.
+     */
+    private List<Integer> candidateTerms(String token, int maxEdits) {
+        List<String> grams = trigrams(token);
+        // Una sustitución o un borrado destruye como mucho tres trigramas, pero una
+        // transposición ("cmooda" → "comoda") destruye cuatro
+        int minShared = Math.max(1, grams.size() - 4 * maxEdits);
+
+        Map<Integer, int[]> shared = new HashMap<>();
+        for (String gram : grams) {
+            IntList terms = trigramTerms.get(gram);
+            if (terms == null) {
+                continue;
+            }
+            for (int j = 0; j < terms.size; j++) {
+                int[] count = shared.get(terms.values[j]);
+                if (count == null) {
+                    shared.put(terms.values[j], new int[]{1});
+                } else {
+                    count[0]++;
+                }
+            }
+        }
+
+        List<Integer> candidates = new ArrayList<>();
+        for (Map.Entry<Integer, int[]> entry : shared.entrySet()) {
+            if (entry.getValue()[0] >= minShared
+                    && Math.abs(termTexts.get(entry.getKey()).length() - token.length()) <= maxEdits) {
+                candidates.add(entry.getKey());
+            }
+        }
+        return candidates;
+    }
+
+    private static int maxEditsFor(String token) {
+        if (token.length() <= 3) {
+            return 0;
+        }
+        return token.length() <= 6 ? 1 : 2;
+    }
+
+    /**
+     * Distancia de Damerau-Levenshtein (transposiciones adyacentes incluidas), cortando en cuanto
+     * toda la fila supera {@code maxEdits}. Devuelve {@code maxEdits + 1} si se excede el límite.
+     */
+    static int boundedDistance(String a, String b, int maxEdits) {
+        if (Math.abs(a.length() - b.length()) > maxEdits) {
+            return maxEdits + 1;
+        }
+
+        int[] previousPrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previousPrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], maxEdits + 1);
+    }
+
+    private static List<String> trigrams(String term) {
+        String padded = PADDING + term + PADDING;
+        List<String> grams = new ArrayList<>(Math.max(1, padded.length() - 2));
+        if (padded.length() < 3) {
+            grams.add(padded);
+            return grams;
+        }
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private List<Product> topResults(float[] scores, int[] matched, int tokenCount, int limit) {
+        PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1,
+                (a, b) -> Float.compare(scores[a], scores[b]));
+        for (int doc = 0; doc < matched.length; doc++) {
+            if (matched[doc] == tokenCount) {
+                top.offer(doc);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+
+        Product[] ordered = new Product[top.size()];
+        for (int i = ordered.length - 1; i >= 0; i--) {
+            ordered[i] = documents[top.poll()];
+        }
+        return new ArrayList<>(Arrays.asList(ordered));
+    }
+
+    private void indexLocked(Product product) {
+        Integer previous = docIdsByProductId.get(product.getProductId());
+        if (previous != null && documents[previous] != null) {
+            documents[previous] = null;
+            liveCount--;
+        }
+
+        int docId = nextDocId++;
+        if (docId >= documents.length) {
+            documents = Arrays.copyOf(documents, documents.length * 2);
+        }
+        documents[docId] = product;
+        docIdsByProductId.put(product.getProductId(), docId);
+        liveCount++;
+
+        Map<String, Boolean> words = new HashMap<>();
+        for (String token : TextNormalizer.tokenize(product.getName())) {
+            words.put(token, Boolean.TRUE);
+        }
+        if (product.getTags() != null) {
+            for (String tag : product.getTags()) {
+                for (String token : TextNormalizer.tokenize(tag)) {
+                    if (!words.containsKey(token)) {
+                        words.put(token, Boolean.FALSE);
+                    }
+                }
+            }
+        }
+
+        for (Map.Entry<String, Boolean> word : words.entrySet()) {
+            termDocs.get(termIdFor(word.getKey())).add((docId << 1) | (word.getValue() ? 1 : 0));
+        }
+    }
+
+    private int termIdFor(String term) {
+        Integer id = termIds.get(term);
+        if (id != null) {
+            return id;
+        }
+
+        int newId = termTexts.size();
+        termIds.put(term, newId);
+        termTexts.add(term);
+        termDocs.add(new IntList());
+        for (String gram : trigrams(term)) {
+            IntList terms = trigramTerms.get(gram);
+            if (terms == null) {
+                terms = new IntList();
+                trigramTerms.put(gram, terms);
+            }
+            terms.add(newId);
+        }
+        return newId;
+    }
+
+    private void clearLocked() {
+        termIds.clear();
+        termTexts.clear();
+        termDocs.clear();
+        trigramTerms.clear();
+        docIdsByProductId.clear();
+        documents = new Product[64];
+        nextDocId = 0;
+        liveCount = 0;
+    }
+
+    /**
+     * Reconstruye el índice cuando más de un cuarto de los IDs internos son documentos muertos.
+     */
+    private void compactIfNeeded() {
+        int dead = nextDocId - liveCount;
+        if (dead < 256 || dead * 4 < nextDocId) {
+            return;
+        }
+
+        List<Product> live = new ArrayList<>(liveCount);
+        for (int doc = 0; doc < nextDocId; doc++) {
+            if (documents[doc] != null) {
+                live.add(documents[doc]);
+            }
+        }
+        clearLocked();
+        for (Product product : live) {
+            indexLocked(product);
+        }
+    }
+}
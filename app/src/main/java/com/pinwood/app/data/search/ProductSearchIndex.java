@@ -0,0 +1,342 @@
+package com.pinwood.app.data.search;
+
+import com.pinwood.app.data.model.product.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido en memoria sobre nombre, etiquetas y descripción de los productos.
+ * Se actualiza de forma incremental conforme los productos entran en caché y ordena
+ * los resultados con BM25 por campo (el nombre pesa más que las etiquetas y estas más que
+ * la descripción). Cada término de la consulta coincide también por prefijo, para
+ * resultados mientras el usuario escribe.
+ *
+ * Seguro para hilos: las búsquedas comparten un bloqueo de lectura y la indexación
+ * toma el de escritura.
+ */
+public class ProductSearchIndex implements ProductSearchStrategy {
+    private static final int FIELD_NAME = 0;
+    private static final int FIELD_TAGS = 1;
+    private static final int FIELD_DESCRIPTION = 2;
+    private static final float[] FIELD_WEIGHTS = {3f, 2f, 1f};
+
+    // Parámetros estándar de BM25
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    // Las coincidencias por prefijo puntúan menos que las exactas
+    private static final float PREFIX_FACTOR = 0.7f;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    /**
+     * Lista de documentos de un término con la frecuencia en cada campo.
+     */
+    private static final class Postings {
+        int[] docs = new int[4];
+        short[][] frequencies = new short[3][4];
+        int size;
+
+        void add(int doc, int[] fieldFrequencies) {
+            if (size == docs.length) {
+                int capacity = size * 2;
+                docs = Arrays.copyOf(docs, capacity);
+                for (int f = 0; f < frequencies.length; f++) {
+                    frequencies[f] = Arrays.copyOf(frequencies[f], capacity);
+                }
+            }
+            docs[size] = doc;
+            for (int f = 0; f < frequencies.length; f++) {
+                frequencies[f][size] = (short) Math.min(fieldFrequencies[f], Short.MAX_VALUE);
+            }
+            size++;
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<String, Integer> docIdsByProductId = new HashMap<>();
+
+    // Documentos por ID interno; null indica un documento reemplazado o eliminado
+    private Product[] documents = new Product[64];
+    private int[][] fieldLengths = new int[3][64];
+    private final long[] totalFieldLengths = new long[3];
+    private int nextDocId;
+    private int liveCount;
+
+    /**
+     * Indexa o reemplaza un producto.
+     */
+    @Override
+    public void index(Product product) {
+        if (product == null || product.getProductId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            indexLocked(product);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void indexAll(Collection<Product> products) {
+        if (products == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Product product : products) {
+                if (product != null && product.getProductId() != null) {
+                    indexLocked(product);
+                }
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String productId) {
+        lock.writeLock().lock();
+        try {
+            Integer docId = docIdsByProductId.remove(productId);
+            if (docId != null) {
+                removeDocLocked(docId);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            docIdsByProductId.clear();
+            documents = new Product[64];
+            fieldLengths = new int[3][64];
+            Arrays.fill(totalFieldLengths, 0);
+            nextDocId = 0;
+            liveCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Productos que contienen todos los términos de la consulta, ordenados por relevancia.
+     */
+    @Override
+    public List<Product> search(String query, int limit) {
+        List<String> tokens = TextNormalizer.tokenize(query);
+        if (tokens.isEmpty()) {
+            // Consultas formadas solo por palabras vacías ("la", "de") se buscan tal cual
+            tokens = TextNormalizer.tokenize(query, false);
+        }
+        if (tokens.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (liveCount == 0) {
+                return new ArrayList<>();
+            }
+
+            float[] scores = new float[nextDocId];
+            // Cantidad de términos de la consulta que ya coincidieron en cada documento
+            int[] matched = new int[nextDocId];
+            float[] averageLengths = new float[3];
+            for (int f = 0; f < 3; f++) {
+                averageLengths[f] = Math.max(1f, (float) totalFieldLengths[f] / liveCount);
+            }
+
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                Postings exact = terms.get(token);
+                if (exact != null) {
+                    accumulate(exact, 1f, i, scores, matched, averageLengths);
+                }
+
+                int expansions = 0;
+                for (Map.Entry<String, Postings> entry : terms.tailMap(token, false).entrySet()) {
+                    if (!entry.getKey().startsWith(token) || ++expansions > MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                    accumulate(entry.getValue(), PREFIX_FACTOR, i, scores, matched, averageLengths);
+                }
+            }
+
+            return topResults(scores, matched, tokens.size(), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void accumulate(Postings postings, float factor, int tokenIndex,
+                            float[] scores, int[] matched, float[] averageLengths) {
+        float idf = (float) Math.log(1 + (liveCount - postings.size + 0.5) / (postings.size + 0.5));
+        if (idf <= 0f) {
+            idf = 0.01f;
+        }
+
+        for (int j = 0; j < postings.size; j++) {
+            int doc = postings.docs[j];
+            if (documents[doc] == null) {
+                continue;
+            }
+            // Solo cuentan los documentos que coincidieron con todos los términos anteriores
+            if (matched[doc] == tokenIndex) {
+                matched[doc] = tokenIndex + 1;
+            } else if (matched[doc] != tokenIndex + 1) {
+                continue;
+            }
+
+            float score = 0f;
+            for (int f = 0; f < 3; f++) {
+                int tf = postings.frequencies[f][j];
+                if (tf > 0) {
+                    float norm = K1 * (1 - B + B * fieldLengths[f][doc] / averageLengths[f]);
+                    score += FIELD_WEIGHTS[f] * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+            scores[doc] += factor * idf * score;
+        }
+    }
+
+    private List<Product> topResults(float[] scores, int[] matched, int tokenCount, int limit) {
+        PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1,
+                (a, b) -> Float.compare(scores[a], scores[b]));
+        for (int doc = 0; doc < matched.length; doc++) {
+            if (matched[doc] == tokenCount) {
+                top.offer(doc);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+
+        Product[] ordered = new Product[top.size()];
+        for (int i = ordered.length - 1; i >= 0; i--) {
+            ordered[i] = documents[top.poll()];
+        }
+        return new ArrayList<>(Arrays.asList(ordered));
+    }
+
+    private void indexLocked(Product product) {
+        Integer previous = docIdsByProductId.get(product.getProductId());
+        if (previous != null) {
+            removeDocLocked(previous);
+        }
+
+        int docId = nextDocId++;
+        ensureCapacity(docId + 1);
+        documents[docId] = product;
+        docIdsByProductId.put(product.getProductId(), docId);
+        liveCount++;
+
+        Map<String, int[]> frequencies = new HashMap<>();
+        addField(frequencies, FIELD_NAME, docId, product.getName());
+        if (product.getTags() != null) {
+            for (String tag : product.getTags()) {
+                addField(frequencies, FIELD_TAGS, docId, tag);
+            }
+        }
+        addField(frequencies, FIELD_DESCRIPTION, docId, product.getDescription());
+
+        for (Map.Entry<String, int[]> entry : frequencies.entrySet()) {
+            Postings postings = terms.get(entry.getKey());
+            if (postings == null) {
+                postings = new Postings();
+                terms.put(entry.getKey(), postings);
+            }
+            postings.add(docId, entry.getValue());
+        }
+    }
+
+    private void addField(Map<String, int[]> frequencies, int field, int docId, String text) {
+        List<String> tokens = TextNormalizer.tokenize(text);
+        for (String token : tokens) {
+            int[] counts = frequencies.get(token);
+            if (counts == null) {
+                counts = new int[3];
+                frequencies.put(token, counts);
+            }
+            counts[field]++;
+        }
+        fieldLengths[field][docId] += tokens.size();
+        totalFieldLengths[field] += tokens.size();
+    }
+
+    private void removeDocLocked(int docId) {
+        if (documents[docId] == null) {
+            return;
+        }
+        documents[docId] = null;
+        for (int f = 0; f < 3; f++) {
+            totalFieldLengths[f] -= fieldLengths[f][docId];
+        }
+        liveCount--;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > documents.length) {
+            int newCapacity = Math.max(capacity, documents.length * 2);
+            documents = Arrays.copyOf(documents, newCapacity);
+            for (int f = 0; f < 3; f++) {
+                fieldLengths[f] = Arrays.copyOf(fieldLengths[f], newCapacity);
+            }
+        }
+    }
+
+    /**
+     * Reconstruye el índice cuando más de un cuarto de los IDs internos son documentos muertos.
+     */
+    private void compactIfNeeded() {
+        int dead = nextDocId - liveCount;
+        if (dead < 256 || dead * 4 < nextDocId) {
+            return;
+        }
+
+        List<Product> live = new ArrayList<>(liveCount);
+        for (int doc = 0; doc < nextDocId; doc++) {
+            if (documents[doc] != null) {
+                live.add(documents[doc]);
+            }
+        }
+
+        terms.clear();
+        docIdsByProductId.clear();
+        documents = new Product[Math.max(64, live.size())];
+        fieldLengths = new int[3][documents.length];
+        Arrays.fill(totalFieldLengths, 0);
+        nextDocId = 0;
+        liveCount = 0;
+        for (Product product : live) {
+            indexLocked(product);
+        }
+    }
+}
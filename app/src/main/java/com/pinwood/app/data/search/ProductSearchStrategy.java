@@ -0,0 +1,27 @@
+package com.pinwood.app.data.search;
+
+import com.pinwood.app.data.model.product.Product;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Estrategia de búsqueda de productos alimentada incrementalmente con los productos en caché.
+ */
+public interface ProductSearchStrategy {
+
+    void index(Product product);
+
+    void indexAll(Collection<Product> products);
+
+    void remove(String productId);
+
+    void clear();
+
+    int size();
+
+    /**
+     * Productos que coinciden con la consulta, del más al menos relevante.
+     */
+    List<Product> search(String query, int limit);
+}
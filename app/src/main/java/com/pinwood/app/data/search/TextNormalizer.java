@@ -0,0 +1,92 @@
+package com.pinwood.app.data.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Normalización de texto en español para búsqueda: minúsculas, sin acentos ("Sillón" → "sillon")
+ * y separado en tokens alfanuméricos.
+ */
+public final class TextNormalizer {
+
+    // Palabras demasiado comunes en nombres y descripciones como para aportar al ranking
+    private static final Set<String> STOPWORDS = new HashSet<>(Arrays.asList(
+            "a", "al", "con", "de", "del", "el", "en", "la", "las", "lo", "los",
+            "o", "para", "por", "sin", "su", "un", "una", "unos", "unas", "y"));
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Convierte a minúsculas y elimina diacríticos.
+     */
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        if (isAscii(lower)) {
+            return lower;
+        }
+
+        String decomposed = Normalizer.normalize(lower, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                folded.append(c);
+            }
+        }
+        return folded.toString();
+    }
+
+    /**
+     * Separa el texto normalizado en tokens, descartando palabras vacías.
+     */
+    public static List<String> tokenize(String text) {
+        return tokenize(text, true);
+    }
+
+    public static List<String> tokenize(String text, boolean dropStopwords) {
+        String folded = fold(text);
+        if (folded.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean tokenChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                String token = folded.substring(start, i);
+                if (!dropStopwords || !STOPWORDS.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    public static boolean isStopword(String token) {
+        return STOPWORDS.contains(token);
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,382 @@
+package com.pinwood.app.data.sync;
+
+import android.util.Log;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.pinwood.app.data.concurrent.TaskPriority;
+import com.pinwood.app.data.local.preferences.PreferenceManager;
+import com.pinwood.app.data.local.snapshot.ProductSnapshotStore;
+import com.pinwood.app.data.model.product.Product;
+import com.pinwood.app.data.remote.FirestoreQuery;
+import com.pinwood.app.data.repository.FirestoreRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sincronización incremental del catálogo de productos.
+ *
+ * Guarda una marca de agua por colección (el mayor {@code updatedAt} visto) y en cada
+ * sincronización solo pide los documentos con {@code updatedAt} posterior, que se fusionan
+ * con el catálogo local persistido en {@link ProductSnapshotStore}. Los productos borrados
+ * llegan como lápidas ({@code deleted: true}) y se eliminan del catálogo.
+ *
+ * {@code updatedAt} tiene que ser un Timestamp de Firestore (p. ej. {@code serverTimestamp()}):
+ * la consulta incremental compara con un Timestamp y Firestore no compara valores de tipos
+ * distintos, así que un {@code updatedAt} numérico nunca aparecería en ella. Esos documentos
+ * cuentan como sin marca y solo se recogen en las sincronizaciones completas.
+ *
+ * Se hace una sincronización completa si no hay catálogo local o marca de agua, y cada
+ * {@link #FULL_SYNC_INTERVAL} para detectar documentos borrados físicamente sin lápida.
+ */
+public class CatalogSyncEngine extends FirestoreRepository {
+    private static final String TAG = "CatalogSyncEngine";
+
+    public static final String FIELD_UPDATED_AT = "updatedAt";
+    public static final String FIELD_DELETED = "deleted";
+
+    private static final int BATCH_SIZE = 200;
+    private static final long FULL_SYNC_INTERVAL = TimeUnit.DAYS.toMillis(7);
+
+    /**
+     * Resumen de una sincronización.
+     */
+    public static final class SyncResult {
+        private final boolean fullSync;
+        private final List<Product> upserted;
+        private final List<String> deletedIds;
+        private final int documentsRead;
+
+        SyncResult(boolean fullSync, List<Product> upserted, List<String> deletedIds, int documentsRead) {
+            this.fullSync = fullSync;
+            this.upserted = Collections.unmodifiableList(upserted);
+            this.deletedIds = Collections.unmodifiableList(deletedIds);
+            this.documentsRead = documentsRead;
+        }
+
+        public boolean isFullSync() {
+            return fullSync;
+        }
+
+        public List<Product> getUpserted() {
+            return upserted;
+        }
+
+        public List<String> getDeletedIds() {
+            return deletedIds;
+        }
+
+        public int getDocumentsRead() {
+            return documentsRead;
+        }
+    }
+
+    public interface SyncCallback {
+        void onSynced(List<Product> catalog, SyncResult result);
+
+        void onError(Exception e);
+    }
+
+    /**
+     * Documento recibido: un producto o una lápida.
+     */
+    static final class Change {
+        final String productId;
+        final Product product;
+        final boolean deleted;
+        final long updatedAtMicros;
+
+        Change(String productId, Product product, boolean deleted, long updatedAtMicros) {
+            this.productId = productId;
+            this.product = product;
+            this.deleted = deleted;
+            this.updatedAtMicros = updatedAtMicros;
+        }
+    }
+
+    /**
+     * Estado de una sincronización en curso.
+     */
+    static final class SyncRun {
+        final boolean full;
+        final long sinceMicros;
+        final Map<String, Product> working;
+        final List<Product> upserted = new ArrayList<>();
+        final List<String> deletedIds = new ArrayList<>();
+        long maxMicros;
+        int documentsRead;
+        int withoutTimestamp;
+
+        SyncRun(boolean full, long sinceMicros, Map<String, Product> working) {
+            this.full = full;
+            this.sinceMicros = sinceMicros;
+            this.working = working;
+            this.maxMicros = sinceMicros;
+        }
+
+        /**
+         * Aplica una tanda de cambios sobre el catálogo de trabajo y avanza la marca de agua.
+         */
+        void apply(List<Change> changes) {
+            for (Change change : changes) {
+                documentsRead++;
+                if (change.updatedAtMicros <= 0) {
+                    withoutTimestamp++;
+                }
+                maxMicros = Math.max(maxMicros, change.updatedAtMicros);
+                if (change.productId == null) {
+                    continue;
+                }
+                if (change.deleted) {
+                    // En una incremental la lápida se informa aunque no estuviera en el catálogo
+                    if (working.remove(change.productId) != null || !full) {
+                        deletedIds.add(change.productId);
+                    }
+                } else {
+                    working.put(change.productId, change.product);
+                    upserted.add(change.product);
+                }
+            }
+        }
+
+        /**
+         * En una completa, lo que estaba en el catálogo anterior y ya no existe se considera borrado.
+         */
+        void reconcile(Map<String, Product> previous) {
+            if (!full || previous == null) {
+                return;
+            }
+            for (String productId : previous.keySet()) {
+                if (!working.containsKey(productId) && !deletedIds.contains(productId)) {
+                    deletedIds.add(productId);
+                }
+            }
+        }
+    }
+
+    private final String collectionPath;
+    private final String snapshotKey;
+    private final ProductSnapshotStore snapshotStore;
+    private final PreferenceManager preferenceManager;
+
+    // Catálogo local por ID; se accede con el bloqueo del motor (las tandas de una sincronización
+    // son secuenciales, pero reset() puede llegar desde otro hilo)
+    private Map<String, Product> catalog;
+
+    // Llamadas que esperan la sincronización en curso (se comparte una sola ejecución)
+    private final List<SyncCallback> pending = new ArrayList<>();
+    private boolean running;
+
+    public CatalogSyncEngine(String collectionPath, String snapshotKey,
+                             ProductSnapshotStore snapshotStore, PreferenceManager preferenceManager) {
+        this.collectionPath = collectionPath;
+        this.snapshotKey = snapshotKey;
+        this.snapshotStore = snapshotStore;
+        this.preferenceManager = preferenceManager;
+    }
+
+    /**
+     * Sincroniza el catálogo en el carril de segundo plano y entrega el resultado desde ese hilo.
+     * Si ya hay una sincronización en curso, el callback se une a ella.
+     */
+    public void sync(SyncCallback callback) {
+        synchronized (pending) {
+            pending.add(callback);
+            if (running) {
+                return;
+            }
+            running = true;
+        }
+        scheduler.submit(TaskPriority.BACKGROUND, null, this::startSync);
+    }
+
+    /**
+     * Olvida el catálogo local y la marca de agua; la siguiente sincronización será completa.
+     */
+    public void reset() {
+        synchronized (this) {
+            catalog = null;
+        }
+        preferenceManager.clearSyncState(collectionPath);
+    }
+
+    private void startSync() {
+        try {
+            SyncRun run;
+            synchronized (this) {
+                if (catalog == null) {
+                    catalog = loadSnapshot();
+                }
+
+                long watermark = preferenceManager.getSyncWatermark(collectionPath);
+                long sinceFullSync = System.currentTimeMillis() - preferenceManager.getLastFullSync(collectionPath);
+                boolean full = catalog == null || watermark <= 0 || sinceFullSync > FULL_SYNC_INTERVAL;
+
+                // Los cambios incrementales se aplican sobre el propio catálogo: si la sincronización
+                // falla a medias, la marca de agua no avanza y volver a aplicarlos es inocuo
+                run = full
+                        ? new SyncRun(true, 0L, new LinkedHashMap<>())
+                        : new SyncRun(false, watermark, catalog);
+            }
+            fetchBatch(run, null);
+        } catch (Exception e) {
+            Log.e(TAG, "Error al iniciar la sincronización: " + e.getMessage());
+            fail(e);
+        }
+    }
+
+    private Map<String, Product> loadSnapshot() {
+        ProductSnapshotStore.Snapshot snapshot = snapshotStore.read(snapshotKey);
+        if (snapshot == null) {
+            return null;
+        }
+        Map<String, Product> loaded = new LinkedHashMap<>(snapshot.products.size() * 4 / 3 + 1);
+        for (Product product : snapshot.products) {
+            if (product.getProductId() != null) {
+                loaded.put(product.getProductId(), product);
+            }
+        }
+        return loaded;
+    }
+
+    private void fetchBatch(SyncRun run, DocumentSnapshot after) {
+        FirestoreQuery query = FirestoreQuery.collection(collectionPath);
+        if (run.full) {
+            // Completa: todos los documentos, tengan o no updatedAt
+            query.orderBy(FirestoreQuery.DOCUMENT_ID);
+        } else {
+            query.whereGreaterThan(FIELD_UPDATED_AT, toTimestamp(run.sinceMicros))
+                 .orderBy(FIELD_UPDATED_AT);
+        }
+        if (after != null) {
+            query.startAfter(after);
+        }
+        query.limit(BATCH_SIZE);
+
+        fetchPage(query, "productId", CatalogSyncEngine::toChange, TaskPriority.BACKGROUND, null,
+                new PageCallback<Change>() {
+                    @Override
+                    public void onPage(List<Change> changes, DocumentSnapshot first, DocumentSnapshot last) {
+                        apply(run, changes);
+                        if (changes.size() == BATCH_SIZE && last != null) {
+                            fetchBatch(run, last);
+                        } else {
+                            finish(run);
+                        }
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        fail(e);
+                    }
+                });
+    }
+
+    @VisibleForTesting
+    static Change toChange(Map<String, Object> data) {
+        Object id = data.get("productId");
+        Product product = Product.fromMap(data);
+        boolean deleted = Boolean.TRUE.equals(data.get(FIELD_DELETED));
+        return new Change(id instanceof String ? (String) id : null, product, deleted,
+                toMicros(data.get(FIELD_UPDATED_AT)));
+    }
+
+    private synchronized void apply(SyncRun run, List<Change> changes) {
+        run.apply(changes);
+    }
+
+    private void finish(SyncRun run) {
+        List<Product> products;
+        synchronized (this) {
+            products = commit(run);
+        }
+
+        SyncResult result = new SyncResult(run.full, run.upserted, run.deletedIds, run.documentsRead);
+        for (SyncCallback callback : drainPending()) {
+            callback.onSynced(products, result);
+        }
+    }
+
+    /**
+     * Reemplaza el catálogo por el de la sincronización y lo persiste junto con la marca de agua.
+     */
+    private List<Product> commit(SyncRun run) {
+        run.reconcile(catalog);
+        catalog = run.working;
+
+        List<Product> products = new ArrayList<>(catalog.values());
+        final long watermark = run.maxMicros;
+        final boolean full = run.full;
+        if (full || !run.upserted.isEmpty() || !run.deletedIds.isEmpty()) {
+            // La marca de agua solo avanza cuando el catálogo que la acompaña ya está en disco
+            snapshotStore.writeAsync(snapshotKey, products, () -> {
+                preferenceManager.saveSyncWatermark(collectionPath, watermark);
+                if (full) {
+                    preferenceManager.saveLastFullSync(collectionPath, System.currentTimeMillis());
+                }
+            });
+        }
+        if (full && watermark <= 0) {
+            Log.w(TAG, "Los documentos de " + collectionPath + " no tienen " + FIELD_UPDATED_AT +
+                  "; la próxima sincronización volverá a ser completa");
+        } else if (run.withoutTimestamp > 0) {
+            Log.w(TAG, run.withoutTimestamp + " documentos de " + collectionPath + " sin " +
+                  FIELD_UPDATED_AT + " de tipo Timestamp; solo se actualizarán en las sincronizaciones completas");
+        }
+
+        Log.d(TAG, (full ? "Sincronización completa" : "Sincronización incremental") + ": " +
+              run.documentsRead + " documentos leídos, " + run.upserted.size() + " actualizados, " +
+              run.deletedIds.size() + " borrados");
+        return products;
+    }
+
+    private void fail(Exception e) {
+        Log.e(TAG, "Error al sincronizar " + collectionPath + ": " + e.getMessage());
+        for (SyncCallback callback : drainPending()) {
+            callback.onError(e);
+        }
+    }
+
+    private List<SyncCallback> drainPending() {
+        synchronized (pending) {
+            List<SyncCallback> callbacks = new ArrayList<>(pending);
+            pending.clear();
+            running = false;
+            return callbacks;
+        }
+    }
+
+    /**
+     * Valor con el que se consulta {@code updatedAt}: el mismo tipo que se guarda, para que la
+     * comparación de Firestore lo incluya.
+     */
+    @VisibleForTesting
+    static Timestamp toTimestamp(long micros) {
+        return new Timestamp(micros / 1_000_000L, (int) (micros % 1_000_000L) * 1000);
+    }
+
+    /**
+     * Microsegundos de un {@code updatedAt}; 0 si falta o no es un Timestamp (los números no se
+     * aceptan porque la consulta incremental no los devolvería nunca).
+     */
+    @VisibleForTesting
+    static long toMicros(Object value) {
+        if (value instanceof Timestamp) {
+            Timestamp timestamp = (Timestamp) value;
+            return timestamp.getSeconds() * 1_000_000L + timestamp.getNanoseconds() / 1000;
+        }
+        if (value instanceof Date) {
+            // getData() puede entregar los Timestamp como Date según la configuración del SDK
+            return ((Date) value).getTime() * 1000L;
+        }
+        return 0L;
+    }
+}
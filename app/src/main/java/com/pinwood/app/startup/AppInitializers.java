@@ -0,0 +1,34 @@
+package com.pinwood.app.startup;
+
+import com.bumptech.glide.Glide;
+import com.pinwood.app.startup.AppStartup.Mode;
+import com.pinwood.app.utils.FirebaseUtil;
+
+/**
+ * Inicializadores de la aplicación y sus dependencias.
+ *
+ * Solo FirebaseApp se inicializa en el hilo principal: lo necesitan todos los demás y es
+ * barato. Firestore, la sesión de Auth y Glide, que es lo que usan el splash y la pantalla de
+ * inicio, se preparan en paralelo en segundo plano. Lo que solo haga falta en una pantalla
+ * concreta se registra como {@link Mode#LAZY} y se pide con {@link AppStartup#require} al usarlo.
+ */
+public final class AppInitializers {
+    public static final String FIREBASE = "firebase";
+    // Ajustes de persistencia; tienen que aplicarse antes de la primera consulta
+    public static final String FIRESTORE = "firestore";
+    // Carga la sesión guardada, que el splash consulta para decidir la navegación
+    public static final String AUTH = "auth";
+    // Crea Glide y sus cachés antes de la primera imagen
+    public static final String IMAGES = "images";
+
+    private AppInitializers() {
+    }
+
+    public static AppStartup.Builder register(AppStartup.Builder builder) {
+        return builder
+            .add(FIREBASE, Mode.MAIN, FirebaseUtil::initializeApp)
+            .add(FIRESTORE, Mode.BACKGROUND, FirebaseUtil::configureFirestore, FIREBASE)
+            .add(AUTH, Mode.BACKGROUND, FirebaseUtil::initializeAuth, FIREBASE)
+            .add(IMAGES, Mode.BACKGROUND, context -> Glide.get(context) != null);
+    }
+}
@@ -0,0 +1,375 @@
+package com.pinwood.app.startup;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Arranque de la aplicación como un conjunto de inicializadores declarados con sus dependencias.
+ *
+ * Cada inicializador se declara con un {@link Mode}:
+ * <ul>
+ *     <li>{@link Mode#MAIN}: se ejecuta en {@link #start()}, en el hilo principal y en orden de
+ *     declaración. Reservado a lo imprescindible antes del primer fotograma.</li>
+ *     <li>{@link Mode#BACKGROUND}: se lanza en un grupo de hilos en cuanto terminan sus
+ *     dependencias; los independientes corren en paralelo.</li>
+ *     <li>{@link Mode#LAZY}: no se ejecuta hasta que alguien lo pide con {@link #require}, y
+ *     entonces en el hilo que lo pide.</li>
+ * </ul>
+ * Una dependencia tiene que estar declarada antes que quien depende de ella (así no puede haber
+ * ciclos); un inicializador MAIN solo puede depender de otros MAIN, y uno BACKGROUND no puede
+ * depender de uno LAZY.
+ *
+ * Se registra la duración de cada inicializador y, cuando terminan los no perezosos, se
+ * escribe un resumen en el log.
+ */
+public final class AppStartup {
+    private static final String TAG = "AppStartup";
+    private static final int POOL_SIZE =
+            Math.max(2, Math.min(3, Runtime.getRuntime().availableProcessors() - 1));
+    private static final long KEEP_ALIVE_SECONDS = 5;
+
+    private static volatile AppStartup instance;
+
+    public enum Mode {
+        MAIN,
+        BACKGROUND,
+        LAZY
+    }
+
+    /**
+     * Trabajo de un paso del arranque. Devuelve false si no se pudo completar; los que dependen
+     * de él se ejecutan igualmente (la app puede funcionar degradada).
+     */
+    public interface Initializer {
+        boolean initialize(Context context) throws Exception;
+    }
+
+    /**
+     * Medición de un inicializador ya ejecutado.
+     */
+    public static final class Timing {
+        private final String name;
+        private final Mode mode;
+        private final String thread;
+        private final long startOffsetMillis;
+        private final long durationMillis;
+        private final boolean success;
+
+        Timing(String name, Mode mode, String thread, long startOffsetMillis, long durationMillis, boolean success) {
+            this.name = name;
+            this.mode = mode;
+            this.thread = thread;
+            this.startOffsetMillis = startOffsetMillis;
+            this.durationMillis = durationMillis;
+            this.success = success;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        /**
+         * Milisegundos desde el inicio del proceso hasta que empezó.
+         */
+        public long getStartOffsetMillis() {
+            return startOffsetMillis;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        @Override
+        public String toString() {
+            return name + "{" + mode + ", hilo=" + thread + ", inicio=+" + startOffsetMillis + "ms, duración=" +
+                   durationMillis + "ms" + (success ? "" : ", FALLÓ") + "}";
+        }
+    }
+
+    private enum State {
+        PENDING,
+        RUNNING,
+        DONE
+    }
+
+    private static final class Node {
+        final String name;
+        final Mode mode;
+        final Initializer initializer;
+        final List<Node> dependencies = new ArrayList<>();
+        final List<Node> dependents = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        final List<Runnable> callbacks = new ArrayList<>();
+        State state = State.PENDING;
+        volatile boolean success;
+
+        Node(String name, Mode mode, Initializer initializer) {
+            this.name = name;
+            this.mode = mode;
+            this.initializer = initializer;
+        }
+    }
+
+    /**
+     * Declaración de los inicializadores.
+     */
+    public static final class Builder {
+        private final Context context;
+        private final Map<String, Node> nodes = new LinkedHashMap<>();
+
+        public Builder(Context context) {
+            this.context = context.getApplicationContext();
+        }
+
+        public Builder add(String name, Mode mode, Initializer initializer, String... dependsOn) {
+            if (nodes.containsKey(name)) {
+                throw new IllegalArgumentException("Inicializador duplicado: " + name);
+            }
+            Node node = new Node(name, mode, initializer);
+            for (String dependencyName : dependsOn) {
+                Node dependency = nodes.get(dependencyName);
+                if (dependency == null) {
+                    throw new IllegalArgumentException(name + " depende de " + dependencyName + ", que no está declarado antes");
+                }
+                if (dependency.mode == Mode.LAZY && mode != Mode.LAZY) {
+                    throw new IllegalArgumentException(name + " no puede depender del inicializador perezoso " + dependencyName);
+                }
+                if (mode == Mode.MAIN && dependency.mode != Mode.MAIN) {
+                    throw new IllegalArgumentException(name + " se ejecuta en el hilo principal y no puede esperar a " + dependencyName);
+                }
+                node.dependencies.add(dependency);
+                dependency.dependents.add(node);
+            }
+            nodes.put(name, node);
+            return this;
+        }
+
+        /**
+         * Crea el arranque y lo deja accesible con {@link #getInstance()}.
+         */
+        public AppStartup install() {
+            AppStartup startup = new AppStartup(context, nodes);
+            instance = startup;
+            return startup;
+        }
+    }
+
+    private final Context context;
+    private final Map<String, Node> nodes;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ThreadPoolExecutor pool;
+    private final List<Timing> timings = new ArrayList<>();
+    private int eagerRemaining;
+
+    private AppStartup(Context context, Map<String, Node> nodes) {
+        this.context = context;
+        this.nodes = nodes;
+        for (Node node : nodes.values()) {
+            if (node.mode != Mode.LAZY) {
+                eagerRemaining++;
+            }
+        }
+
+        ThreadFactory threadFactory = new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(() -> {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_DEFAULT);
+                    runnable.run();
+                }, "startup-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+        // Los hilos desaparecen poco después del arranque
+        pool = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+        pool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Arranque instalado por la aplicación, o null si aún no se ha creado (p. ej. en pruebas).
+     */
+    public static AppStartup getInstance() {
+        return instance;
+    }
+
+    /**
+     * Ejecuta los inicializadores MAIN y lanza los BACKGROUND. Llamar una vez, desde
+     * Application.onCreate.
+     */
+    public void start() {
+        for (Node node : nodes.values()) {
+            if (node.mode == Mode.MAIN && claim(node)) {
+                run(node);
+            }
+        }
+        List<Node> ready = new ArrayList<>();
+        synchronized (this) {
+            for (Node node : nodes.values()) {
+                if (node.mode == Mode.BACKGROUND && node.state == State.PENDING && dependenciesDone(node)) {
+                    node.state = State.RUNNING;
+                    ready.add(node);
+                }
+            }
+        }
+        for (Node node : ready) {
+            pool.execute(() -> run(node));
+        }
+    }
+
+    /**
+     * Garantiza que {@code name} (y sus dependencias) ha terminado: ejecuta en este hilo un
+     * inicializador perezoso pendiente o espera a uno en curso. Devuelve si tuvo éxito.
+     */
+    public boolean require(String name) {
+        Node node = node(name);
+        if (node.mode == Mode.LAZY && claim(node)) {
+            for (Node dependency : node.dependencies) {
+                require(dependency.name);
+            }
+            run(node);
+        }
+        try {
+            node.done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return node.success;
+    }
+
+    public boolean isDone(String name) {
+        return node(name).done.getCount() == 0;
+    }
+
+    /**
+     * Ejecuta {@code callback} en el hilo principal cuando {@code name} termine (enseguida si ya
+     * terminó). No lanza los inicializadores perezosos.
+     */
+    public void whenDone(String name, Runnable callback) {
+        Node node = node(name);
+        synchronized (this) {
+            if (node.state != State.DONE) {
+                node.callbacks.add(callback);
+                return;
+            }
+        }
+        mainHandler.post(callback);
+    }
+
+    public synchronized List<Timing> getTimings() {
+        return Collections.unmodifiableList(new ArrayList<>(timings));
+    }
+
+    public void logTimings() {
+        for (Timing timing : getTimings()) {
+            Log.d(TAG, timing.toString());
+        }
+    }
+
+    private Node node(String name) {
+        Node node = nodes.get(name);
+        if (node == null) {
+            throw new IllegalArgumentException("Inicializador no declarado: " + name);
+        }
+        return node;
+    }
+
+    private synchronized boolean claim(Node node) {
+        if (node.state != State.PENDING) {
+            return false;
+        }
+        node.state = State.RUNNING;
+        return true;
+    }
+
+    private boolean dependenciesDone(Node node) {
+        for (Node dependency : node.dependencies) {
+            if (dependency.state != State.DONE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void run(Node node) {
+        long start = SystemClock.uptimeMillis();
+        boolean success = false;
+        try {
+            success = node.initializer.initialize(context);
+        } catch (Throwable t) {
+            // También Error (ExceptionInInitializerError, NoClassDefFoundError...): el nodo
+            // tiene que terminar o quien lo espere en require() se bloquearía para siempre
+            Log.e(TAG, "Error en el inicializador " + node.name + ": " + t);
+        } finally {
+            long end = SystemClock.uptimeMillis();
+            node.success = success;
+            Timing timing = new Timing(node.name, node.mode, Thread.currentThread().getName(),
+                    start - Process.getStartUptimeMillis(), end - start, success);
+            onDone(node, timing);
+        }
+    }
+
+    private void onDone(Node node, Timing timing) {
+        List<Node> ready = new ArrayList<>();
+        List<Runnable> callbacks;
+        boolean eagerFinished = false;
+        synchronized (this) {
+            node.state = State.DONE;
+            timings.add(timing);
+            callbacks = new ArrayList<>(node.callbacks);
+            node.callbacks.clear();
+            for (Node dependent : node.dependents) {
+                if (dependent.mode == Mode.BACKGROUND && dependent.state == State.PENDING
+                        && dependenciesDone(dependent)) {
+                    dependent.state = State.RUNNING;
+                    ready.add(dependent);
+                }
+            }
+            if (node.mode != Mode.LAZY) {
+                eagerFinished = --eagerRemaining == 0;
+            }
+        }
+        node.done.countDown();
+
+        for (Node dependent : ready) {
+            pool.execute(() -> run(dependent));
+        }
+        for (Runnable callback : callbacks) {
+            mainHandler.post(callback);
+        }
+        if (eagerFinished) {
+            Log.d(TAG, "Arranque completado");
+            logTimings();
+        } else if (node.mode == Mode.LAZY) {
+            Log.d(TAG, timing.toString());
+        }
+    }
+}
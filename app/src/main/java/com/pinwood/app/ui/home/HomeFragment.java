@@ -1,34 +1,65 @@
 package com.pinwood.app.ui.home;
 
+import android.content.pm.ApplicationInfo;
 import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.DisplayMetrics;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.ConcatAdapter;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
+import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.pinwood.app.R;
+import com.pinwood.app.data.concurrent.RepositoryScheduler;
+import com.pinwood.app.data.concurrent.TaskPriority;
+import com.pinwood.app.data.paging.PagedProducts;
 import com.pinwood.app.ui.home.adapter.CategoryAdapter;
+import com.pinwood.app.ui.home.adapter.HomeHeaderAdapter;
 import com.pinwood.app.ui.home.adapter.ProductAdapter;
+import com.pinwood.app.ui.home.viewmodel.HomeState;
 import com.pinwood.app.ui.home.viewmodel.HomeViewModel;
+import com.pinwood.app.utils.ImageCache;
 import com.pinwood.app.utils.ImageLoader;
+import com.pinwood.app.utils.ImageSpec;
 
 public class HomeFragment extends Fragment {
+    private static final String TAG = "HomeFragment";
+    // Alto del banner en item_home_header.xml
+    private static final int BANNER_HEIGHT_DP = 180;
+    // Entre dos eventos de scroll más separados que esto no se estima velocidad
+    private static final long SCROLL_IDLE_MS = 100;
 
     private HomeViewModel viewModel;
     private RecyclerView categoriesRecyclerView;
     private RecyclerView featuredProductsRecyclerView;
     private CategoryAdapter categoryAdapter;
     private ProductAdapter productAdapter;
+    private HomeHeaderAdapter headerAdapter;
+    private GridLayoutManager gridLayoutManager;
+    private View headerView;
     private ImageView bannerImageView;
+    private SwipeRefreshLayout swipeRefresh;
+    private TextView productsSectionTitle;
+    private TextView viewAllProducts;
+    private TextView imageCacheStats;
+    // Último estado pintado; las secciones que no cambiaron conservan la misma referencia
+    private HomeState lastRenderedState;
+    private boolean reportedFullyDrawn;
+    private long lastScrollTime;
+    private float scrollVelocity;
 
     @Nullable
     @Override
@@ -36,7 +67,7 @@ public class HomeFragment extends Fragment {
         View view = inflater.inflate(R.layout.fragment_home, container, false);
         
         // Inicializar vistas
-        initViews(view);
+        initViews(inflater, view);
         
         // Configurar RecyclerViews
         setupRecyclerViews();
@@ -50,10 +81,17 @@ public class HomeFragment extends Fragment {
         return view;
     }
     
-    private void initViews(View view) {
-        categoriesRecyclerView = view.findViewById(R.id.categories_recycler_view);
+    private void initViews(LayoutInflater inflater, View view) {
         featuredProductsRecyclerView = view.findViewById(R.id.featured_products_recycler_view);
-        bannerImageView = view.findViewById(R.id.banner_image);
+        swipeRefresh = view.findViewById(R.id.products_swipe_refresh);
+        
+        // Banner, categorías y título van como cabecera de la cuadrícula
+        headerView = inflater.inflate(R.layout.item_home_header, featuredProductsRecyclerView, false);
+        categoriesRecyclerView = headerView.findViewById(R.id.categories_recycler_view);
+        bannerImageView = headerView.findViewById(R.id.banner_image);
+        productsSectionTitle = headerView.findViewById(R.id.products_section_title);
+        viewAllProducts = headerView.findViewById(R.id.view_all_products);
+        imageCacheStats = headerView.findViewById(R.id.image_cache_stats);
     }
     
     private void setupRecyclerViews() {
@@ -63,10 +101,21 @@ public class HomeFragment extends Fragment {
                 new LinearLayoutManager(requireContext(), LinearLayoutManager.HORIZONTAL, false));
         categoriesRecyclerView.setAdapter(categoryAdapter);
         
-        // Configurar adaptador de productos
+        // Configurar adaptador de productos, detrás de la cabecera que ocupa toda la fila
         productAdapter = new ProductAdapter(requireContext());
-        featuredProductsRecyclerView.setLayoutManager(new GridLayoutManager(requireContext(), 2));
-        featuredProductsRecyclerView.setAdapter(productAdapter);
+        headerAdapter = new HomeHeaderAdapter(headerView);
+        gridLayoutManager = new GridLayoutManager(requireContext(), ProductAdapter.GRID_COLUMNS);
+        gridLayoutManager.setSpanSizeLookup(new GridLayoutManager.SpanSizeLookup() {
+            @Override
+            public int getSpanSize(int position) {
+                return position < headerAdapter.getItemCount() ? ProductAdapter.GRID_COLUMNS : 1;
+            }
+        });
+        featuredProductsRecyclerView.setLayoutManager(gridLayoutManager);
+        ConcatAdapter.Config config = new ConcatAdapter.Config.Builder()
+                .setStableIdMode(ConcatAdapter.Config.StableIdMode.ISOLATED_STABLE_IDS)
+                .build();
+        featuredProductsRecyclerView.setAdapter(new ConcatAdapter(config, headerAdapter, productAdapter));
     }
     
     private void setupViewModel() {
@@ -74,21 +123,26 @@ public class HomeFragment extends Fragment {
             ViewModelProvider.AndroidViewModelFactory.getInstance(requireActivity().getApplication()))
             .get(HomeViewModel.class);
         
-        // Observar categorías
-        viewModel.getCategories().observe(getViewLifecycleOwner(), categories -> {
-            categoryAdapter.setCategories(categories);
-        });
+        // Destacados, categorías y banner llegan juntos: se maquetan una sola vez por carga
+        lastRenderedState = null;
+        viewModel.getHomeState().observe(getViewLifecycleOwner(), this::renderHomeState);
         
-        // Observar productos destacados
-        viewModel.getFeaturedProducts().observe(getViewLifecycleOwner(), products -> {
-            productAdapter.setProducts(products);
+        // Observar catálogo o categoría paginados (se añaden páginas sin reemplazar la lista)
+        viewModel.getPagedProducts().observe(getViewLifecycleOwner(), page -> {
+            if (page != null) {
+                productAdapter.submitPage(page);
+                updateRefreshing();
+                // Si la página no llena la pantalla, pedir la siguiente
+                featuredProductsRecyclerView.post(this::reportVisibleProducts);
+            } else {
+                productAdapter.setProducts(viewModel.getHomeState().getValue().getFeaturedProducts());
+            }
         });
         
-        // Observar banner
-        viewModel.getBannerImageUrl().observe(getViewLifecycleOwner(), bannerUrl -> {
-            if (bannerUrl != null && !bannerUrl.isEmpty()) {
-                ImageLoader.loadImage(requireContext(), bannerUrl, bannerImageView, R.drawable.pinwoodapplogo);
-            }
+        viewModel.getPagedTitle().observe(getViewLifecycleOwner(), title -> {
+            boolean paging = title != null;
+            productsSectionTitle.setText(paging ? title : "Productos destacados");
+            viewAllProducts.setText(paging ? "Ver destacados" : "Ver todos");
         });
         
         // Observar errores
@@ -99,11 +153,101 @@ public class HomeFragment extends Fragment {
         });
     }
     
+    /**
+     * Pinta solo las secciones que cambiaron respecto al último estado.
+     */
+    private void renderHomeState(HomeState state) {
+        HomeState previous = lastRenderedState;
+        lastRenderedState = state;
+        
+        if (previous == null || previous.getCategories() != state.getCategories()) {
+            categoryAdapter.setCategories(state.getCategories());
+        }
+        
+        if (!viewModel.isPaging()
+                && (previous == null || previous.getFeaturedProducts() != state.getFeaturedProducts())) {
+            productAdapter.setProducts(state.getFeaturedProducts());
+            // Precargar las imágenes de las filas que aún no se ven
+            featuredProductsRecyclerView.post(this::reportVisibleProducts);
+        }
+        
+        String bannerUrl = state.getBannerImageUrl();
+        if (!bannerUrl.isEmpty() && (previous == null || !bannerUrl.equals(previous.getBannerImageUrl()))) {
+            ImageLoader.loadImage(requireContext(), bannerUrl, bannerImageView, R.drawable.pinwoodapplogo,
+                    bannerImageSpec());
+        }
+        
+        updateRefreshing();
+        
+        // Todas las secciones pintadas: fin del arranque para el sistema y para Macrobenchmark
+        // (tiempo hasta la visualización completa)
+        if (!state.isLoading() && !reportedFullyDrawn) {
+            reportedFullyDrawn = true;
+            requireActivity().reportFullyDrawn();
+        }
+    }
+    
+    /**
+     * El banner ocupa el ancho de la pantalla; si aún no tiene layout se estima con ella.
+     */
+    private ImageSpec bannerImageSpec() {
+        ImageSpec spec = ImageSpec.fromView(bannerImageView);
+        if (!spec.isSized()) {
+            DisplayMetrics metrics = getResources().getDisplayMetrics();
+            spec = ImageSpec.of(metrics.widthPixels, Math.round(BANNER_HEIGHT_DP * metrics.density));
+        }
+        return spec.opaque();
+    }
+    
+    /**
+     * Oculta el indicador de deslizar para refrescar cuando ya no queda nada cargando.
+     */
+    private void updateRefreshing() {
+        if (!swipeRefresh.isRefreshing()) {
+            return;
+        }
+        HomeState state = viewModel.getHomeState().getValue();
+        PagedProducts page = viewModel.getPagedProducts().getValue();
+        boolean homeLoading = state != null && state.isLoading();
+        boolean pageLoading = viewModel.isPaging() && page != null && page.isLoading();
+        if (!homeLoading && !pageLoading) {
+            swipeRefresh.setRefreshing(false);
+        }
+    }
+    
     private void setupListeners() {
+        // Deslizar para refrescar ignora las ventanas de frescura
+        swipeRefresh.setOnRefreshListener(() -> viewModel.refreshData());
+        
         // Click en categoría
         categoryAdapter.setOnCategoryClickListener(category -> {
-            Toast.makeText(requireContext(), "Categoría seleccionada: " + category, Toast.LENGTH_SHORT).show();
-            // Implementar navegación a pantalla de categoría
+            viewModel.showCategory(category);
+        });
+        
+        // Alternar entre destacados y catálogo completo
+        viewAllProducts.setOnClickListener(v -> {
+            if (viewModel.isPaging()) {
+                viewModel.showFeatured();
+            } else {
+                viewModel.showAllProducts();
+            }
+        });
+        
+        // Rango visible y velocidad para la precarga de imágenes y la paginación; al detenerse
+        // se informa con velocidad 0 para reanudar la precarga pausada en un fling
+        featuredProductsRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                HomeFragment.this.onScrolled(dy);
+            }
+            
+            @Override
+            public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+                if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+                    scrollVelocity = 0;
+                    reportVisibleProducts();
+                }
+            }
         });
         
         // Click en producto
@@ -111,12 +255,81 @@ public class HomeFragment extends Fragment {
             Toast.makeText(requireContext(), "Producto seleccionado: " + product.getName(), Toast.LENGTH_SHORT).show();
             // Implementar navegación a pantalla de detalle del producto
         });
+        
+        // Depuración: mantener pulsado el título muestra las estadísticas de imágenes
+        if ((requireContext().getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+            productsSectionTitle.setOnLongClickListener(v -> {
+                toggleImageCacheStats();
+                return true;
+            });
+        }
+    }
+    
+    private void toggleImageCacheStats() {
+        if (imageCacheStats.getVisibility() == View.VISIBLE) {
+            imageCacheStats.setVisibility(View.GONE);
+            return;
+        }
+        String prefetchStats = productAdapter.getPrefetchStats().toString();
+        imageCacheStats.setText(prefetchStats);
+        imageCacheStats.setVisibility(View.VISIBLE);
+        // La ocupación en disco recorre el directorio de la caché: fuera del hilo principal
+        RepositoryScheduler.getInstance().submit(TaskPriority.BACKGROUND, null, () -> {
+            ImageCache.Stats stats = ImageCache.getStatsWithDiskUsage();
+            String text = (stats != null ? stats.toString() : "caché de imágenes sin inicializar")
+                    + "\n" + prefetchStats;
+            imageCacheStats.post(() -> imageCacheStats.setText(text));
+        });
+    }
+
+    /**
+     * Calcula qué productos de la cuadrícula están en pantalla (posiciones sin la cabecera).
+     */
+    private void reportVisibleProducts() {
+        if (gridLayoutManager == null) {
+            return;
+        }
+        int headers = headerAdapter.getItemCount();
+        int lastVisible = gridLayoutManager.findLastVisibleItemPosition();
+        int first = Math.max(0, gridLayoutManager.findFirstVisibleItemPosition() - headers);
+        int last = lastVisible == RecyclerView.NO_POSITION ? -1 : lastVisible - headers;
+        if (last < 0) {
+            // Cuadrícula vacía o fuera de la pantalla: solo precargar si está vacía
+            if (viewModel.isPaging() && productAdapter.getItemCount() == 0) {
+                viewModel.onProductsVisible(0, 0);
+            }
+            return;
+        }
+        productAdapter.onVisibleRange(first, last, scrollVelocity);
+        if (viewModel.isPaging()) {
+            viewModel.onProductsVisible(first, last);
+        }
+    }
+
+    /**
+     * Estima la velocidad del scroll (px/s) para la precarga de imágenes.
+     */
+    private void onScrolled(int dy) {
+        long now = SystemClock.uptimeMillis();
+        long elapsed = now - lastScrollTime;
+        lastScrollTime = now;
+        scrollVelocity = elapsed > 0 && elapsed < SCROLL_IDLE_MS ? dy * 1000f / elapsed : 0;
+        reportVisibleProducts();
     }
 
     @Override
     public void onResume() {
         super.onResume();
-        // Refrescar datos cuando el fragmento se reanuda
-        viewModel.refreshData();
+        // Solo se recargan las secciones caducadas; volver de un diálogo o del menú no consulta nada
+        viewModel.onScreenVisible();
+    }
+
+    @Override
+    public void onPause() {
+        super.onPause();
+        viewModel.onScreenHidden();
+        productAdapter.cancelPrefetch();
+        Log.d(TAG, productAdapter.getPrefetchStats().toString());
+        ImageCache.logStats();
     }
 }
\ No newline at end of file
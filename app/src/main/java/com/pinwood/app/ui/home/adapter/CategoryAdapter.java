@@ -8,15 +8,30 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.cardview.widget.CardView;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.pinwood.app.R;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.CategoryViewHolder> {
-    private final List<String> categories;
+    // El nombre es a la vez identidad y contenido de la categoría
+    private static final DiffUtil.ItemCallback<String> DIFF_CALLBACK = new DiffUtil.ItemCallback<String>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull String oldItem, @NonNull String newItem) {
+            return oldItem.equals(newItem);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull String oldItem, @NonNull String newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
+    // El diff se calcula en segundo plano y solo se notifican las categorías que cambiaron
+    private final AsyncListDiffer<String> differ;
     private final Context context;
     private OnCategoryClickListener listener;
 
@@ -26,7 +41,8 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Catego
 
     public CategoryAdapter(Context context) {
         this.context = context;
-        this.categories = new ArrayList<>();
+        this.differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+        setHasStableIds(true);
     }
 
     public void setOnCategoryClickListener(OnCategoryClickListener listener) {
@@ -34,11 +50,7 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Catego
     }
 
     public void setCategories(List<String> newCategories) {
-        categories.clear();
-        if (newCategories != null) {
-            categories.addAll(newCategories);
-        }
-        notifyDataSetChanged();
+        differ.submitList(newCategories);
     }
 
     @NonNull
@@ -51,13 +63,18 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Catego
 
     @Override
     public void onBindViewHolder(@NonNull CategoryViewHolder holder, int position) {
-        String category = categories.get(position);
+        String category = differ.getCurrentList().get(position);
         holder.bind(category);
     }
 
     @Override
     public int getItemCount() {
-        return categories.size();
+        return differ.getCurrentList().size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return StableIds.of(differ.getCurrentList().get(position));
     }
 
     class CategoryViewHolder extends RecyclerView.ViewHolder {
@@ -0,0 +1,47 @@
+package com.pinwood.app.ui.home.adapter;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Cabecera de la pantalla de inicio (banner, categorías y título de productos) como primer
+ * elemento de la cuadrícula, para que sea la propia cuadrícula la que se desplace y recicle sus
+ * celdas. La vista la infla y la actualiza HomeFragment; el adaptador solo la aloja.
+ */
+public class HomeHeaderAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+    private final View header;
+
+    public HomeHeaderAdapter(View header) {
+        this.header = header;
+        setHasStableIds(true);
+    }
+
+    @NonNull
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        // Hay una sola cabecera: si RecyclerView la descartó y la vuelve a pedir, se reutiliza
+        if (header.getParent() instanceof ViewGroup) {
+            ((ViewGroup) header.getParent()).removeView(header);
+        }
+        return new RecyclerView.ViewHolder(header) {
+        };
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        // El contenido lo mantiene HomeFragment
+    }
+
+    @Override
+    public int getItemCount() {
+        return 1;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return 0;
+    }
+}
@@ -0,0 +1,32 @@
+package com.pinwood.app.ui.home.adapter;
+
+import android.util.LongSparseArray;
+
+import java.text.NumberFormat;
+import java.util.Locale;
+
+/**
+ * Formatea precios en pesos mexicanos y guarda cada texto ya formateado, de modo que volver a
+ * mostrar un precio conocido no crea ningún objeto. Solo para el hilo principal.
+ */
+final class PriceFormatter {
+    // Los precios distintos del catálogo son pocos; el tope solo evita crecer sin límite
+    private static final int MAX_ENTRIES = 512;
+
+    private final NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("es", "MX"));
+    // Clave en centavos: búsqueda por long primitivo, sin autoboxing
+    private final LongSparseArray<String> formatted = new LongSparseArray<>();
+
+    String format(double price) {
+        long cents = Math.round(price * 100);
+        String text = formatted.get(cents);
+        if (text == null) {
+            if (formatted.size() >= MAX_ENTRIES) {
+                formatted.clear();
+            }
+            text = currencyFormat.format(cents / 100.0);
+            formatted.put(cents, text);
+        }
+        return text;
+    }
+}
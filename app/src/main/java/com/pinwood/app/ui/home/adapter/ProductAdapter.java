@@ -9,21 +9,59 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.cardview.widget.CardView;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.pinwood.app.R;
 import com.pinwood.app.data.model.product.Product;
+import com.pinwood.app.data.paging.PagedProducts;
 import com.pinwood.app.utils.ImageLoader;
+import com.pinwood.app.utils.ImagePrefetcher;
+import com.pinwood.app.utils.ImageSpec;
 
-import java.text.NumberFormat;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
+import java.util.Objects;
 
 public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductViewHolder> {
-    private final List<Product> products;
+    // Columnas de la cuadrícula de productos; determina el tamaño de las miniaturas
+    public static final int GRID_COLUMNS = 2;
+    // Filas por delante del rango visible cuyas imágenes se precargan
+    private static final int PREFETCH_ROWS = 3;
+    // Por encima de esta velocidad se considera un fling y no se precarga
+    private static final int PREFETCH_PAUSE_VELOCITY_DP = 2500;
+
+    /**
+     * Mismo producto si coincide el ID; mismo contenido si coincide el hash precalculado.
+     */
+    private static final DiffUtil.ItemCallback<Product> DIFF_CALLBACK = new DiffUtil.ItemCallback<Product>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Product oldItem, @NonNull Product newItem) {
+            return Objects.equals(oldItem.getProductId(), newItem.getProductId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Product oldItem, @NonNull Product newItem) {
+            return oldItem.contentHash() == newItem.contentHash();
+        }
+    };
+
+    // Lista simple (destacados); el diff se calcula en segundo plano y solo se notifica lo que cambió
+    private final AsyncListDiffer<Product> differ;
+    // Se ignoran los cambios del diff mientras se muestra una lista paginada o al cambiar de modo
+    private boolean suppressListUpdates;
     private final Context context;
+    // Compartidos por todas las celdas: enlazar un producto ya visto no crea objetos
+    private final PriceFormatter priceFormatter = new PriceFormatter();
+    private final View.OnClickListener cardClickListener = this::onCardClick;
+    // La imagen es cuadrada y ocupa el ancho de la celda; fotos sin transparencia
+    private final ImageSpec productImageSpec;
+    private final ImagePrefetcher prefetcher;
     private OnProductClickListener listener;
+    // Lista paginada en uso; null mientras se muestre una lista simple
+    private PagedProducts page;
 
     public interface OnProductClickListener {
         void onProductClick(Product product);
@@ -31,17 +69,124 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductV
 
     public ProductAdapter(Context context) {
         this.context = context;
-        this.products = new ArrayList<>();
+        int cellWidth = context.getResources().getDisplayMetrics().widthPixels / GRID_COLUMNS;
+        this.productImageSpec = ImageSpec.of(cellWidth, cellWidth).opaque();
+        float density = context.getResources().getDisplayMetrics().density;
+        this.prefetcher = new ImagePrefetcher(context, productImageSpec, PREFETCH_ROWS * GRID_COLUMNS,
+                PREFETCH_PAUSE_VELOCITY_DP * density, new ImagePrefetcher.UrlSource() {
+                    @Override
+                    public int getCount() {
+                        return getItemCount();
+                    }
+
+                    @Override
+                    public String getImageUrl(int position) {
+                        return firstImageUrl(getProduct(position));
+                    }
+                });
+        this.differ = new AsyncListDiffer<>(new ListUpdateCallback() {
+            @Override
+            public void onInserted(int position, int count) {
+                if (isShowingList()) {
+                    notifyItemRangeInserted(position, count);
+                }
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+                if (isShowingList()) {
+                    notifyItemRangeRemoved(position, count);
+                }
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                if (isShowingList()) {
+                    notifyItemMoved(fromPosition, toPosition);
+                }
+            }
+
+            @Override
+            public void onChanged(int position, int count, Object payload) {
+                if (isShowingList()) {
+                    notifyItemRangeChanged(position, count, payload);
+                }
+            }
+        }, new AsyncDifferConfig.Builder<>(DIFF_CALLBACK).build());
+        setHasStableIds(true);
     }
 
     public void setOnProductClickListener(OnProductClickListener listener) {
         this.listener = listener;
     }
 
+    /**
+     * Muestra una lista simple. El diff con la lista anterior se calcula en segundo plano; si
+     * no cambió nada no se vuelve a enlazar ninguna celda.
+     */
     public void setProducts(List<Product> newProducts) {
-        products.clear();
-        if (newProducts != null) {
-            products.addAll(newProducts);
+        if (page == null) {
+            differ.submitList(newProducts);
+            return;
+        }
+        // Se sale del modo paginado: no hay nada con qué comparar, se reemplaza de golpe.
+        // Con la lista anterior vacía (null) el differ aplica la nueva de forma síncrona
+        page = null;
+        suppressListUpdates = true;
+        differ.submitList(null);
+        differ.submitList(newProducts);
+        suppressListUpdates = false;
+        notifyDataSetChanged();
+    }
+
+    private boolean isShowingList() {
+        return page == null && !suppressListUpdates;
+    }
+
+    /**
+     * Muestra una lista paginada notificando solo el rango que cambió.
+     * Si el estado no encaja con el anterior (p. ej. se perdieron estados con la vista
+     * en segundo plano) se redibuja todo.
+     */
+    public void submitPage(PagedProducts newPage) {
+        int oldSize = getItemCount();
+        boolean wasPaged = page != null;
+        page = newPage;
+
+        int newSize = getItemCount();
+        int start = newPage.getChangeStart();
+        int count = newPage.getChangeCount();
+        if (!wasPaged || newPage.getChange() == PagedProducts.Change.REFRESH) {
+            notifyDataSetChanged();
+            return;
+        }
+
+        switch (newPage.getChange()) {
+            case INSERTED:
+                if (start == oldSize && newSize == oldSize + count) {
+                    notifyItemRangeInserted(start, count);
+                    return;
+                }
+                break;
+            case CHANGED:
+                if (newSize == oldSize) {
+                    notifyItemRangeChanged(start, count);
+                    return;
+                }
+                break;
+            case REMOVED:
+                if (start == newSize && oldSize == newSize + count) {
+                    notifyItemRangeRemoved(start, count);
+                    return;
+                }
+                break;
+            case NONE:
+                if (newSize == oldSize) {
+                    return;
+                }
+                break;
+            default:
+                break;
         }
         notifyDataSetChanged();
     }
@@ -56,13 +201,77 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductV
 
     @Override
     public void onBindViewHolder(@NonNull ProductViewHolder holder, int position) {
-        Product product = products.get(position);
-        holder.bind(product);
+        Product product = getProduct(position);
+        if (product != null) {
+            holder.bind(product);
+        } else {
+            holder.bindPlaceholder();
+        }
+    }
+
+    /**
+     * La celda pasa al pool: se suelta su imagen para que los bitmaps retenidos sean solo los de
+     * las celdas en pantalla (el resto vuelve a la caché de memoria, que está acotada).
+     */
+    @Override
+    public void onViewRecycled(@NonNull ProductViewHolder holder) {
+        holder.bindPlaceholder();
     }
 
     @Override
     public int getItemCount() {
-        return products.size();
+        return page != null ? page.size() : differ.getCurrentList().size();
+    }
+
+    /**
+     * ID estable derivado del ID del producto; los huecos de páginas descartadas usan su
+     * posición, que no puede coincidir con un producto real.
+     */
+    @Override
+    public long getItemId(int position) {
+        Product product = getProduct(position);
+        if (product == null || product.getProductId() == null) {
+            return Long.MIN_VALUE + position;
+        }
+        return StableIds.of(product.getProductId());
+    }
+
+    /**
+     * Rango de posiciones visibles y velocidad de desplazamiento (px/s, positiva hacia abajo);
+     * precarga las imágenes de las filas siguientes.
+     */
+    public void onVisibleRange(int firstVisible, int lastVisible, float velocity) {
+        prefetcher.onVisibleRange(firstVisible, lastVisible, velocity);
+    }
+
+    /**
+     * Cancela las precargas pendientes (la vista deja de mostrarse).
+     */
+    public void cancelPrefetch() {
+        prefetcher.cancelAll();
+    }
+
+    public ImagePrefetcher.Stats getPrefetchStats() {
+        return prefetcher.getStats();
+    }
+
+    private static String firstImageUrl(Product product) {
+        if (product == null) {
+            return null;
+        }
+        List<String> imageUrls = product.getImageUrls();
+        return imageUrls != null && !imageUrls.isEmpty() ? imageUrls.get(0) : null;
+    }
+
+    private void onCardClick(View card) {
+        Product product = ((ProductViewHolder) card.getTag()).boundProduct;
+        if (product != null && listener != null) {
+            listener.onProductClick(product);
+        }
+    }
+
+    private Product getProduct(int position) {
+        return page != null ? page.get(position) : differ.getCurrentList().get(position);
     }
 
     class ProductViewHolder extends RecyclerView.ViewHolder {
@@ -70,6 +279,10 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductV
         private final TextView productName;
         private final TextView productPrice;
         private final CardView productCard;
+        // Lo último enlazado: volver a enlazar el mismo producto sin cambios no toca las vistas
+        private Product boundProduct;
+        private int boundContentHash;
+        private String boundImageUrl;
 
         ProductViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -77,25 +290,44 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductV
             productName = itemView.findViewById(R.id.product_name);
             productPrice = itemView.findViewById(R.id.product_price);
             productCard = itemView.findViewById(R.id.product_card);
+            // Listener compartido; el producto se lee del holder al hacer click
+            productCard.setTag(this);
+            productCard.setOnClickListener(cardClickListener);
         }
 
         void bind(Product product) {
-            productName.setText(product.getName());
+            int contentHash = product.contentHash();
+            if (product == boundProduct && contentHash == boundContentHash) {
+                return;
+            }
+            boundProduct = product;
+            boundContentHash = contentHash;
             
-            NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("es", "MX"));
-            productPrice.setText(currencyFormat.format(product.getPrice()));
+            productName.setText(product.getName());
+            productPrice.setText(priceFormatter.format(product.getPrice()));
             
-            if (product.getImageUrls() != null && !product.getImageUrls().isEmpty()) {
-                ImageLoader.loadImage(context, product.getImageUrls().get(0), productImage, R.drawable.ic_launcher_foreground);
-            } else {
-                productImage.setImageResource(R.drawable.ic_launcher_foreground);
+            String imageUrl = firstImageUrl(product);
+            if (imageUrl == null) {
+                ImageLoader.showPlaceholder(context, productImage, R.drawable.ic_launcher_foreground);
+            } else if (!imageUrl.equals(boundImageUrl)) {
+                // Primero la petición de la vista, para que se una a la precarga si sigue en curso
+                ImageLoader.loadImage(context, imageUrl, productImage, R.drawable.ic_launcher_foreground,
+                        productImageSpec);
+                prefetcher.onBind(imageUrl);
             }
-            
-            productCard.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onProductClick(product);
-                }
-            });
+            boundImageUrl = imageUrl;
+        }
+
+        /**
+         * Posición cuya página se descartó de memoria; se rellena al volver a cargarla.
+         */
+        void bindPlaceholder() {
+            boundProduct = null;
+            boundImageUrl = null;
+            productName.setText("");
+            productPrice.setText("");
+            // Sin cancelar, la carga del producto anterior podría terminar sobre el hueco
+            ImageLoader.showPlaceholder(context, productImage, R.drawable.ic_launcher_foreground);
         }
     }
 }
\ No newline at end of file
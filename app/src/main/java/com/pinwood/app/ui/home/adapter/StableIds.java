@@ -0,0 +1,26 @@
+package com.pinwood.app.ui.home.adapter;
+
+/**
+ * Identificadores estables de 64 bits para los adaptadores, derivados de una clave de texto.
+ * Con 64 bits las colisiones entre IDs de Firestore son despreciables, al contrario que con
+ * {@link String#hashCode()}.
+ */
+final class StableIds {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private StableIds() {
+    }
+
+    /**
+     * FNV-1a sobre los caracteres de {@code key}.
+     */
+    static long of(String key) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,239 @@
+package com.pinwood.app.ui.home.viewmodel;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+
+import com.pinwood.app.data.concurrent.AsyncResult;
+import com.pinwood.app.data.concurrent.TaskScope;
+import com.pinwood.app.data.model.product.Product;
+import com.pinwood.app.data.repository.CategoryRepository;
+import com.pinwood.app.data.repository.ProductRepository;
+import com.pinwood.app.data.repository.PromotionRepository;
+import com.pinwood.app.ui.home.viewmodel.HomeState.Section;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Carga en paralelo los productos destacados, las categorías y el banner, y los combina en
+ * una sola {@link HomeState} según la {@link PartialRenderPolicy}.
+ *
+ * Todo el estado se modifica en el hilo principal. Los resultados que llegan en el mismo
+ * ciclo del looper se agrupan en una sola emisión.
+ */
+public class HomeAggregateLoader {
+
+    /**
+     * Avisa de cada sección recibida; {@code hasData} es false si llegó vacía.
+     */
+    public interface OnSectionLoadedListener {
+        void onSectionLoaded(Section section, boolean hasData);
+    }
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final PromotionRepository promotionRepository;
+    private final PartialRenderPolicy policy;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final TaskScope scope = new TaskScope();
+    private final MediatorLiveData<HomeState> state = new MediatorLiveData<>();
+
+    // Secciones de la carga en curso; las listas se guardan ya inmutables
+    private List<Product> featuredProducts = Collections.emptyList();
+    private List<String> categories = Collections.emptyList();
+    private String bannerImageUrl = "";
+    private final EnumSet<Section> ready = EnumSet.noneOf(Section.class);
+    private boolean deadlineExpired;
+    // Ya se emitió la carga actual: lo que llegue después se emite sin esperar
+    private boolean rendered;
+    // Carga en la que se pidió cada sección por última vez; descarta respuestas superadas
+    private final Map<Section, Integer> requestedIn = new EnumMap<>(Section.class);
+    private int generation;
+    private OnSectionLoadedListener onSectionLoadedListener;
+
+    private LiveData<List<Product>> featuredSource;
+    private AsyncResult<List<String>> categoriesRequest;
+    private AsyncResult<String> bannerRequest;
+
+    private boolean emitPosted;
+    private final Runnable emitRunnable = this::emit;
+    private final Runnable deadlineRunnable = this::onDeadline;
+
+    public HomeAggregateLoader(ProductRepository productRepository,
+                               CategoryRepository categoryRepository,
+                               PromotionRepository promotionRepository,
+                               PartialRenderPolicy policy) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.promotionRepository = promotionRepository;
+        this.policy = policy;
+        state.setValue(HomeState.INITIAL);
+    }
+
+    public LiveData<HomeState> getState() {
+        return state;
+    }
+
+    public void setOnSectionLoadedListener(OnSectionLoadedListener listener) {
+        this.onSectionLoadedListener = listener;
+    }
+
+    public void load() {
+        load(EnumSet.allOf(Section.class));
+    }
+
+    /**
+     * Lanza a la vez las consultas de {@code sections}; las demás conservan su último valor.
+     * Mientras tanto se sigue mostrando el último estado. Llamar desde el hilo principal.
+     */
+    public void load(EnumSet<Section> sections) {
+        if (sections.isEmpty()) {
+            return;
+        }
+        int loadGeneration = ++generation;
+        for (Section section : sections) {
+            requestedIn.put(section, loadGeneration);
+        }
+        ready.removeAll(sections);
+        deadlineExpired = false;
+        rendered = false;
+
+        // Productos: LiveData del repositorio (puede seguir emitiendo con actualizaciones en vivo)
+        if (sections.contains(Section.FEATURED)) {
+            if (featuredSource != null) {
+                state.removeSource(featuredSource);
+            }
+            // Los destacados se actualizan por push; volver a la pantalla no repite la consulta
+            featuredSource = productRepository.getFeaturedProducts(true);
+            state.addSource(featuredSource, products -> onSection(Section.FEATURED,
+                    () -> featuredProducts = products != null
+                            ? Collections.unmodifiableList(products) : Collections.<Product>emptyList(),
+                    products != null && !products.isEmpty()));
+        }
+
+        AsyncResult<List<String>> previousCategories = null;
+        AsyncResult<String> previousBanner = null;
+
+        if (sections.contains(Section.CATEGORIES)) {
+            previousCategories = categoriesRequest;
+            categoriesRequest = categoryRepository.loadCategories().bindTo(scope);
+            deliverOnMain(categoriesRequest, Section.CATEGORIES, loadGeneration,
+                    list -> onSection(Section.CATEGORIES,
+                            () -> categories = Collections.unmodifiableList(list), !list.isEmpty()));
+        }
+
+        if (sections.contains(Section.BANNER)) {
+            previousBanner = bannerRequest;
+            bannerRequest = promotionRepository.loadActiveBannerImageUrl().bindTo(scope);
+            deliverOnMain(bannerRequest, Section.BANNER, loadGeneration,
+                    url -> onSection(Section.BANNER,
+                            () -> bannerImageUrl = url != null ? url : "", url != null && !url.isEmpty()));
+        }
+
+        // Se cancelan después de pedir las nuevas, que se unen a la consulta si sigue en curso
+        if (previousCategories != null) {
+            previousCategories.cancel();
+        }
+        if (previousBanner != null) {
+            previousBanner.cancel();
+        }
+
+        mainHandler.removeCallbacks(deadlineRunnable);
+        if (policy.getDeadlineMillis() != Long.MAX_VALUE) {
+            mainHandler.postDelayed(deadlineRunnable, policy.getDeadlineMillis());
+        }
+    }
+
+    /**
+     * Deja de entregar resultados; llamar al limpiar el ViewModel.
+     */
+    public void cancel() {
+        scope.cancel();
+        mainHandler.removeCallbacks(deadlineRunnable);
+        mainHandler.removeCallbacks(emitRunnable);
+        if (featuredSource != null) {
+            state.removeSource(featuredSource);
+            featuredSource = null;
+        }
+    }
+
+    private <T> void deliverOnMain(AsyncResult<T> request, Section section, int loadGeneration,
+                                   Consumer<T> consumer) {
+        request.whenComplete(new AsyncResult.Callback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                mainHandler.post(() -> {
+                    if (isCurrent(section, loadGeneration)) {
+                        consumer.accept(value);
+                    }
+                });
+            }
+
+            @Override
+            public void onError(Exception e) {
+                // Los repositorios ya sustituyen los errores por valores vacíos; si alguno no lo
+                // hace, la sección se da por recibida sin datos y conserva su último valor
+                mainHandler.post(() -> {
+                    if (isCurrent(section, loadGeneration)) {
+                        onSection(section, () -> { }, false);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * La respuesta de {@code loadGeneration} sigue vigente: la sección no se volvió a pedir
+     * después ni se canceló la carga.
+     */
+    private boolean isCurrent(Section section, int loadGeneration) {
+        Integer latest = requestedIn.get(section);
+        return latest != null && latest == loadGeneration && !scope.isCancelled();
+    }
+
+    private void onSection(Section section, Runnable apply, boolean hasData) {
+        apply.run();
+        ready.add(section);
+        if (onSectionLoadedListener != null) {
+            onSectionLoadedListener.onSectionLoaded(section, hasData);
+        }
+        if (rendered || policy.canRender(ready, deadlineExpired)) {
+            scheduleEmit();
+        }
+    }
+
+    private void onDeadline() {
+        deadlineExpired = true;
+        if (!rendered && policy.canRender(ready, true)) {
+            scheduleEmit();
+        }
+    }
+
+    private void scheduleEmit() {
+        if (!emitPosted) {
+            emitPosted = true;
+            mainHandler.post(emitRunnable);
+        }
+    }
+
+    private void emit() {
+        emitPosted = false;
+        if (scope.isCancelled()) {
+            return;
+        }
+        rendered = true;
+        if (ready.size() == Section.values().length) {
+            mainHandler.removeCallbacks(deadlineRunnable);
+        }
+        state.setValue(new HomeState(featuredProducts, categories, bannerImageUrl,
+                EnumSet.copyOf(ready), deadlineExpired));
+    }
+}
@@ -0,0 +1,73 @@
+package com.pinwood.app.ui.home.viewmodel;
+
+import com.pinwood.app.data.model.product.Product;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Instantánea inmutable de la pantalla de inicio. Se emite una sola vez por carga (o por
+ * cambio posterior), de modo que la vista hace un único pase de layout.
+ *
+ * Las listas no cambian entre estados si su sección no cambió: la vista puede compararlas
+ * por referencia para saltarse los adaptadores que no lo necesitan.
+ */
+public final class HomeState {
+
+    /**
+     * Secciones que se cargan en paralelo.
+     */
+    public enum Section {
+        FEATURED, CATEGORIES, BANNER
+    }
+
+    static final HomeState INITIAL = new HomeState(Collections.emptyList(), Collections.emptyList(), "",
+            EnumSet.noneOf(Section.class), false);
+
+    private final List<Product> featuredProducts;
+    private final List<String> categories;
+    private final String bannerImageUrl;
+    private final Set<Section> readySections;
+    private final boolean deadlineExpired;
+
+    HomeState(List<Product> featuredProducts, List<String> categories, String bannerImageUrl,
+              Set<Section> readySections, boolean deadlineExpired) {
+        this.featuredProducts = featuredProducts;
+        this.categories = categories;
+        this.bannerImageUrl = bannerImageUrl;
+        this.readySections = Collections.unmodifiableSet(readySections);
+        this.deadlineExpired = deadlineExpired;
+    }
+
+    public List<Product> getFeaturedProducts() {
+        return featuredProducts;
+    }
+
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    public String getBannerImageUrl() {
+        return bannerImageUrl;
+    }
+
+    public boolean isReady(Section section) {
+        return readySections.contains(section);
+    }
+
+    /**
+     * Alguna sección sigue cargando (la instantánea se emitió por el plazo límite).
+     */
+    public boolean isLoading() {
+        return readySections.size() < Section.values().length;
+    }
+
+    /**
+     * La instantánea se emitió al vencer el plazo, sin esperar a todas las secciones.
+     */
+    public boolean isDeadlineExpired() {
+        return deadlineExpired;
+    }
+}
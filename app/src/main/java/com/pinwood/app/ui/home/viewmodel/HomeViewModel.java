@@ -2,122 +2,175 @@ package com.pinwood.app.ui.home.viewmodel;
 
 import android.app.Application;
 import android.content.Context;
+import android.util.Log;
 
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 
-import com.pinwood.app.data.model.product.Product;
+import com.pinwood.app.data.paging.PagedProducts;
+import com.pinwood.app.data.paging.PagingConfig;
+import com.pinwood.app.data.paging.ProductPager;
 import com.pinwood.app.data.repository.CategoryRepository;
 import com.pinwood.app.data.repository.ProductRepository;
 import com.pinwood.app.data.repository.PromotionRepository;
+import com.pinwood.app.ui.home.viewmodel.HomeState.Section;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
 
 public class HomeViewModel extends AndroidViewModel {
-    private final MediatorLiveData<List<Product>> featuredProducts = new MediatorLiveData<>();
-    private final MediatorLiveData<List<String>> categories = new MediatorLiveData<>();
-    private final MediatorLiveData<String> bannerImageUrl = new MediatorLiveData<>();
-    private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>();
+    private static final String TAG = "HomeViewModel";
+
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
+    // Catálogo o categoría paginados; null mientras se muestran los destacados
+    private final MediatorLiveData<PagedProducts> pagedProducts = new MediatorLiveData<>();
+    private final MutableLiveData<String> pagedTitle = new MutableLiveData<>();
 
     private final ProductRepository productRepository;
-    private final CategoryRepository categoryRepository;
-    private final PromotionRepository promotionRepository;
-
-    private LiveData<List<Product>> featuredProductsSource;
-    private LiveData<List<String>> categoriesSource;
-    private LiveData<String> bannerImageUrlSource;
+    // Destacados, categorías y banner se cargan juntos y llegan como un solo HomeState
+    private final HomeAggregateLoader homeLoader;
+    // Al volver a la pantalla solo se recargan las secciones caducadas
+    private final RefreshCoordinator refreshCoordinator =
+            new RefreshCoordinator(TimeUnit.MINUTES.toMillis(5), TimeUnit.SECONDS.toMillis(5))
+                    .setFreshnessWindow(Section.FEATURED, TimeUnit.MINUTES.toMillis(30))
+                    .setFreshnessWindow(Section.CATEGORIES, TimeUnit.MINUTES.toMillis(30))
+                    .setFreshnessWindow(Section.BANNER, TimeUnit.MINUTES.toMillis(10));
+    private ProductPager pager;
 
     public HomeViewModel(Application application) {
         super(application);
-        // Inicializar valores por defecto
-        featuredProducts.setValue(new ArrayList<>());
-        categories.setValue(new ArrayList<>());
-        bannerImageUrl.setValue("");
-        isLoading.setValue(false);
         
         Context context = application.getApplicationContext();
         
         // Inicializar repositorios
         productRepository = ProductRepository.getInstance(context);
-        categoryRepository = CategoryRepository.getInstance();
-        promotionRepository = PromotionRepository.getInstance();
+        homeLoader = new HomeAggregateLoader(productRepository,
+                CategoryRepository.getInstance(),
+                PromotionRepository.getInstance(),
+                PartialRenderPolicy.DEFAULT);
+        homeLoader.setOnSectionLoadedListener(refreshCoordinator::onSectionLoaded);
         
         // Cargar datos
-        loadData();
+        loadData(EnumSet.allOf(Section.class));
     }
 
-    public LiveData<List<Product>> getFeaturedProducts() {
-        return featuredProducts;
+    /**
+     * Estado combinado de la pantalla de inicio: una sola emisión por carga.
+     */
+    public LiveData<HomeState> getHomeState() {
+        return homeLoader.getState();
     }
 
-    public LiveData<List<String>> getCategories() {
-        return categories;
+    public LiveData<String> getErrorMessage() {
+        return errorMessage;
     }
 
-    public LiveData<String> getBannerImageUrl() {
-        return bannerImageUrl;
+    public LiveData<PagedProducts> getPagedProducts() {
+        return pagedProducts;
     }
 
-    public LiveData<Boolean> getIsLoading() {
-        return isLoading;
+    public LiveData<String> getPagedTitle() {
+        return pagedTitle;
     }
 
-    public LiveData<String> getErrorMessage() {
-        return errorMessage;
+    /**
+     * Cambia la cuadrícula al catálogo completo, cargado por páginas.
+     */
+    public void showAllProducts() {
+        showPager(productRepository.createCatalogPager(PagingConfig.DEFAULT), "Todos los productos");
     }
 
-    private void loadData() {
-        isLoading.setValue(true);
-        
+    /**
+     * Cambia la cuadrícula a los productos de una categoría, cargados por páginas.
+     */
+    public void showCategory(String category) {
+        showPager(productRepository.createCategoryPager(category, PagingConfig.DEFAULT), category);
+    }
+
+    /**
+     * Vuelve a mostrar los productos destacados.
+     */
+    public void showFeatured() {
+        if (pager != null) {
+            pagedProducts.removeSource(pager.getProducts());
+            pager.cancel();
+            pager = null;
+        }
+        pagedTitle.setValue(null);
+        pagedProducts.setValue(null);
+    }
+
+    public boolean isPaging() {
+        return pager != null;
+    }
+
+    /**
+     * La vista informa del rango de productos visibles para precargar la página siguiente.
+     */
+    public void onProductsVisible(int firstVisible, int lastVisible) {
+        if (pager != null) {
+            pager.onVisibleRange(firstVisible, lastVisible);
+        }
+    }
+
+    private void showPager(ProductPager newPager, String title) {
+        if (pager != null) {
+            pagedProducts.removeSource(pager.getProducts());
+            pager.cancel();
+        }
+        pager = newPager;
+        pagedTitle.setValue(title);
+        pagedProducts.addSource(newPager.getProducts(), pagedProducts::setValue);
+        newPager.refresh();
+    }
+
+    private void loadData(EnumSet<Section> sections) {
+        if (sections.isEmpty()) {
+            return;
+        }
         try {
-            // Si ya había fuentes anteriores, las removemos
-            if (featuredProductsSource != null) {
-                featuredProducts.removeSource(featuredProductsSource);
-            }
-            if (categoriesSource != null) {
-                categories.removeSource(categoriesSource);
-            }
-            if (bannerImageUrlSource != null) {
-                bannerImageUrl.removeSource(bannerImageUrlSource);
-            }
-            
-            // Obtenemos los productos destacados
-            featuredProductsSource = productRepository.getFeaturedProducts();
-            featuredProducts.addSource(featuredProductsSource, products -> {
-                if (products != null) {
-                    featuredProducts.setValue(products);
-                } else {
-                    featuredProducts.setValue(new ArrayList<>());
-                }
-                isLoading.setValue(false);
-            });
-            
-            // Obtenemos las categorías
-            categoriesSource = categoryRepository.getAllCategories();
-            categories.addSource(categoriesSource, categoryList -> {
-                if (categoryList != null) {
-                    categories.setValue(categoryList);
-                } else {
-                    categories.setValue(new ArrayList<>());
-                }
-            });
-            
-            // Obtenemos la URL del banner
-            bannerImageUrlSource = promotionRepository.getActiveBannerImageUrl();
-            bannerImageUrl.addSource(bannerImageUrlSource, url -> {
-                bannerImageUrl.setValue(url != null ? url : "");
-            });
+            refreshCoordinator.onLoadStarted(sections);
+            homeLoader.load(sections);
         } catch (Exception e) {
             errorMessage.setValue("Error al cargar datos: " + e.getMessage());
-            isLoading.setValue(false);
         }
     }
 
+    /**
+     * La pantalla vuelve a estar visible: recarga solo lo que salió de su ventana de frescura.
+     */
+    public void onScreenVisible() {
+        loadData(refreshCoordinator.onVisible());
+        Log.d(TAG, refreshCoordinator.getStats().toString());
+    }
+
+    public void onScreenHidden() {
+        refreshCoordinator.onHidden();
+    }
+
+    /**
+     * Recarga explícita (deslizar para refrescar): todas las secciones y la lista paginada.
+     */
     public void refreshData() {
-        loadData();
+        loadData(refreshCoordinator.forceRefresh());
+        if (pager != null) {
+            pager.refresh();
+        }
+    }
+
+    public RefreshCoordinator.Stats getRefreshStats() {
+        return refreshCoordinator.getStats();
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        homeLoader.cancel();
+        // Las páginas pendientes ya no tienen a quién entregarse
+        if (pager != null) {
+            pager.cancel();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.pinwood.app.ui.home.viewmodel;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Cuándo se pinta la pantalla de inicio si no todas las secciones llegaron a tiempo.
+ *
+ * La primera emisión de una carga espera a que estén todas las secciones o, al vencer el plazo,
+ * a que estén al menos las requeridas. Las secciones que lleguen después se emiten juntas
+ * en una segunda instantánea.
+ */
+public final class PartialRenderPolicy {
+    /**
+     * Por defecto los productos son el contenido principal: se espera hasta 800 ms por el
+     * resto y después se pinta con lo que haya, pero nunca sin productos.
+     */
+    public static final PartialRenderPolicy DEFAULT = requiring(800, HomeState.Section.FEATURED);
+
+    private final long deadlineMillis;
+    private final Set<HomeState.Section> requiredSections;
+
+    private PartialRenderPolicy(long deadlineMillis, Set<HomeState.Section> requiredSections) {
+        this.deadlineMillis = deadlineMillis;
+        this.requiredSections = Collections.unmodifiableSet(requiredSections);
+    }
+
+    /**
+     * Tras {@code deadlineMillis} se pinta en cuanto estén las secciones indicadas.
+     */
+    public static PartialRenderPolicy requiring(long deadlineMillis, HomeState.Section... required) {
+        EnumSet<HomeState.Section> sections = EnumSet.noneOf(HomeState.Section.class);
+        Collections.addAll(sections, required);
+        return new PartialRenderPolicy(deadlineMillis, sections);
+    }
+
+    /**
+     * Nunca pinta a medias: espera a todas las secciones.
+     */
+    public static PartialRenderPolicy waitForAll() {
+        return new PartialRenderPolicy(Long.MAX_VALUE, EnumSet.allOf(HomeState.Section.class));
+    }
+
+    public long getDeadlineMillis() {
+        return deadlineMillis;
+    }
+
+    boolean canRender(Set<HomeState.Section> ready, boolean deadlineExpired) {
+        return ready.size() == HomeState.Section.values().length
+                || (deadlineExpired && ready.containsAll(requiredSections));
+    }
+}
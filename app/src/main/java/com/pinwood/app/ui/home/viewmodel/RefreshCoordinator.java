@@ -0,0 +1,160 @@
+package com.pinwood.app.ui.home.viewmodel;
+
+import android.os.SystemClock;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.pinwood.app.ui.home.viewmodel.HomeState.Section;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Decide qué secciones de la pantalla de inicio hay que recargar al volver a mostrarla.
+ *
+ * Cada sección tiene su ventana de frescura: dentro de ella se reutiliza lo que ya se cargó.
+ * Las vueltas rápidas (un diálogo, el menú lateral) no recargan nada aunque alguna sección
+ * haya caducado mientras tanto. Deslizar para refrescar recarga todo sin consultar las ventanas.
+ * Una sección pedida que no responde en {@link #PENDING_TIMEOUT_MS} se da por perdida y se
+ * vuelve a pedir en la siguiente vuelta.
+ *
+ * Se usa solo desde el hilo principal.
+ */
+public class RefreshCoordinator {
+    static final long PENDING_TIMEOUT_MS = 30_000;
+
+    /**
+     * Contadores de recargas hechas y de lecturas de red evitadas por sección.
+     */
+    public static final class Stats {
+        private final long refreshed;
+        private final long forced;
+        private final long avoided;
+
+        Stats(long refreshed, long forced, long avoided) {
+            this.refreshed = refreshed;
+            this.forced = forced;
+            this.avoided = avoided;
+        }
+
+        public long getRefreshed() {
+            return refreshed;
+        }
+
+        public long getForced() {
+            return forced;
+        }
+
+        /**
+         * Secciones que no se volvieron a consultar porque seguían frescas.
+         */
+        public long getAvoided() {
+            return avoided;
+        }
+
+        @Override
+        public String toString() {
+            return "recargas{hechas=" + refreshed + ", forzadas=" + forced + ", evitadas=" + avoided + "}";
+        }
+    }
+
+    private final Map<Section, Long> freshnessWindows = new EnumMap<>(Section.class);
+    // Momento (elapsedRealtime) en que cada sección recibió datos por última vez
+    private final Map<Section, Long> loadedAt = new EnumMap<>(Section.class);
+    // Momento en que se pidieron las secciones que aún no han respondido; no se vuelven a pedir
+    private final Map<Section, Long> pendingSince = new EnumMap<>(Section.class);
+    private final long resumeGraceMillis;
+    private final LongSupplier clock;
+    private long lastHiddenAt = -1;
+
+    private long refreshed;
+    private long forced;
+    private long avoided;
+
+    /**
+     * @param defaultWindowMillis ventana de frescura de las secciones sin una propia
+     * @param resumeGraceMillis   ausencia máxima que se considera una vuelta rápida
+     */
+    public RefreshCoordinator(long defaultWindowMillis, long resumeGraceMillis) {
+        this(defaultWindowMillis, resumeGraceMillis, SystemClock::elapsedRealtime);
+    }
+
+    @VisibleForTesting
+    RefreshCoordinator(long defaultWindowMillis, long resumeGraceMillis, LongSupplier clock) {
+        for (Section section : Section.values()) {
+            freshnessWindows.put(section, defaultWindowMillis);
+        }
+        this.resumeGraceMillis = resumeGraceMillis;
+        this.clock = clock;
+    }
+
+    public RefreshCoordinator setFreshnessWindow(Section section, long windowMillis) {
+        freshnessWindows.put(section, windowMillis);
+        return this;
+    }
+
+    public void onLoadStarted(EnumSet<Section> sections) {
+        long now = clock.getAsLong();
+        for (Section section : sections) {
+            pendingSince.put(section, now);
+        }
+    }
+
+    /**
+     * La sección recibió datos. Una sección vacía no se da por fresca: puede ser un error que
+     * el repositorio sustituyó por un valor vacío, y la siguiente vuelta lo reintenta.
+     */
+    public void onSectionLoaded(Section section, boolean hasData) {
+        pendingSince.remove(section);
+        if (hasData) {
+            loadedAt.put(section, clock.getAsLong());
+        } else {
+            loadedAt.remove(section);
+        }
+    }
+
+    public void onHidden() {
+        lastHiddenAt = clock.getAsLong();
+    }
+
+    /**
+     * La pantalla vuelve a ser visible: devuelve las secciones caducadas (vacío si no hay que
+     * recargar nada).
+     */
+    public EnumSet<Section> onVisible() {
+        long now = clock.getAsLong();
+        boolean quickReturn = lastHiddenAt >= 0 && now - lastHiddenAt < resumeGraceMillis;
+        lastHiddenAt = -1;
+
+        EnumSet<Section> stale = EnumSet.noneOf(Section.class);
+        for (Section section : Section.values()) {
+            Long requested = pendingSince.get(section);
+            if (requested != null && now - requested < PENDING_TIMEOUT_MS) {
+                continue;
+            }
+            Long loaded = loadedAt.get(section);
+            // Lo que nunca se cargó se pide siempre, también en una vuelta rápida
+            if (loaded == null || (!quickReturn && now - loaded >= freshnessWindows.get(section))) {
+                stale.add(section);
+            }
+        }
+        refreshed += stale.size();
+        avoided += Section.values().length - stale.size();
+        return stale;
+    }
+
+    /**
+     * Recarga explícita (deslizar para refrescar): todas las secciones.
+     */
+    public EnumSet<Section> forceRefresh() {
+        forced++;
+        refreshed += Section.values().length;
+        return EnumSet.allOf(Section.class);
+    }
+
+    public Stats getStats() {
+        return new Stats(refreshed, forced, avoided);
+    }
+}
@@ -4,27 +4,118 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.pinwood.app.R;
+import com.pinwood.app.data.concurrent.AsyncResult;
+import com.pinwood.app.data.repository.CategoryRepository;
+import com.pinwood.app.data.repository.ProductRepository;
+import com.pinwood.app.data.repository.PromotionRepository;
+import com.pinwood.app.startup.AppInitializers;
+import com.pinwood.app.startup.AppStartup;
 import com.pinwood.app.ui.home.HomeActivity;
 import com.pinwood.app.ui.user.login.LoginActivity;
 import com.pinwood.app.utils.FirebaseUtil;
 
+/**
+ * Pantalla de arranque. Navega en cuanto la sesión está resuelta y los destacados guardados en
+ * disco están en memoria, respetando un mínimo para la marca y un máximo por si algo se retrasa.
+ * Mientras tanto, si hay sesión, lanza las consultas de la pantalla de inicio para que se abra
+ * ya con datos.
+ */
 public class SplashActivity extends AppCompatActivity {
 
     private static final String TAG = "SplashActivity";
-    private static final long SPLASH_DELAY = 2000; // 2 segundos
+    // Tiempo mínimo visible para que el logo no parpadee
+    private static final long MIN_DISPLAY_MS = 400;
+    // Pase lo que pase, no se espera más que esto
+    private static final long MAX_DISPLAY_MS = 2000;
+
+    private long createdAt;
+    private boolean minDisplayElapsed;
+    private boolean authResolved;
+    private boolean homeWarmed;
+    private boolean navigated;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable minDisplayRunnable = () -> {
+        minDisplayElapsed = true;
+        navigateIfReady();
+    };
+    private final Runnable maxDisplayRunnable = () -> {
+        Log.d(TAG, "Tiempo máximo alcanzado (sesión=" + authResolved + ", destacados=" + homeWarmed + ")");
+        navigate();
+    };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_splash);
+        createdAt = SystemClock.uptimeMillis();
+        
+        handler.postDelayed(minDisplayRunnable, MIN_DISPLAY_MS);
+        handler.postDelayed(maxDisplayRunnable, MAX_DISPLAY_MS);
+        
+        // Destacados desde la instantánea en disco: la pantalla de inicio los pinta al abrirse
+        ProductRepository.getInstance(this).warmFeaturedProducts().whenComplete(new AsyncResult.Callback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean hasProducts) {
+                handler.post(() -> {
+                    homeWarmed = true;
+                    navigateIfReady();
+                });
+            }
+            
+            @Override
+            public void onError(Exception e) {
+                onSuccess(false);
+            }
+        });
         
-        // Mostrar splash por 2 segundos y luego iniciar la actividad correspondiente
-        new Handler(Looper.getMainLooper()).postDelayed(this::checkUserAndNavigate, SPLASH_DELAY);
+        AppStartup startup = AppStartup.getInstance();
+        if (startup == null) {
+            authResolved = true;
+            return;
+        }
+        startup.whenDone(AppInitializers.AUTH, () -> {
+            authResolved = true;
+            if (FirebaseUtil.isUserAuthenticated()) {
+                // Las consultas necesitan los ajustes de Firestore ya aplicados
+                startup.whenDone(AppInitializers.FIRESTORE, this::prefetchHome);
+            }
+            navigateIfReady();
+        });
+    }
+    
+    /**
+     * Lanza las consultas de la pantalla de inicio; la primera carga de HomeFragment las
+     * recoge (o se une a ellas si siguen en curso). Los destacados conectan ya el listener en
+     * vivo que la pantalla de inicio va a observar.
+     */
+    private void prefetchHome() {
+        ProductRepository.getInstance(this).prefetchFeaturedProducts();
+        CategoryRepository.getInstance().prefetchCategories();
+        PromotionRepository.getInstance().prefetchActiveBannerImageUrl();
+    }
+    
+    private void navigateIfReady() {
+        if (minDisplayElapsed && authResolved && homeWarmed) {
+            navigate();
+        }
+    }
+    
+    private void navigate() {
+        if (navigated || isFinishing() || isDestroyed()) {
+            return;
+        }
+        navigated = true;
+        handler.removeCallbacks(minDisplayRunnable);
+        handler.removeCallbacks(maxDisplayRunnable);
+        Log.d(TAG, "Navegación tras " + (SystemClock.uptimeMillis() - createdAt) + "ms");
+        checkUserAndNavigate();
     }
     
     private void checkUserAndNavigate() {
@@ -50,4 +141,10 @@ public class SplashActivity extends AppCompatActivity {
             finish(); // Cerrar esta actividad para que no se pueda volver a ella con el botón atrás
         }
     }
-}
\ No newline at end of file
+    
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        handler.removeCallbacksAndMessages(null);
+    }
+}
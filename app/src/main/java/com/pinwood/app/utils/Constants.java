@@ -24,6 +24,8 @@ public class Constants {
     public static final String PREF_USER_EMAIL = "user_email";
     public static final String PREF_USER_PHONE = "user_phone";
     public static final String PREF_PROFILE_IMAGE_URL = "profile_image_url";
+    public static final String PREF_SYNC_WATERMARK_PREFIX = "sync_watermark_";
+    public static final String PREF_LAST_FULL_SYNC_PREFIX = "last_full_sync_";
     
     // Order Status
     public static final String ORDER_STATUS_PENDING = "pending";
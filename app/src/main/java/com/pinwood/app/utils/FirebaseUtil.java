@@ -3,12 +3,17 @@ package com.pinwood.app.utils;
 import android.content.Context;
 import android.util.Log;
 
+import com.pinwood.app.R;
+
 /**
  * Clase utilitaria para abstraer las dependencias de Firebase.
  * Utiliza reflexión para acceder a las clases de Firebase sin necesitar importaciones directas.
  */
 public class FirebaseUtil {
     private static final String TAG = "FirebaseUtil";
+    // Puertos por defecto de los emuladores (benchmark/emulator/firebase.json)
+    private static final int FIRESTORE_EMULATOR_PORT = 8080;
+    private static final int AUTH_EMULATOR_PORT = 9099;
 
     /**
      * Inicializa Firebase y configura Firestore para persistencia offline.
@@ -17,15 +22,44 @@ public class FirebaseUtil {
      * @return true si la inicialización fue exitosa, false en caso contrario
      */
     public static boolean initializeFirebase(Context context) {
+        return initializeApp(context) && configureFirestore(context);
+    }
+
+    /**
+     * Inicializa FirebaseApp (sin tocar Firestore).
+     *
+     * @param context Contexto de la aplicación
+     * @return true si la inicialización fue exitosa, false en caso contrario
+     */
+    public static boolean initializeApp(Context context) {
         try {
-            // Inicializar Firebase
             Class<?> firebaseAppClass = Class.forName("com.google.firebase.FirebaseApp");
             firebaseAppClass.getMethod("initializeApp", Context.class).invoke(null, context);
-            
-            // Configurar Firestore
+            return true;
+        } catch (Exception e) {
+            Log.e(TAG, "Error al inicializar Firebase: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Configura Firestore para persistencia offline (y el emulador local si el build lo indica).
+     * Tiene que llamarse antes de la primera consulta; puede hacerse fuera del hilo principal.
+     *
+     * @param context Contexto de la aplicación
+     * @return true si la configuración fue exitosa, false en caso contrario
+     */
+    public static boolean configureFirestore(Context context) {
+        try {
             Class<?> firestoreClass = Class.forName("com.google.firebase.firestore.FirebaseFirestore");
             Object firestoreInstance = firestoreClass.getMethod("getInstance").invoke(null);
             
+            String emulatorHost = getEmulatorHost(context);
+            if (emulatorHost != null) {
+                firestoreClass.getMethod("useEmulator", String.class, int.class)
+                    .invoke(firestoreInstance, emulatorHost, FIRESTORE_EMULATOR_PORT);
+            }
+            
             Class<?> settingsClass = Class.forName("com.google.firebase.firestore.FirebaseFirestoreSettings$Builder");
             Object settingsBuilder = settingsClass.newInstance();
             
@@ -47,11 +81,44 @@ public class FirebaseUtil {
             
             return true;
         } catch (Exception e) {
-            Log.e(TAG, "Error al inicializar Firebase: " + e.getMessage());
+            Log.e(TAG, "Error al configurar Firestore: " + e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Prepara FirebaseAuth (carga la sesión guardada) y lo conecta al emulador local si el
+     * build lo indica.
+     *
+     * @param context Contexto de la aplicación
+     * @return true si FirebaseAuth está disponible, false en caso contrario
+     */
+    public static boolean initializeAuth(Context context) {
+        Object firebaseAuth = getFirebaseAuth();
+        if (firebaseAuth == null) {
+            return false;
+        }
+        String emulatorHost = getEmulatorHost(context);
+        if (emulatorHost != null) {
+            try {
+                firebaseAuth.getClass().getMethod("useEmulator", String.class, int.class)
+                    .invoke(firebaseAuth, emulatorHost, AUTH_EMULATOR_PORT);
+            } catch (Exception e) {
+                Log.e(TAG, "Error al conectar con el emulador de Auth: " + e.getMessage());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Host del emulador de Firebase configurado para este build, o null si se usa producción.
+     */
+    private static String getEmulatorHost(Context context) {
+        String host = context.getString(R.string.firebase_emulator_host);
+        return host.isEmpty() ? null : host;
+    }
+
     /**
      * Obtiene la instancia de FirebaseAuth.
      *
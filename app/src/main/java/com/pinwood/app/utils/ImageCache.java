@@ -0,0 +1,270 @@
+package com.pinwood.app.utils;
+
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.cache.DiskLruCacheWrapper;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cachés de imágenes detrás de {@link ImageLoader}, con presupuestos explícitos:
+ * <ul>
+ *     <li>Memoria: una fracción de la clase de memoria del dispositivo (menor en equipos de
+ *     poca RAM), repartida entre imágenes decodificadas y el pool de bitmaps reutilizables.</li>
+ *     <li>Disco: LRU acotado en la caché interna de la app.</li>
+ * </ul>
+ * Ante onTrimMemory se libera memoria de forma gradual según el nivel, en lugar de vaciarlo
+ * todo. Glide recibe los avisos de memoria directamente y los delega en estas cachés.
+ */
+public final class ImageCache {
+    private static final String TAG = "ImageCache";
+
+    // Fracción de la clase de memoria (MB por app) para imágenes decodificadas y para el pool
+    private static final float MEMORY_CACHE_FRACTION = 0.15f;
+    private static final float BITMAP_POOL_FRACTION = 0.10f;
+    // En equipos de poca RAM la clase de memoria ya es pequeña y el sistema mata antes
+    private static final float LOW_RAM_MULTIPLIER = 0.5f;
+
+    static final String DISK_CACHE_DIR = "image_cache";
+    static final long DISK_CACHE_BYTES = 100L * 1024 * 1024;
+
+    private static volatile TrackingMemoryCache memoryCache;
+    private static volatile TrackingDiskCache diskCache;
+    private static volatile LruBitmapPool bitmapPool;
+
+    private ImageCache() {
+    }
+
+    /**
+     * Crea las cachés; lo llama el módulo de Glide al inicializarse.
+     */
+    static void install(Context context) {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        long memoryClassBytes = (long) activityManager.getMemoryClass() * 1024 * 1024;
+        float multiplier = activityManager.isLowRamDevice() ? LOW_RAM_MULTIPLIER : 1f;
+
+        memoryCache = new TrackingMemoryCache((long) (memoryClassBytes * MEMORY_CACHE_FRACTION * multiplier));
+        bitmapPool = new LruBitmapPool((long) (memoryClassBytes * BITMAP_POOL_FRACTION * multiplier));
+        diskCache = new TrackingDiskCache(new File(context.getCacheDir(), DISK_CACHE_DIR), DISK_CACHE_BYTES);
+    }
+
+    static TrackingMemoryCache getMemoryCache() {
+        return memoryCache;
+    }
+
+    static LruBitmapPool getBitmapPool() {
+        return bitmapPool;
+    }
+
+    static DiskCache.Factory getDiskCacheFactory() {
+        return () -> diskCache;
+    }
+
+    /**
+     * Estadísticas actuales sin la ocupación en disco; null si Glide aún no se ha inicializado.
+     * No toca el disco, así que se puede llamar desde el hilo principal.
+     */
+    public static Stats getStats() {
+        return getStats(false);
+    }
+
+    /**
+     * Como {@link #getStats()}, pero con la ocupación en disco, que recorre el directorio de la
+     * caché: solo fuera del hilo principal.
+     */
+    @WorkerThread
+    public static Stats getStatsWithDiskUsage() {
+        return getStats(true);
+    }
+
+    private static Stats getStats(boolean withDiskUsage) {
+        TrackingMemoryCache memory = memoryCache;
+        TrackingDiskCache disk = diskCache;
+        LruBitmapPool pool = bitmapPool;
+        if (memory == null || disk == null || pool == null) {
+            return null;
+        }
+        return new Stats(memory.hits.get(), memory.misses.get(), memory.evictions.get(),
+                memory.getCurrentSize(), memory.getMaxSize(),
+                pool.getCurrentSize(), pool.getMaxSize(),
+                disk.hits.get(), disk.misses.get(), withDiskUsage ? disk.directorySize() : -1, disk.maxBytes);
+    }
+
+    public static void logStats() {
+        Stats stats = getStats();
+        if (stats != null) {
+            Log.d(TAG, stats.toString());
+        }
+    }
+
+    /**
+     * Contadores de las cachés de imágenes.
+     */
+    public static final class Stats {
+        public final long memoryHits;
+        public final long memoryMisses;
+        public final long memoryEvictions;
+        public final long memoryBytes;
+        public final long memoryMaxBytes;
+        public final long poolBytes;
+        public final long poolMaxBytes;
+        public final long diskHits;
+        public final long diskMisses;
+        // -1 si no se midió la ocupación
+        public final long diskBytes;
+        public final long diskMaxBytes;
+
+        Stats(long memoryHits, long memoryMisses, long memoryEvictions, long memoryBytes, long memoryMaxBytes,
+              long poolBytes, long poolMaxBytes, long diskHits, long diskMisses, long diskBytes, long diskMaxBytes) {
+            this.memoryHits = memoryHits;
+            this.memoryMisses = memoryMisses;
+            this.memoryEvictions = memoryEvictions;
+            this.memoryBytes = memoryBytes;
+            this.memoryMaxBytes = memoryMaxBytes;
+            this.poolBytes = poolBytes;
+            this.poolMaxBytes = poolMaxBytes;
+            this.diskHits = diskHits;
+            this.diskMisses = diskMisses;
+            this.diskBytes = diskBytes;
+            this.diskMaxBytes = diskMaxBytes;
+        }
+
+        public double getMemoryHitRate() {
+            long lookups = memoryHits + memoryMisses;
+            return lookups == 0 ? 0 : (double) memoryHits / lookups;
+        }
+
+        public double getDiskHitRate() {
+            long lookups = diskHits + diskMisses;
+            return lookups == 0 ? 0 : (double) diskHits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return "memoria{aciertos=" + memoryHits + ", fallos=" + memoryMisses +
+                   ", tasa=" + String.format("%.0f", getMemoryHitRate() * 100) + "%" +
+                   ", desalojos=" + memoryEvictions +
+                   ", " + memoryBytes / 1024 + "/" + memoryMaxBytes / 1024 + " KB}" +
+                   " pool{" + poolBytes / 1024 + "/" + poolMaxBytes / 1024 + " KB}" +
+                   " disco{aciertos=" + diskHits + ", fallos=" + diskMisses +
+                   ", tasa=" + String.format("%.0f", getDiskHitRate() * 100) + "%" +
+                   ", " + (diskBytes >= 0 ? diskBytes / 1024 + "/" : "máx ") + diskMaxBytes / 1024 + " KB}";
+        }
+    }
+
+    /**
+     * Caché LRU de imágenes decodificadas que cuenta aciertos y desalojos, con liberación
+     * gradual según el nivel de onTrimMemory.
+     */
+    static final class TrackingMemoryCache extends LruResourceCache {
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+        final AtomicLong evictions = new AtomicLong();
+
+        TrackingMemoryCache(long maxBytes) {
+            super(maxBytes);
+        }
+
+        // Glide consulta la caché retirando la entrada (pasa a estar "activa" mientras se muestra)
+        @Override
+        public synchronized Resource<?> remove(Key key) {
+            Resource<?> resource = super.remove(key);
+            (resource != null ? hits : misses).incrementAndGet();
+            return resource;
+        }
+
+        @Override
+        protected void onItemEvicted(Key key, Resource<?> item) {
+            evictions.incrementAndGet();
+            super.onItemEvicted(key, item);
+        }
+
+        @Override
+        public void trimMemory(int level) {
+            long max = getMaxSize();
+            if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+                // La app está entre las siguientes en morir: lo decodificado se recupera del disco
+                clearMemory();
+            } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                    || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+                trimToSize(max / 4);
+            } else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN
+                    || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+                // Pantalla oculta: se conserva la mitad para volver sin redecodificar todo
+                trimToSize(max / 2);
+            } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+                trimToSize(max * 3 / 4);
+            }
+            Log.d(TAG, "onTrimMemory(" + level + ") " + getCurrentSize() / 1024 + "/" + max / 1024 + " KB");
+        }
+    }
+
+    /**
+     * Caché en disco de Glide (LRU acotado) que cuenta aciertos. Se crea de forma perezosa en
+     * el primer acceso, que Glide hace fuera del hilo principal.
+     */
+    static final class TrackingDiskCache implements DiskCache {
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+        private final File directory;
+        private final long maxBytes;
+        private DiskCache delegate;
+
+        TrackingDiskCache(File directory, long maxBytes) {
+            this.directory = directory;
+            this.maxBytes = maxBytes;
+        }
+
+        private synchronized DiskCache delegate() {
+            if (delegate == null) {
+                delegate = DiskLruCacheWrapper.create(directory, maxBytes);
+            }
+            return delegate;
+        }
+
+        @Override
+        public File get(Key key) {
+            File file = delegate().get(key);
+            (file != null ? hits : misses).incrementAndGet();
+            return file;
+        }
+
+        @Override
+        public void put(Key key, Writer writer) {
+            delegate().put(key, writer);
+        }
+
+        @Override
+        public void delete(Key key) {
+            delegate().delete(key);
+        }
+
+        @Override
+        public void clear() {
+            delegate().clear();
+        }
+
+        long directorySize() {
+            File[] files = directory.listFiles();
+            if (files == null) {
+                return 0;
+            }
+            long size = 0;
+            for (File file : files) {
+                size += file.length();
+            }
+            return size;
+        }
+    }
+}
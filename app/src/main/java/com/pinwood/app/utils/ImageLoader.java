@@ -3,44 +3,109 @@ package com.pinwood.app.utils;
 import android.content.Context;
 import android.graphics.drawable.Drawable;
 import android.net.Uri;
+import android.util.Log;
 import android.widget.ImageView;
 
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.load.resource.bitmap.DownsampleStrategy;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.RequestOptions;
+import com.bumptech.glide.request.target.Target;
 import com.pinwood.app.R;
 
 /**
  * Clase utilitaria para cargar imágenes, abstrayendo la biblioteca subyacente.
  * Implementa un patrón de "fallback" para manejar casos donde Glide no está disponible.
+ *
+ * Las cargas son conscientes del tamaño: con un {@link ImageSpec} se pide la variante en
+ * miniatura del servidor ({@link ThumbnailUrlPolicy}) y se decodifica ya reducida, en RGB_565
+ * si la imagen no tiene transparencias.
  */
 public class ImageLoader {
+    private static final String TAG = "ImageLoader";
+    // Miniaturas fallidas seguidas sin ningún acierto antes de dejar de pedirlas en la sesión
+    // (p. ej. la extensión de redimensionado no está desplegada)
+    private static final int MAX_THUMBNAIL_MISSES = 5;
 
     // Interfaz para proporcionar una estrategia alternativa de carga de imágenes
     private interface ImageLoaderStrategy {
-        void loadImage(Context context, String imageUrl, ImageView imageView, int placeholderResId);
+        void loadImage(Context context, String imageUrl, ImageView imageView, int placeholderResId, ImageSpec spec);
     }
 
     // Estrategia principal usando Glide
     private static class GlideLoaderStrategy implements ImageLoaderStrategy {
         @Override
-        public void loadImage(Context context, String imageUrl, ImageView imageView, int placeholderResId) {
+        public void loadImage(Context context, String imageUrl, ImageView imageView, int placeholderResId,
+                              ImageSpec spec) {
             try {
-                // Intentar usar Glide
-                com.bumptech.glide.Glide.with(context)
-                    .load(imageUrl)
+                RequestOptions options = decodeOptions(spec)
                     .placeholder(placeholderResId)
-                    .error(placeholderResId)
-                    .centerCrop()
-                    .into(imageView);
+                    .error(placeholderResId);
+                buildRequest(Glide.with(context), imageUrl, spec, options, null).into(imageView);
             } catch (Exception e) {
                 // Si falla, usar la estrategia de respaldo
-                new FallbackLoaderStrategy().loadImage(context, imageUrl, imageView, placeholderResId);
+                new FallbackLoaderStrategy().loadImage(context, imageUrl, imageView, placeholderResId, spec);
             }
         }
     }
 
+    /**
+     * Petición de la variante en miniatura con la original como respaldo (o solo la original si
+     * no hay variante). La usan tanto la carga como la precarga, de modo que ambas comparten la
+     * misma clave de caché.
+     */
+    private static RequestBuilder<Drawable> buildRequest(RequestManager glide, String imageUrl, ImageSpec spec,
+                                                         RequestOptions options,
+                                                         RequestListener<Drawable> listener) {
+        RequestBuilder<Drawable> original = glide.load(imageUrl).apply(options);
+        if (listener != null) {
+            original = original.addListener(listener);
+        }
+
+        String thumbnailUrl = thumbnailMisses < MAX_THUMBNAIL_MISSES
+                ? thumbnailPolicy.rewrite(imageUrl, spec) : imageUrl;
+        if (thumbnailUrl == null || thumbnailUrl.equals(imageUrl)) {
+            return original;
+        }
+        // Si la variante no existe se carga la original en la misma vista
+        RequestBuilder<Drawable> thumbnail = glide.load(thumbnailUrl)
+            .apply(options)
+            .listener(THUMBNAIL_LISTENER);
+        if (listener != null) {
+            thumbnail = thumbnail.addListener(listener);
+        }
+        return thumbnail.error(original);
+    }
+
+    // Cuenta las miniaturas que no existen para dejar de pedirlas si ninguna funciona
+    private static final RequestListener<Drawable> THUMBNAIL_LISTENER = new RequestListener<Drawable>() {
+        @Override
+        public boolean onLoadFailed(GlideException e, Object model, Target<Drawable> target,
+                                    boolean isFirstResource) {
+            if (++thumbnailMisses == MAX_THUMBNAIL_MISSES) {
+                Log.w(TAG, "Miniaturas no disponibles, se cargan las imágenes originales");
+            }
+            return false;
+        }
+
+        @Override
+        public boolean onResourceReady(Drawable resource, Object model, Target<Drawable> target,
+                                       DataSource dataSource, boolean isFirstResource) {
+            thumbnailMisses = 0;
+            return false;
+        }
+    };
+
     // Estrategia de respaldo básica en caso de que Glide no esté disponible
     private static class FallbackLoaderStrategy implements ImageLoaderStrategy {
         @Override
-        public void loadImage(Context context, String imageUrl, ImageView imageView, int placeholderResId) {
+        public void loadImage(Context context, String imageUrl, ImageView imageView, int placeholderResId,
+                              ImageSpec spec) {
             try {
                 // Intento básico de carga usando Uri
                 if (imageUrl != null && !imageUrl.isEmpty()) {
@@ -58,6 +123,64 @@ public class ImageLoader {
 
     // La estrategia predeterminada
     private static ImageLoaderStrategy defaultStrategy = new GlideLoaderStrategy();
+    private static ThumbnailUrlPolicy thumbnailPolicy = StorageThumbnailPolicy.DEFAULT;
+    // Solo se modifica desde el hilo principal (callbacks de Glide)
+    private static int thumbnailMisses;
+
+    /**
+     * Opciones de decodificación para {@code spec}: reducida al tamaño de destino (sin pasar
+     * por la imagen completa en memoria) y en RGB_565 si es opaca.
+     */
+    public static RequestOptions decodeOptions(ImageSpec spec) {
+        RequestOptions options = new RequestOptions()
+            .downsample(DownsampleStrategy.CENTER_OUTSIDE)
+            .centerCrop();
+        if (spec.isSized()) {
+            options = options.override(spec.getWidthPx(), spec.getHeightPx());
+        }
+        if (spec.isOpaque()) {
+            options = options.format(DecodeFormat.PREFER_RGB_565);
+        }
+        return options;
+    }
+
+    /**
+     * Decodifica la imagen en la caché de memoria sin mostrarla, para que una carga posterior
+     * con el mismo {@code spec} sea inmediata. Devuelve el destino para poder cancelarla con
+     * {@link #cancelPreload}, o null si no se puede precargar (sin URL o sin tamaño).
+     */
+    public static Target<Drawable> preload(Context context, String imageUrl, ImageSpec spec,
+                                           RequestListener<Drawable> listener) {
+        if (imageUrl == null || imageUrl.isEmpty() || !spec.isSized()) {
+            return null;
+        }
+        try {
+            return buildRequest(Glide.with(context), imageUrl, spec, decodeOptions(spec), listener)
+                .preload(spec.getWidthPx(), spec.getHeightPx());
+        } catch (Exception e) {
+            Log.e(TAG, "Error al precargar imagen: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public static void cancelPreload(Context context, Target<Drawable> target) {
+        if (target != null) {
+            Glide.with(context).clear(target);
+        }
+    }
+
+    /**
+     * Cancela la carga en curso de la vista (si la hay) y muestra el recurso indicado, para que
+     * una petición anterior no termine pintando sobre él.
+     */
+    public static void showPlaceholder(Context context, ImageView imageView, int placeholderResId) {
+        try {
+            Glide.with(context).clear(imageView);
+        } catch (Exception e) {
+            Log.e(TAG, "Error al cancelar la carga de imagen: " + e.getMessage());
+        }
+        imageView.setImageResource(placeholderResId);
+    }
 
     /**
      * Carga una imagen desde una URL en un ImageView.
@@ -68,8 +191,22 @@ public class ImageLoader {
      * @param placeholderResId Recurso a mostrar mientras la imagen se está cargando
      */
     public static void loadImage(Context context, String imageUrl, ImageView imageView, int placeholderResId) {
+        loadImage(context, imageUrl, imageView, placeholderResId, ImageSpec.fromView(imageView));
+    }
+
+    /**
+     * Carga una imagen al tamaño indicado, pidiendo la variante en miniatura si existe.
+     *
+     * @param context          Contexto de la aplicación
+     * @param imageUrl         URL de la imagen original
+     * @param imageView        ImageView donde se mostrará la imagen
+     * @param placeholderResId Recurso a mostrar mientras la imagen se está cargando
+     * @param spec             Tamaño de destino y si la imagen es opaca
+     */
+    public static void loadImage(Context context, String imageUrl, ImageView imageView, int placeholderResId,
+                                 ImageSpec spec) {
         try {
-            defaultStrategy.loadImage(context, imageUrl, imageView, placeholderResId);
+            defaultStrategy.loadImage(context, imageUrl, imageView, placeholderResId, spec);
         } catch (Throwable t) {
             // Último recurso en caso de problemas graves
             imageView.setImageResource(placeholderResId);
@@ -96,6 +233,15 @@ public class ImageLoader {
         }
     }
 
+    /**
+     * Cambia cómo se construyen las URLs de las miniaturas ({@link ThumbnailUrlPolicy#NONE} para
+     * pedir siempre la original).
+     */
+    public static void setThumbnailPolicy(ThumbnailUrlPolicy policy) {
+        thumbnailPolicy = policy != null ? policy : ThumbnailUrlPolicy.NONE;
+        thumbnailMisses = 0;
+    }
+
     /**
      * Resetear a la estrategia por defecto
      */
@@ -0,0 +1,241 @@
+package com.pinwood.app.utils;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.util.Log;
+
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Precarga las imágenes de los elementos que están a punto de aparecer en una lista.
+ *
+ * Con cada rango visible se piden las {@code itemsAhead} posiciones siguientes en el sentido
+ * del desplazamiento, al mismo tamaño con el que se mostrarán (misma clave de caché que
+ * {@link ImageLoader#loadImage}). Las precargas que quedan fuera del rango se cancelan y, mientras
+ * la lista se desplaza más rápido que {@code flingVelocity}, no se piden nuevas: en un fling
+ * se pasaría de largo sin llegar a mostrarlas.
+ *
+ * Se usa solo desde el hilo principal.
+ */
+public class ImagePrefetcher {
+    private static final String TAG = "ImagePrefetcher";
+    // URLs ya decodificadas que se recuerdan para medir aciertos
+    private static final int MAX_READY = 256;
+    private static final int LOG_EVERY_BINDS = 100;
+
+    /**
+     * URL de la imagen de cada posición de la lista.
+     */
+    public interface UrlSource {
+        int getCount();
+
+        /**
+         * URL de la imagen en {@code position}, o null si no tiene (o aún no se ha cargado).
+         */
+        String getImageUrl(int position);
+    }
+
+    /**
+     * Contadores de la precarga. La tasa de acierto es la fracción de imágenes enlazadas que ya
+     * estaban decodificadas gracias a una precarga; las que aún estaban en curso (la vista se une
+     * a la descarga ya empezada) se cuentan aparte.
+     */
+    public static final class Stats {
+        private final long requested;
+        private final long cancelled;
+        private final long hits;
+        private final long joined;
+        private final long misses;
+
+        Stats(long requested, long cancelled, long hits, long joined, long misses) {
+            this.requested = requested;
+            this.cancelled = cancelled;
+            this.hits = hits;
+            this.joined = joined;
+            this.misses = misses;
+        }
+
+        public long getRequested() {
+            return requested;
+        }
+
+        public long getCancelled() {
+            return cancelled;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getJoined() {
+            return joined;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public double getHitRate() {
+            long binds = hits + joined + misses;
+            return binds == 0 ? 0 : (double) hits / binds;
+        }
+
+        @Override
+        public String toString() {
+            return "precarga{pedidas=" + requested + ", canceladas=" + cancelled + ", aciertos=" + hits +
+                   ", en curso=" + joined + ", fallos=" + misses + ", tasa=" + String.format("%.0f", getHitRate() * 100) + "%}";
+        }
+    }
+
+    private final Context context;
+    private final ImageSpec spec;
+    private final int itemsAhead;
+    private final float flingVelocity;
+    private final UrlSource source;
+
+    // Precargas en curso o terminadas, por URL, con la posición que las originó
+    private final Map<String, Target<Drawable>> targets = new HashMap<>();
+    private final Map<String, Integer> positions = new HashMap<>();
+    // Precargas ya decodificadas (orden de llegada, para descartar las más antiguas)
+    private final Set<String> ready = new LinkedHashSet<>();
+
+    private long requested;
+    private long cancelled;
+    private long hits;
+    private long joined;
+    private long misses;
+
+    /**
+     * @param itemsAhead    posiciones a precargar por delante del rango visible
+     * @param flingVelocity velocidad (px/s) a partir de la cual se deja de precargar
+     */
+    public ImagePrefetcher(Context context, ImageSpec spec, int itemsAhead, float flingVelocity,
+                           UrlSource source) {
+        this.context = context.getApplicationContext();
+        this.spec = spec;
+        this.itemsAhead = itemsAhead;
+        this.flingVelocity = flingVelocity;
+        this.source = source;
+    }
+
+    /**
+     * Informa del rango visible y de la velocidad de desplazamiento (positiva hacia el final).
+     */
+    public void onVisibleRange(int firstVisible, int lastVisible, float velocity) {
+        if (firstVisible < 0 || lastVisible < firstVisible) {
+            return;
+        }
+        int count = source.getCount();
+        boolean forward = velocity >= 0;
+        int from = forward ? lastVisible + 1 : Math.max(0, firstVisible - itemsAhead);
+        int to = forward ? Math.min(count - 1, lastVisible + itemsAhead) : firstVisible - 1;
+
+        // Lo que quedó detrás del rango ya no se va a mostrar pronto
+        cancelOutside(Math.max(0, firstVisible - itemsAhead), lastVisible + itemsAhead);
+
+        if (Math.abs(velocity) > flingVelocity) {
+            return;
+        }
+        for (int position = from; position <= to; position++) {
+            prefetch(position, source.getImageUrl(position));
+        }
+    }
+
+    /**
+     * La celda enlazó {@code url}; cuenta como acierto si la precarga ya la había decodificado.
+     * Llamar después de iniciar la carga de la vista: liberar antes la precarga cancelaría la
+     * descarga en curso a la que la vista se habría unido.
+     */
+    public void onBind(String url) {
+        if (url == null) {
+            return;
+        }
+        if (ready.contains(url)) {
+            hits++;
+        } else if (targets.containsKey(url)) {
+            joined++;
+        } else {
+            misses++;
+        }
+        // La vista ya tiene su propia petición; la precarga no tiene que retener el recurso
+        Target<Drawable> target = targets.remove(url);
+        positions.remove(url);
+        ImageLoader.cancelPreload(context, target);
+        if ((hits + joined + misses) % LOG_EVERY_BINDS == 0) {
+            Log.d(TAG, getStats().toString());
+        }
+    }
+
+    public void cancelAll() {
+        cancelOutside(Integer.MAX_VALUE, Integer.MIN_VALUE);
+        ready.clear();
+    }
+
+    public Stats getStats() {
+        return new Stats(requested, cancelled, hits, joined, misses);
+    }
+
+    private void prefetch(int position, String url) {
+        if (url == null || targets.containsKey(url) || ready.contains(url)) {
+            return;
+        }
+        Target<Drawable> target = ImageLoader.preload(context, url, spec, new RequestListener<Drawable>() {
+            @Override
+            public boolean onLoadFailed(GlideException e, Object model, Target<Drawable> failed,
+                                        boolean isFirstResource) {
+                return false;
+            }
+
+            @Override
+            public boolean onResourceReady(Drawable resource, Object model, Target<Drawable> done,
+                                           DataSource dataSource, boolean isFirstResource) {
+                markReady(url);
+                return false;
+            }
+        });
+        if (target != null) {
+            targets.put(url, target);
+            positions.put(url, position);
+            requested++;
+        }
+    }
+
+    /**
+     * Cancela las precargas pendientes cuyas posiciones quedan fuera de [from, to].
+     */
+    private void cancelOutside(int from, int to) {
+        Iterator<Map.Entry<String, Integer>> it = positions.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Integer> entry = it.next();
+            int position = entry.getValue();
+            if (position >= from && position <= to) {
+                continue;
+            }
+            it.remove();
+            String url = entry.getKey();
+            Target<Drawable> target = targets.remove(url);
+            if (!ready.contains(url)) {
+                cancelled++;
+            }
+            ImageLoader.cancelPreload(context, target);
+        }
+    }
+
+    private void markReady(String url) {
+        ready.add(url);
+        if (ready.size() > MAX_READY) {
+            Iterator<String> oldest = ready.iterator();
+            oldest.next();
+            oldest.remove();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.pinwood.app.utils;
+
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+/**
+ * Tamaño en píxeles al que se va a mostrar una imagen y si necesita canal alfa.
+ * Con él {@link ImageLoader} elige la variante en miniatura y decodifica a ese tamaño.
+ */
+public final class ImageSpec {
+    // Tamaño desconocido: se pide la imagen original y Glide espera al layout de la vista
+    public static final ImageSpec UNSPECIFIED = new ImageSpec(0, 0, false);
+
+    private final int widthPx;
+    private final int heightPx;
+    private final boolean opaque;
+
+    private ImageSpec(int widthPx, int heightPx, boolean opaque) {
+        this.widthPx = widthPx;
+        this.heightPx = heightPx;
+        this.opaque = opaque;
+    }
+
+    public static ImageSpec of(int widthPx, int heightPx) {
+        if (widthPx <= 0 || heightPx <= 0) {
+            return UNSPECIFIED;
+        }
+        return new ImageSpec(widthPx, heightPx, false);
+    }
+
+    /**
+     * Tamaño de la vista si ya tiene layout, o el fijo de sus LayoutParams; si no se conoce
+     * ninguno, {@link #UNSPECIFIED}.
+     */
+    public static ImageSpec fromView(ImageView view) {
+        int width = view.getWidth();
+        int height = view.getHeight();
+        ViewGroup.LayoutParams params = view.getLayoutParams();
+        if (width <= 0 && params != null) {
+            width = params.width;
+        }
+        if (height <= 0 && params != null) {
+            height = params.height;
+        }
+        return of(width, height);
+    }
+
+    /**
+     * La imagen no tiene transparencias (fotos de producto, banners): se decodifica en
+     * RGB_565, con la mitad de memoria que ARGB_8888.
+     */
+    public ImageSpec opaque() {
+        return opaque ? this : new ImageSpec(widthPx, heightPx, true);
+    }
+
+    public boolean isSized() {
+        return widthPx > 0 && heightPx > 0;
+    }
+
+    public int getWidthPx() {
+        return widthPx;
+    }
+
+    public int getHeightPx() {
+        return heightPx;
+    }
+
+    public int getLongestSidePx() {
+        return Math.max(widthPx, heightPx);
+    }
+
+    public boolean isOpaque() {
+        return opaque;
+    }
+}
@@ -0,0 +1,35 @@
+package com.pinwood.app.utils;
+
+import android.content.Context;
+
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.module.AppGlideModule;
+import com.bumptech.glide.request.RequestOptions;
+
+/**
+ * Configuración de Glide para la app: cachés con presupuesto propio ({@link ImageCache}) y
+ * caché en disco tanto de la imagen descargada como de la ya reducida.
+ *
+ * Glide la carga de forma perezosa con la primera petición, fuera de Application.onCreate.
+ */
+@GlideModule
+public final class PinwoodGlideModule extends AppGlideModule {
+
+    @Override
+    public void applyOptions(Context context, GlideBuilder builder) {
+        ImageCache.install(context);
+        builder.setMemoryCache(ImageCache.getMemoryCache())
+            .setBitmapPool(ImageCache.getBitmapPool())
+            .setDiskCache(ImageCache.getDiskCacheFactory())
+            .setDefaultRequestOptions(new RequestOptions()
+                .diskCacheStrategy(DiskCacheStrategy.ALL));
+    }
+
+    // No hay módulos declarados en el manifiesto; evita analizarlo al arrancar Glide
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
@@ -0,0 +1,74 @@
+package com.pinwood.app.utils;
+
+/**
+ * Variantes creadas por la extensión "Resize Images" de Firebase Storage: junto a
+ * {@code productos/silla.jpg} deja {@code productos/thumbs/silla_400x400.jpg} para cada tamaño
+ * configurado.
+ *
+ * La variante tiene su propio token de descarga, así que la URL reescrita no lleva el de la
+ * original; las reglas de Storage deben permitir leer la carpeta de miniaturas. Si la variante
+ * no existe, {@link ImageLoader} vuelve a la original.
+ */
+public class StorageThumbnailPolicy implements ThumbnailUrlPolicy {
+    private static final String STORAGE_HOST = "firebasestorage.googleapis.com";
+    private static final String OBJECT_MARKER = "/o/";
+    // Separador de carpetas dentro del nombre del objeto, codificado en la URL
+    private static final String ENCODED_SLASH = "%2F";
+
+    // Tamaños configurados en la extensión (cuadrados, de menor a mayor)
+    public static final int[] DEFAULT_SIZES = {200, 400, 800};
+    public static final StorageThumbnailPolicy DEFAULT = new StorageThumbnailPolicy("thumbs", DEFAULT_SIZES);
+
+    private final String thumbnailFolder;
+    private final int[] sizes;
+
+    public StorageThumbnailPolicy(String thumbnailFolder, int[] sizes) {
+        this.thumbnailFolder = thumbnailFolder;
+        this.sizes = sizes.clone();
+    }
+
+    @Override
+    public String rewrite(String imageUrl, ImageSpec spec) {
+        if (imageUrl == null || !spec.isSized() || !imageUrl.contains(STORAGE_HOST)) {
+            return imageUrl;
+        }
+        int size = pickSize(spec.getLongestSidePx());
+        int objectStart = imageUrl.indexOf(OBJECT_MARKER);
+        if (size <= 0 || objectStart < 0) {
+            return imageUrl;
+        }
+        objectStart += OBJECT_MARKER.length();
+
+        int queryStart = imageUrl.indexOf('?', objectStart);
+        String object = queryStart < 0 ? imageUrl.substring(objectStart) : imageUrl.substring(objectStart, queryStart);
+        int nameStart = object.lastIndexOf(ENCODED_SLASH);
+        nameStart = nameStart < 0 ? 0 : nameStart + ENCODED_SLASH.length();
+        int extensionStart = object.lastIndexOf('.');
+        if (extensionStart < nameStart) {
+            extensionStart = object.length();
+        }
+
+        StringBuilder rewritten = new StringBuilder(imageUrl.length() + thumbnailFolder.length() + 16)
+                .append(imageUrl, 0, objectStart)
+                .append(object, 0, nameStart)
+                .append(thumbnailFolder).append(ENCODED_SLASH)
+                .append(object, nameStart, extensionStart)
+                .append('_').append(size).append('x').append(size)
+                .append(object, extensionStart, object.length())
+                .append("?alt=media");
+        return rewritten.toString();
+    }
+
+    /**
+     * La variante más pequeña que cubre el lado mayor; 0 si la imagen se ve más grande que
+     * todas (se usa la original).
+     */
+    int pickSize(int longestSidePx) {
+        for (int size : sizes) {
+            if (size >= longestSidePx) {
+                return size;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,15 @@
+package com.pinwood.app.utils;
+
+/**
+ * Reescribe la URL de una imagen para pedir una variante más pequeña generada en el servidor.
+ */
+public interface ThumbnailUrlPolicy {
+
+    /**
+     * URL de la variante adecuada para {@code spec}, o {@code imageUrl} sin cambios si no hay
+     * ninguna (tamaño desconocido, URL de otro origen o imagen más grande que todas las variantes).
+     */
+    String rewrite(String imageUrl, ImageSpec spec);
+
+    ThumbnailUrlPolicy NONE = (imageUrl, spec) -> imageUrl;
+}
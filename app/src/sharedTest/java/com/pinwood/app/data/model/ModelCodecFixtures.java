@@ -0,0 +1,249 @@
+package com.pinwood.app.data.model;
+
+import com.pinwood.app.data.model.cart.CartItem;
+import com.pinwood.app.data.model.product.ArModel;
+import com.pinwood.app.data.model.product.Dimensions;
+import com.pinwood.app.data.model.product.Product;
+import com.pinwood.app.data.model.user.Address;
+import com.pinwood.app.data.model.user.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Corpus sintético de documentos y los fromMap/toMap escritos a mano a los que sustituyen los
+ * codecs generados; lo comparten ModelCodecTest (equivalencia) y ModelCodecBenchmark (rendimiento).
+ */
+final class ModelCodecFixtures {
+
+    private ModelCodecFixtures() {
+    }
+
+    // ----- Corpus sintético con los tipos que entrega Firestore (Long, Double, ArrayList, HashMap) -----
+
+    static List<Map<String, Object>> productCorpus(int size) {
+        Random random = new Random(42);
+        List<Map<String, Object>> corpus = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> document = new HashMap<>();
+            document.put("productId", "p" + i);
+            document.put("name", "Producto " + i);
+            document.put("description", "Mueble de madera número " + i);
+            // Firestore entrega los números enteros como Long y los decimales como Double
+            document.put("price", random.nextBoolean() ? (Object) (long) random.nextInt(20_000)
+                    : (Object) (random.nextInt(2_000_000) / 100.0));
+            document.put("category", "cat" + random.nextInt(8));
+
+            Map<String, Object> dimensions = new HashMap<>();
+            dimensions.put("width", (long) random.nextInt(200));
+            dimensions.put("height", random.nextInt(2_000) / 10.0);
+            dimensions.put("depth", (long) random.nextInt(100));
+            dimensions.put("unit", "cm");
+            document.put("dimensions", dimensions);
+
+            List<String> imageUrls = new ArrayList<>();
+            for (int j = 0, n = 1 + random.nextInt(4); j < n; j++) {
+                imageUrls.add("https://cdn.pinwood.app/p" + i + "/" + j + ".jpg");
+            }
+            document.put("imageUrls", imageUrls);
+
+            List<Map<String, Object>> arModels = new ArrayList<>();
+            if (random.nextInt(3) == 0) {
+                Map<String, Object> model = new HashMap<>();
+                model.put("url", "https://cdn.pinwood.app/p" + i + "/model.glb");
+                model.put("format", "glb");
+                arModels.add(model);
+            }
+            document.put("arModels", arModels);
+
+            document.put("availableStock", (long) random.nextInt(50));
+            document.put("tags", new ArrayList<>(Arrays.asList("madera", "sala", "t" + random.nextInt(20))));
+            corpus.add(document);
+        }
+        return corpus;
+    }
+
+    static List<Map<String, Object>> cartCorpus(int size) {
+        Random random = new Random(7);
+        List<Map<String, Object>> corpus = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> document = new HashMap<>();
+            document.put("productId", "p" + i);
+            document.put("name", "Producto " + i);
+            document.put("price", random.nextInt(2_000_000) / 100.0);
+            document.put("quantity", (long) (1 + random.nextInt(5)));
+            document.put("imageUrl", "https://cdn.pinwood.app/p" + i + "/0.jpg");
+            corpus.add(document);
+        }
+        return corpus;
+    }
+
+    static List<Map<String, Object>> userCorpus(int size) {
+        List<Map<String, Object>> corpus = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> address = new HashMap<>();
+            address.put("street", "Calle " + i);
+            address.put("city", "Guadalajara");
+            address.put("state", "Jalisco");
+            address.put("zipCode", "44100");
+            address.put("country", "México");
+
+            Map<String, Object> document = new HashMap<>();
+            document.put("userId", "u" + i);
+            document.put("name", "Usuario " + i);
+            document.put("email", "usuario" + i + "@pinwood.app");
+            document.put("phone", "33" + (10_000_000 + i));
+            document.put("address", address);
+            document.put("profileImageUrl", "https://cdn.pinwood.app/u" + i + ".jpg");
+            document.put("createdAt", new Date(1_700_000_000_000L + i * 1_000L));
+            corpus.add(document);
+        }
+        return corpus;
+    }
+
+    // ----- Versiones escritas a mano anteriores, conservadas como referencia -----
+
+    @SuppressWarnings("unchecked")
+    static Product legacyProduct(Map<String, Object> map) {
+        Product product = new Product();
+        product.setProductId((String) map.get("productId"));
+        product.setName((String) map.get("name"));
+        product.setDescription((String) map.get("description"));
+
+        if (map.get("price") instanceof Double) {
+            product.setPrice((Double) map.get("price"));
+        } else if (map.get("price") instanceof Long) {
+            product.setPrice(((Long) map.get("price")).doubleValue());
+        }
+
+        product.setCategory((String) map.get("category"));
+
+        Map<String, Object> dimensionsMap = (Map<String, Object>) map.get("dimensions");
+        if (dimensionsMap != null) {
+            product.setDimensions(legacyDimensions(dimensionsMap));
+        }
+
+        List<String> imageUrls = (List<String>) map.get("imageUrls");
+        if (imageUrls != null) {
+            product.setImageUrls(imageUrls);
+        }
+
+        List<Map<String, Object>> arModelMaps = (List<Map<String, Object>>) map.get("arModels");
+        if (arModelMaps != null) {
+            List<ArModel> arModels = new ArrayList<>();
+            for (Map<String, Object> modelMap : arModelMaps) {
+                arModels.add(new ArModel((String) modelMap.get("url"), (String) modelMap.get("format")));
+            }
+            product.setArModels(arModels);
+        }
+
+        if (map.get("availableStock") instanceof Long) {
+            product.setAvailableStock(((Long) map.get("availableStock")).intValue());
+        } else if (map.get("availableStock") instanceof Integer) {
+            product.setAvailableStock((Integer) map.get("availableStock"));
+        }
+
+        List<String> tags = (List<String>) map.get("tags");
+        if (tags != null) {
+            product.setTags(tags);
+        }
+        return product;
+    }
+
+    private static Dimensions legacyDimensions(Map<String, Object> map) {
+        Dimensions dimensions = new Dimensions();
+        dimensions.setWidth(legacyDouble(map.get("width")));
+        dimensions.setHeight(legacyDouble(map.get("height")));
+        dimensions.setDepth(legacyDouble(map.get("depth")));
+        dimensions.setUnit((String) map.get("unit"));
+        return dimensions;
+    }
+
+    private static double legacyDouble(Object value) {
+        if (value instanceof Double) {
+            return (Double) value;
+        } else if (value instanceof Long) {
+            return ((Long) value).doubleValue();
+        }
+        return 0;
+    }
+
+    static CartItem legacyCartItem(Map<String, Object> map) {
+        CartItem cartItem = new CartItem();
+        cartItem.setProductId((String) map.get("productId"));
+        cartItem.setName((String) map.get("name"));
+
+        if (map.get("price") instanceof Double) {
+            cartItem.setPrice((Double) map.get("price"));
+        } else if (map.get("price") instanceof Long) {
+            cartItem.setPrice(((Long) map.get("price")).doubleValue());
+        }
+
+        if (map.get("quantity") instanceof Integer) {
+            cartItem.setQuantity((Integer) map.get("quantity"));
+        } else if (map.get("quantity") instanceof Long) {
+            cartItem.setQuantity(((Long) map.get("quantity")).intValue());
+        }
+
+        cartItem.setImageUrl((String) map.get("imageUrl"));
+        return cartItem;
+    }
+
+    @SuppressWarnings("unchecked")
+    static User legacyUser(Map<String, Object> map) {
+        User user = new User();
+        user.setUserId((String) map.get("userId"));
+        user.setName((String) map.get("name"));
+        user.setEmail((String) map.get("email"));
+        user.setPhone((String) map.get("phone"));
+
+        Map<String, Object> addressMap = (Map<String, Object>) map.get("address");
+        if (addressMap != null) {
+            user.setAddress(new Address((String) addressMap.get("street"), (String) addressMap.get("city"),
+                    (String) addressMap.get("state"), (String) addressMap.get("zipCode"),
+                    (String) addressMap.get("country")));
+        }
+
+        user.setProfileImageUrl((String) map.get("profileImageUrl"));
+        user.setCreatedAt((Date) map.get("createdAt"));
+        return user;
+    }
+
+    static Map<String, Object> legacyProductMap(Product product) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("productId", product.getProductId());
+        map.put("name", product.getName());
+        map.put("description", product.getDescription());
+        map.put("price", product.getPrice());
+        map.put("category", product.getCategory());
+
+        if (product.getDimensions() != null) {
+            Map<String, Object> dimensions = new HashMap<>();
+            dimensions.put("width", product.getDimensions().getWidth());
+            dimensions.put("height", product.getDimensions().getHeight());
+            dimensions.put("depth", product.getDimensions().getDepth());
+            dimensions.put("unit", product.getDimensions().getUnit());
+            map.put("dimensions", dimensions);
+        }
+
+        map.put("imageUrls", product.getImageUrls());
+
+        List<Map<String, Object>> arModelMaps = new ArrayList<>();
+        for (ArModel model : product.getArModels()) {
+            Map<String, Object> modelMap = new HashMap<>();
+            modelMap.put("url", model.getUrl());
+            modelMap.put("format", model.getFormat());
+            arModelMaps.add(modelMap);
+        }
+        map.put("arModels", arModelMaps);
+
+        map.put("availableStock", product.getAvailableStock());
+        map.put("tags", product.getTags());
+        return map;
+    }
+}
@@ -0,0 +1,143 @@
+package com.pinwood.app.data.concurrent;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pruebas de AsyncResult: una sola entrega, composición y propagación de la cancelación por
+ * toda la cadena.
+ */
+public class AsyncResultTest {
+
+    @Test
+    public void deliversToCallbacksRegisteredBeforeAndAfter() {
+        AsyncResult<String> result = AsyncResult.create();
+        Recorder<String> early = new Recorder<>();
+        result.whenComplete(early);
+
+        result.complete("mesa");
+        Recorder<String> late = new Recorder<>();
+        result.whenComplete(late);
+
+        assertEquals("mesa", early.value);
+        assertEquals("mesa", late.value);
+        assertTrue(result.isDone());
+    }
+
+    @Test
+    public void onlyTheFirstOutcomeCounts() {
+        AsyncResult<String> result = AsyncResult.create();
+        Recorder<String> recorder = new Recorder<>();
+        result.whenComplete(recorder);
+
+        result.complete("primero");
+        result.complete("segundo");
+        result.fail(new IllegalStateException());
+
+        assertEquals(1, recorder.calls);
+        assertEquals("primero", recorder.value);
+        assertNull(recorder.error);
+    }
+
+    @Test
+    public void mapAndRecoverTurnFailuresIntoValues() {
+        AsyncResult<Integer> source = AsyncResult.create();
+        Recorder<Integer> mapped = new Recorder<>();
+        Recorder<Integer> recovered = new Recorder<>();
+        AsyncResult<Integer> failing = source.map(value -> {
+            throw new IllegalArgumentException("mapper");
+        });
+        failing.whenComplete(mapped);
+        failing.recover(e -> -1).whenComplete(recovered);
+
+        source.complete(3);
+
+        assertTrue(mapped.error instanceof IllegalArgumentException);
+        assertEquals(Integer.valueOf(-1), recovered.value);
+    }
+
+    @Test
+    public void transformChainsTheInnerResult() {
+        AsyncResult<Integer> source = AsyncResult.create();
+        AsyncResult<String> inner = AsyncResult.create();
+        Recorder<String> recorder = new Recorder<>();
+        source.transform(value -> inner).whenComplete(recorder);
+
+        source.complete(1);
+        assertNull(recorder.value);
+        inner.complete("listo");
+
+        assertEquals("listo", recorder.value);
+    }
+
+    @Test
+    public void cancellingADerivedResultCancelsTheSource() {
+        AsyncResult<Integer> source = AsyncResult.create();
+        Recorder<Integer> recorder = new Recorder<>();
+        AsyncResult<Integer> doubled = source.map(value -> value * 2);
+        doubled.whenComplete(recorder);
+
+        doubled.cancel();
+        source.complete(2);
+
+        // Toda la cadena comparte el ámbito: la tarea de origen ve la cancelación
+        assertTrue(source.isCancelled());
+        assertSame(source.getScope(), doubled.getScope());
+        assertEquals(0, recorder.calls);
+        assertFalse(source.isDone());
+    }
+
+    @Test
+    public void cancellingTheChainCancelsTheInnerOperation() {
+        AsyncResult<Integer> source = AsyncResult.create();
+        AsyncResult<String> inner = AsyncResult.create();
+        AsyncResult<String> chained = source.transform(value -> inner);
+        source.complete(1);
+
+        chained.cancel();
+
+        assertTrue(inner.isCancelled());
+    }
+
+    @Test
+    public void boundOwnerCancelsPendingResultsOnly() {
+        TaskScope owner = new TaskScope();
+        AsyncResult<String> pending = AsyncResult.<String>create().bindTo(owner);
+        AsyncResult<String> finished = AsyncResult.create();
+        finished.bindTo(owner);
+        finished.complete("hecho");
+        Recorder<String> recorder = new Recorder<>();
+        pending.whenComplete(recorder);
+
+        owner.cancel();
+        pending.complete("tarde");
+
+        assertTrue(pending.isCancelled());
+        assertEquals(0, recorder.calls);
+        // Al completarse se soltó el enlace: cancelar al dueño ya no lo afecta
+        assertFalse(finished.isCancelled());
+    }
+
+    private static final class Recorder<T> implements AsyncResult.Callback<T> {
+        int calls;
+        T value;
+        Exception error;
+
+        @Override
+        public void onSuccess(T value) {
+            calls++;
+            this.value = value;
+        }
+
+        @Override
+        public void onError(Exception e) {
+            calls++;
+            this.error = e;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.pinwood.app.data.concurrent;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pruebas del planificador: orden entre carriles, cancelación, prioridad de los hilos y
+ * ejecución en serie.
+ */
+public class RepositorySchedulerTest {
+    private static final long TIMEOUT_SECONDS = 5;
+
+    // Un solo hilo: el orden de ejecución es exactamente el orden de salida de la cola
+    private RepositoryScheduler scheduler;
+    private CountDownLatch gate;
+
+    @Before
+    public void setUp() {
+        scheduler = new RepositoryScheduler(1);
+        gate = new CountDownLatch(1);
+    }
+
+    @Test
+    public void lanesRunByPriorityAndInArrivalOrderWithinALane() throws InterruptedException {
+        blockWorker();
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(6);
+        submit(TaskPriority.BACKGROUND, "sync-1", order, done);
+        submit(TaskPriority.PREFETCH, "page-1", order, done);
+        submit(TaskPriority.USER_VISIBLE, "screen-1", order, done);
+        submit(TaskPriority.BACKGROUND, "sync-2", order, done);
+        submit(TaskPriority.USER_VISIBLE, "screen-2", order, done);
+        submit(TaskPriority.PREFETCH, "page-2", order, done);
+        assertEquals(2, scheduler.getStats(TaskPriority.BACKGROUND).getQueueDepth());
+
+        gate.countDown();
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("screen-1", "screen-2", "page-1", "page-2", "sync-1", "sync-2"), order);
+    }
+
+    @Test
+    public void cancelledTasksAreDiscardedBeforeRunning() throws InterruptedException {
+        blockWorker();
+        TaskScope scope = new TaskScope();
+        AtomicInteger runs = new AtomicInteger();
+        scheduler.submit(TaskPriority.PREFETCH, scope, runs::incrementAndGet);
+        scheduler.submit(TaskPriority.PREFETCH, scope, runs::incrementAndGet);
+        CountDownLatch done = new CountDownLatch(1);
+        scheduler.submit(TaskPriority.PREFETCH, null, done::countDown);
+
+        scope.cancel();
+        gate.countDown();
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        assertEquals(0, runs.get());
+        RepositoryScheduler.LaneStats stats = scheduler.getStats(TaskPriority.PREFETCH);
+        assertEquals(3, stats.getSubmitted());
+        assertEquals(2, stats.getCancelled());
+        assertEquals(1, stats.getCompleted());
+        assertEquals(0, stats.getQueueDepth());
+    }
+
+    @Test
+    public void workerTakesThePriorityOfEachLane() throws InterruptedException {
+        int[] applied = new int[TaskPriority.values().length];
+        CountDownLatch done = new CountDownLatch(applied.length);
+        for (TaskPriority priority : TaskPriority.values()) {
+            scheduler.submit(priority, null, () -> {
+                applied[priority.ordinal()] = RepositoryScheduler.appliedThreadPriority();
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        for (TaskPriority priority : TaskPriority.values()) {
+            assertEquals(priority.getThreadPriority(), applied[priority.ordinal()]);
+        }
+        // Menor es más favorable: lo visible por encima de la precarga y esta de la sincronización
+        assertTrue(TaskPriority.USER_VISIBLE.getThreadPriority() < TaskPriority.PREFETCH.getThreadPriority());
+        assertTrue(TaskPriority.PREFETCH.getThreadPriority() < TaskPriority.BACKGROUND.getThreadPriority());
+    }
+
+    @Test
+    public void failingTaskDoesNotStopTheLane() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        scheduler.submit(TaskPriority.USER_VISIBLE, null, () -> {
+            throw new IllegalStateException("fallo de prueba");
+        });
+        scheduler.submit(TaskPriority.USER_VISIBLE, null, done::countDown);
+
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(2, scheduler.getStats(TaskPriority.USER_VISIBLE).getSubmitted());
+    }
+
+    @Test
+    public void serialExecutorRunsOneTaskAtATimeInOrder() throws InterruptedException {
+        RepositoryScheduler pool = new RepositoryScheduler(4);
+        Executor serial = pool.serial(TaskPriority.USER_VISIBLE);
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(100);
+        for (int i = 0; i < 100; i++) {
+            int index = i;
+            serial.execute(() -> {
+                if (running.incrementAndGet() > 1) {
+                    overlaps.incrementAndGet();
+                }
+                order.add(index);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(0, overlaps.get());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.valueOf(i), order.get(i));
+        }
+    }
+
+    @Test
+    public void laneExecutorSubmitsToItsLane() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        scheduler.lane(TaskPriority.BACKGROUND).execute(done::countDown);
+
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, scheduler.getStats(TaskPriority.BACKGROUND).getSubmitted());
+        assertFalse(scheduler.getStats(TaskPriority.USER_VISIBLE).getSubmitted() > 0);
+    }
+
+    /**
+     * Ocupa el único hilo hasta abrir {@link #gate}, para que lo siguiente quede en cola.
+     */
+    private void blockWorker() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        scheduler.submit(TaskPriority.BACKGROUND, null, () -> {
+            blocked.countDown();
+            try {
+                gate.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(blocked.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    private void submit(TaskPriority priority, String name, List<String> order, CountDownLatch done) {
+        scheduler.submit(priority, null, () -> {
+            order.add(name);
+            done.countDown();
+        });
+    }
+}
@@ -0,0 +1,53 @@
+package com.pinwood.app.data.concurrent;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pruebas de los listeners de cancelación de TaskScope.
+ */
+public class TaskScopeTest {
+
+    @Test
+    public void cancelRunsEachListenerOnce() {
+        TaskScope scope = new TaskScope();
+        AtomicInteger calls = new AtomicInteger();
+        scope.onCancel(calls::incrementAndGet);
+        scope.onCancel(calls::incrementAndGet);
+
+        scope.cancel();
+        scope.cancel();
+
+        assertTrue(scope.isCancelled());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void listenerAddedAfterCancelRunsImmediately() {
+        TaskScope scope = new TaskScope();
+        scope.cancel();
+        AtomicInteger calls = new AtomicInteger();
+
+        scope.onCancel(calls::incrementAndGet);
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void removedListenerIsNotCalled() {
+        TaskScope scope = new TaskScope();
+        AtomicInteger calls = new AtomicInteger();
+        Runnable listener = calls::incrementAndGet;
+        scope.onCancel(listener);
+
+        scope.removeOnCancel(listener);
+        scope.removeOnCancel(null);
+        scope.cancel();
+
+        assertEquals(0, calls.get());
+    }
+}
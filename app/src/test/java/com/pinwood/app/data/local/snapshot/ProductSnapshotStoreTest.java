@@ -0,0 +1,157 @@
+package com.pinwood.app.data.local.snapshot;
+
+import com.pinwood.app.data.model.product.ArModel;
+import com.pinwood.app.data.model.product.Dimensions;
+import com.pinwood.app.data.model.product.Product;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pruebas del formato en disco de las instantáneas: ida y vuelta, versión y archivos dañados.
+ */
+public class ProductSnapshotStoreTest {
+    private static final String KEY = "featured_products";
+
+    private File directory;
+    private ProductSnapshotStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("snapshots").toFile();
+        store = new ProductSnapshotStore(directory);
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void roundTripKeepsEveryField() {
+        Product full = new Product("p1", "Sillón ñandú", "Piel, 3 plazas", 12999.5, "sala",
+                new Dimensions(200, 90, 85.5, "cm"),
+                Arrays.asList("https://img/1.jpg", "https://img/2.jpg"),
+                Collections.singletonList(new ArModel("https://ar/1.glb", "glb")),
+                7, Arrays.asList("piel", "moderno"));
+        Product sparse = new Product("p2", null, null, 0, null, null,
+                new ArrayList<>(), new ArrayList<>(), 0, new ArrayList<>());
+
+        assertTrue(store.write(KEY, Arrays.asList(full, sparse), 1234L));
+        ProductSnapshotStore.Snapshot snapshot = store.read(KEY);
+
+        assertEquals(1234L, snapshot.savedAt);
+        assertEquals(2, snapshot.products.size());
+        Product read = snapshot.products.get(0);
+        assertEquals("p1", read.getProductId());
+        assertEquals("Sillón ñandú", read.getName());
+        assertEquals("Piel, 3 plazas", read.getDescription());
+        assertEquals(12999.5, read.getPrice(), 0);
+        assertEquals("sala", read.getCategory());
+        assertEquals(85.5, read.getDimensions().getDepth(), 0);
+        assertEquals("cm", read.getDimensions().getUnit());
+        assertEquals(full.getImageUrls(), read.getImageUrls());
+        assertEquals("glb", read.getArModels().get(0).getFormat());
+        assertEquals(7, read.getAvailableStock());
+        assertEquals(full.getTags(), read.getTags());
+
+        Product readSparse = snapshot.products.get(1);
+        assertNull(readSparse.getName());
+        assertNull(readSparse.getDimensions());
+        assertTrue(readSparse.getTags().isEmpty());
+    }
+
+    @Test
+    public void otherFormatVersionIsDiscarded() throws IOException {
+        assertTrue(store.write(KEY, catalog(3), 1L));
+        File file = snapshotFile();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // La versión va tras el magic
+            raf.seek(4);
+            raf.writeShort(99);
+        }
+
+        assertNull(store.read(KEY));
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void truncatedFileIsDiscarded() throws IOException {
+        assertTrue(store.write(KEY, catalog(20), 1L));
+        File file = snapshotFile();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() / 2);
+        }
+
+        assertNull(store.read(KEY));
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void hugeCountsAreRejectedWithoutAllocating() throws IOException {
+        assertTrue(store.write(KEY, catalog(1), 1L));
+        File file = snapshotFile();
+        // magic(4) versión(2) longitud de la clave(4) clave fecha(8): luego la cantidad
+        long countOffset = 4 + 2 + 4 + KEY.length() + 8;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(countOffset);
+            raf.writeInt(Integer.MAX_VALUE);
+        }
+        assertNull(store.read(KEY));
+        assertFalse(file.exists());
+
+        // Longitud de texto (el ID del primer producto) mayor que el archivo
+        assertTrue(store.write(KEY, catalog(1), 1L));
+        try (RandomAccessFile raf = new RandomAccessFile(snapshotFile(), "rw")) {
+            raf.seek(countOffset + 4);
+            raf.writeInt(Integer.MAX_VALUE);
+        }
+        assertNull(store.read(KEY));
+        assertFalse(snapshotFile(false).exists());
+    }
+
+    private File snapshotFile() {
+        return snapshotFile(true);
+    }
+
+    private File snapshotFile(boolean mustExist) {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".bin"));
+        if (files == null || files.length == 0) {
+            assertFalse(mustExist);
+            return new File(directory, "missing.bin");
+        }
+        assertEquals(1, files.length);
+        return files[0];
+    }
+
+    private static List<Product> catalog(int size) {
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            products.add(new Product("p" + i, "Mesa " + i, "Mesa de roble", 1000 + i, "comedor", null,
+                    Collections.singletonList("https://img/" + i + ".jpg"), new ArrayList<>(), i,
+                    Arrays.asList("roble", "mesa")));
+        }
+        return products;
+    }
+}
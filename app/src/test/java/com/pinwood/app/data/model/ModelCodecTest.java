@@ -0,0 +1,116 @@
+package com.pinwood.app.data.model;
+
+import com.pinwood.app.data.model.cart.CartItem;
+import com.pinwood.app.data.model.product.Product;
+import com.pinwood.app.data.model.user.User;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.pinwood.app.data.model.ModelCodecFixtures.cartCorpus;
+import static com.pinwood.app.data.model.ModelCodecFixtures.legacyCartItem;
+import static com.pinwood.app.data.model.ModelCodecFixtures.legacyProduct;
+import static com.pinwood.app.data.model.ModelCodecFixtures.legacyUser;
+import static com.pinwood.app.data.model.ModelCodecFixtures.productCorpus;
+import static com.pinwood.app.data.model.ModelCodecFixtures.userCorpus;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Pruebas de los codecs generados frente a los fromMap escritos a mano que reemplazan. El
+ * rendimiento se mide en el dispositivo (ModelCodecBenchmark, en androidTest).
+ */
+public class ModelCodecTest {
+
+    @Test
+    public void decodesLikeHandWrittenVersion() {
+        for (Map<String, Object> document : productCorpus(200)) {
+            Product expected = legacyProduct(document);
+            Product actual = Product.fromMap(document);
+            assertEquals(expected.contentHash(), actual.contentHash());
+            assertEquals(expected.getImageUrls(), actual.getImageUrls());
+            assertEquals(expected.getArModels().size(), actual.getArModels().size());
+        }
+        for (Map<String, Object> document : cartCorpus(200)) {
+            CartItem expected = legacyCartItem(document);
+            CartItem actual = CartItem.fromMap(document);
+            assertEquals(expected.getSubtotal(), actual.getSubtotal(), 0.0);
+            assertEquals(expected.getProductId(), actual.getProductId());
+        }
+        for (Map<String, Object> document : userCorpus(200)) {
+            User expected = legacyUser(document);
+            User actual = User.fromMap(document);
+            assertEquals(expected.getEmail(), actual.getEmail());
+            assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+            assertEquals(expected.getAddress().toString(), actual.getAddress().toString());
+        }
+    }
+
+    @Test
+    public void coercesNumbersAndFreezesLists() {
+        List<String> urls = new ArrayList<>(Arrays.asList("a.jpg", "b.jpg"));
+        Map<String, Object> document = new HashMap<>();
+        document.put("productId", "p1");
+        document.put("price", 1500L);
+        // Los enteros pueden llegar como Double si el documento se escribió desde la consola
+        document.put("availableStock", 3.0);
+        document.put("imageUrls", urls);
+        document.put("name", 42L);
+        document.put("campoDesconocido", "x");
+
+        Product product = Product.fromMap(document);
+        assertEquals(1500.0, product.getPrice(), 0.0);
+        assertEquals(3, product.getAvailableStock());
+        assertNull(product.getName());
+        assertEquals(urls, product.getImageUrls());
+        assertNotSame(urls, product.getImageUrls());
+        try {
+            product.getImageUrls().add("c.jpg");
+            fail("La lista decodificada debe ser inmutable");
+        } catch (UnsupportedOperationException expected) {
+            // esperado
+        }
+
+        // Sin la clave, o con valor nulo, se conserva el valor por defecto del constructor
+        assertTrue(Product.fromMap(new HashMap<>()).getTags().isEmpty());
+        Map<String, Object> nullTags = new HashMap<>();
+        nullTags.put("tags", null);
+        assertTrue(Product.fromMap(nullTags).getTags().isEmpty());
+        assertNull(Product.fromMap(null));
+    }
+
+    @Test
+    public void dropsListElementsOfOtherTypes() {
+        Map<String, Object> document = new HashMap<>();
+        document.put("tags", new ArrayList<>(Arrays.asList("roble", 7L, "sala", null)));
+
+        List<String> tags = Product.fromMap(document).getTags();
+        assertEquals(Arrays.asList("roble", "sala"), tags);
+        try {
+            tags.add("mesa");
+            fail("La lista decodificada debe ser inmutable");
+        } catch (UnsupportedOperationException expected) {
+            // esperado
+        }
+    }
+
+    @Test
+    public void encodesRoundTrip() {
+        for (Map<String, Object> document : productCorpus(50)) {
+            Product product = Product.fromMap(document);
+            Product copy = Product.fromMap(product.toMap());
+            assertEquals(product.contentHash(), copy.contentHash());
+        }
+        User user = User.fromMap(userCorpus(1).get(0));
+        user.setAddress(null);
+        assertTrue(!user.toMap().containsKey("address"));
+    }
+}
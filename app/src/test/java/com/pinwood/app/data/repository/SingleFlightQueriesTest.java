@@ -0,0 +1,182 @@
+package com.pinwood.app.data.repository;
+
+import com.pinwood.app.data.concurrent.TaskScope;
+import com.pinwood.app.data.remote.FirestoreQuery;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pruebas de la capa single-flight: consultas compartidas, errores, cancelación y liberación
+ * de la clave.
+ */
+public class SingleFlightQueriesTest {
+    private static final String KEY = "products?featured==true";
+
+    private SingleFlightQueries singleFlight;
+    // Consultas lanzadas, en orden, con el ámbito y el callback que recibió cada una
+    private List<TaskScope> startedScopes;
+    private List<FirestoreRepository.QueryCallback<String>> started;
+
+    @Before
+    public void setUp() {
+        singleFlight = new SingleFlightQueries();
+        startedScopes = new ArrayList<>();
+        started = new ArrayList<>();
+    }
+
+    @Test
+    public void concurrentCallersShareOneQuery() {
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+        execute(KEY, null, first);
+        execute(KEY, null, second);
+        assertEquals(1, started.size());
+
+        List<String> items = Arrays.asList("p1", "p2");
+        started.get(0).onResult(items);
+
+        assertSame(items, first.items);
+        assertSame(items, second.items);
+        SingleFlightQueries.Stats stats = singleFlight.getStats();
+        assertEquals(1, stats.getExecuted());
+        assertEquals(1, stats.getCoalesced());
+        assertEquals(0, stats.getInFlight());
+    }
+
+    @Test
+    public void errorFansOutToEveryCaller() {
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+        execute(KEY, null, first);
+        execute(KEY, null, second);
+
+        Exception error = new IllegalStateException("sin red");
+        started.get(0).onError(error);
+
+        assertSame(error, first.error);
+        assertSame(error, second.error);
+        assertNull(first.items);
+        assertEquals(0, singleFlight.getStats().getInFlight());
+    }
+
+    @Test
+    public void keyIsReleasedWhenTheQueryFinishes() {
+        execute(KEY, null, new Recorder());
+        started.get(0).onResult(new ArrayList<>());
+
+        // Una llamada posterior ya no se une a la terminada: lanza su propia consulta
+        Recorder later = new Recorder();
+        execute(KEY, null, later);
+        assertEquals(2, started.size());
+        started.get(1).onError(new IllegalStateException());
+
+        // Y tras un error también
+        execute(KEY, null, new Recorder());
+        assertEquals(3, started.size());
+        assertEquals(3, singleFlight.getStats().getExecuted());
+    }
+
+    @Test
+    public void differentKeysDoNotShare() {
+        execute(KEY, null, new Recorder());
+        execute("products?popular==true", null, new Recorder());
+
+        assertEquals(2, started.size());
+        assertEquals(2, singleFlight.getStats().getInFlight());
+    }
+
+    @Test
+    public void queryKeyIncludesConverterAndIdField() {
+        FirestoreRepository.DocumentConverter<String> names = data -> (String) data.get("name");
+        FirestoreRepository.DocumentConverter<Integer> sizes = data -> data.size();
+        FirestoreQuery query = FirestoreQuery.collection("products").whereEqualTo("featured", true);
+        FirestoreQuery same = FirestoreQuery.collection("products").whereEqualTo("featured", true);
+
+        FirestoreRepository.QueryKey key = new FirestoreRepository.QueryKey(query, "productId", names);
+        assertEquals(key, new FirestoreRepository.QueryKey(same, "productId", names));
+        assertEquals(key.hashCode(), new FirestoreRepository.QueryKey(same, "productId", names).hashCode());
+        assertNotEquals(key, new FirestoreRepository.QueryKey(same, "productId", sizes));
+        assertNotEquals(key, new FirestoreRepository.QueryKey(same, "id", names));
+    }
+
+    @Test
+    public void cancellingOneCallerKeepsTheSharedQuery() {
+        TaskScope firstScope = new TaskScope();
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+        execute(KEY, firstScope, first);
+        execute(KEY, null, second);
+
+        firstScope.cancel();
+        assertFalse(startedScopes.get(0).isCancelled());
+
+        started.get(0).onResult(Arrays.asList("p1"));
+        assertNull(first.items);
+        assertEquals(Arrays.asList("p1"), second.items);
+    }
+
+    @Test
+    public void cancellingEveryCallerAbandonsAndReleasesTheQuery() {
+        TaskScope firstScope = new TaskScope();
+        TaskScope secondScope = new TaskScope();
+        execute(KEY, firstScope, new Recorder());
+        execute(KEY, secondScope, new Recorder());
+
+        firstScope.cancel();
+        secondScope.cancel();
+
+        assertTrue(startedScopes.get(0).isCancelled());
+        SingleFlightQueries.Stats stats = singleFlight.getStats();
+        assertEquals(1, stats.getAbandoned());
+        assertEquals(0, stats.getInFlight());
+
+        // La clave queda libre para una consulta nueva
+        execute(KEY, null, new Recorder());
+        assertEquals(2, started.size());
+        assertFalse(startedScopes.get(1).isCancelled());
+    }
+
+    @Test
+    public void alreadyCancelledCallerNeverStartsAQuery() {
+        TaskScope scope = new TaskScope();
+        scope.cancel();
+        execute(KEY, scope, new Recorder());
+
+        assertTrue(started.isEmpty());
+        assertEquals(0, singleFlight.getStats().getInFlight());
+    }
+
+    private void execute(Object key, TaskScope scope, Recorder recorder) {
+        singleFlight.execute(key, scope, recorder, (flightScope, callback) -> {
+            startedScopes.add(flightScope);
+            started.add(callback);
+        });
+    }
+
+    private static final class Recorder implements FirestoreRepository.QueryCallback<String> {
+        List<String> items;
+        Exception error;
+
+        @Override
+        public void onResult(List<String> items) {
+            this.items = items;
+        }
+
+        @Override
+        public void onError(Exception e) {
+            this.error = e;
+        }
+    }
+}
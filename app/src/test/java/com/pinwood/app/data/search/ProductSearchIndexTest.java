@@ -0,0 +1,93 @@
+package com.pinwood.app.data.search;
+
+import com.pinwood.app.data.model.product.Product;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pruebas de los índices de búsqueda: normalización, prefijos, reindexado y tolerancia a errores.
+ */
+public class ProductSearchIndexTest {
+    @Test
+    public void foldsAccentsAndMatchesPrefixes() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.indexAll(Arrays.asList(
+                product("1", "Sillón reclinable", "Sillón de piel", "sala"),
+                product("2", "Mesa de centro", "Mesa baja de nogal", "sala", "nogal"),
+                product("3", "Silla de comedor", "Silla tapizada", "comedor")));
+
+        List<Product> results = index.search("sillon", 10);
+        assertEquals(1, results.size());
+        assertEquals("1", results.get(0).getProductId());
+
+        results = index.search("mesa de cen", 10);
+        assertEquals("2", results.get(0).getProductId());
+
+        // El nombre pesa más que la descripción
+        results = index.search("sill", 10);
+        assertEquals(2, results.size());
+
+        assertTrue(index.search("escritorio", 10).isEmpty());
+    }
+
+    @Test
+    public void reindexReplacesPreviousVersion() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(product("1", "Sillón", "", "sala"));
+        index.index(product("1", "Escritorio", "", "oficina"));
+
+        assertTrue(index.search("sillon", 10).isEmpty());
+        assertFalse(index.search("escritorio", 10).isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void fuzzyMatchesTranspositions() {
+        FuzzyProductSearchIndex index = new FuzzyProductSearchIndex();
+        index.indexAll(Arrays.asList(
+                product("1", "Cómoda", "", "recamara"),
+                product("2", "Repisa", "", "sala"),
+                product("3", "Ropero", "", "recamara"),
+                product("4", "Banco", "", "comedor"),
+                product("5", "Sillón", "", "sala")));
+
+        // Una transposición adyacente es una sola edición
+        assertEquals("1", index.search("cmooda", 10).get(0).getProductId());
+        assertEquals("1", index.search("comdoa", 10).get(0).getProductId());
+        assertEquals("2", index.search("reipsa", 10).get(0).getProductId());
+        assertEquals("3", index.search("ropreo", 10).get(0).getProductId());
+        assertEquals("4", index.search("bnaco", 10).get(0).getProductId());
+        assertEquals("5", index.search("slilon", 10).get(0).getProductId());
+    }
+
+    @Test
+    public void fuzzyMatchesTyposWithinEditBudget() {
+        FuzzyProductSearchIndex index = new FuzzyProductSearchIndex();
+        index.indexAll(Arrays.asList(
+                product("1", "Escritorio", "", "oficina"),
+                product("2", "Librería", "", "sala"),
+                product("3", "Mesa", "", "comedor")));
+
+        assertEquals("1", index.search("escritorrio", 10).get(0).getProductId());
+        assertEquals("1", index.search("escirtorio", 10).get(0).getProductId());
+        assertEquals("2", index.search("libreria", 10).get(0).getProductId());
+        // Hasta 3 letras no se admiten errores; más allá del límite no hay resultado
+        assertTrue(index.search("mes", 10).isEmpty());
+        assertTrue(index.search("mxsx", 10).isEmpty());
+    }
+
+    private static Product product(String id, String name, String description, String category, String... tags) {
+        List<String> tagList = new ArrayList<>(Arrays.asList(tags));
+        return new Product(id, name, description, 1000, category, null,
+                Collections.emptyList(), Collections.emptyList(), 1, tagList);
+    }
+}
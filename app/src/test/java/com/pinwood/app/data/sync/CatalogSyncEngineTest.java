@@ -0,0 +1,145 @@
+package com.pinwood.app.data.sync;
+
+import com.google.firebase.Timestamp;
+import com.pinwood.app.data.model.product.Product;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pruebas de la fusión de cambios: avance de la marca de agua, lápidas y conciliación de las
+ * sincronizaciones completas.
+ */
+public class CatalogSyncEngineTest {
+    private static final long SECOND = 1_000_000L;
+
+    @Test
+    public void queryValueRoundTripsWithStoredTimestamp() {
+        long micros = 1_704_067_200L * SECOND + 123_456L;
+        Timestamp timestamp = CatalogSyncEngine.toTimestamp(micros);
+
+        assertEquals(1_704_067_200L, timestamp.getSeconds());
+        assertEquals(123_456_000, timestamp.getNanoseconds());
+        assertEquals(micros, CatalogSyncEngine.toMicros(timestamp));
+        assertEquals(5_000L, CatalogSyncEngine.toMicros(new Date(5)));
+    }
+
+    @Test
+    public void numericUpdatedAtIsNotAWatermark() {
+        assertEquals(0L, CatalogSyncEngine.toMicros(1_704_067_200_000L));
+        assertEquals(0L, CatalogSyncEngine.toMicros(null));
+
+        CatalogSyncEngine.SyncRun run = incremental(10 * SECOND, catalog("a"));
+        Map<String, Object> doc = document("b", null);
+        doc.put(CatalogSyncEngine.FIELD_UPDATED_AT, 99_999_999_999L);
+        run.apply(Collections.singletonList(CatalogSyncEngine.toChange(doc)));
+
+        assertEquals(10 * SECOND, run.maxMicros);
+        assertEquals(1, run.withoutTimestamp);
+        assertTrue(run.working.containsKey("b"));
+    }
+
+    @Test
+    public void watermarkAdvancesToNewestChange() {
+        CatalogSyncEngine.SyncRun run = incremental(10 * SECOND, catalog("a", "b"));
+        run.apply(Arrays.asList(
+                CatalogSyncEngine.toChange(document("a", 30 * SECOND)),
+                CatalogSyncEngine.toChange(document("c", 20 * SECOND))));
+        run.apply(Collections.singletonList(CatalogSyncEngine.toChange(document("b", 25 * SECOND))));
+
+        assertEquals(30 * SECOND, run.maxMicros);
+        assertEquals(3, run.documentsRead);
+        assertEquals(3, run.upserted.size());
+        assertEquals(Arrays.asList("a", "b", "c"), Arrays.asList(run.working.keySet().toArray()));
+        assertTrue(run.deletedIds.isEmpty());
+    }
+
+    @Test
+    public void emptyBatchKeepsWatermark() {
+        CatalogSyncEngine.SyncRun run = incremental(10 * SECOND, catalog("a"));
+        run.apply(Collections.emptyList());
+
+        assertEquals(10 * SECOND, run.maxMicros);
+        assertEquals(0, run.documentsRead);
+    }
+
+    @Test
+    public void tombstonesRemoveProductsAndAdvanceWatermark() {
+        CatalogSyncEngine.SyncRun run = incremental(10 * SECOND, catalog("a", "b"));
+        run.apply(Arrays.asList(
+                CatalogSyncEngine.toChange(tombstone("a", 40 * SECOND)),
+                // Borrado de algo que nunca llegó al dispositivo: se informa igualmente
+                CatalogSyncEngine.toChange(tombstone("z", 15 * SECOND))));
+
+        assertEquals(40 * SECOND, run.maxMicros);
+        assertFalse(run.working.containsKey("a"));
+        assertTrue(run.working.containsKey("b"));
+        assertEquals(Arrays.asList("a", "z"), run.deletedIds);
+        assertTrue(run.upserted.isEmpty());
+    }
+
+    @Test
+    public void fullSyncReconcilesMissingProducts() {
+        Map<String, Product> previous = catalog("a", "b", "c");
+        CatalogSyncEngine.SyncRun run = new CatalogSyncEngine.SyncRun(true, 0L, new LinkedHashMap<>());
+        run.apply(Arrays.asList(
+                CatalogSyncEngine.toChange(document("a", 5 * SECOND)),
+                CatalogSyncEngine.toChange(tombstone("b", 6 * SECOND)),
+                // Lápida de algo que no estaba: en una completa no hay nada que informar
+                CatalogSyncEngine.toChange(tombstone("y", 7 * SECOND))));
+        run.reconcile(previous);
+
+        assertEquals(7 * SECOND, run.maxMicros);
+        assertEquals(Collections.singleton("a"), run.working.keySet());
+        // "b" llegó como lápida y "c" desapareció sin ella; "y" no estaba en el catálogo
+        assertEquals(Arrays.asList("b", "c"), run.deletedIds);
+    }
+
+    @Test
+    public void incrementalRunDoesNotReconcile() {
+        Map<String, Product> previous = catalog("a", "b");
+        CatalogSyncEngine.SyncRun run = incremental(SECOND, new LinkedHashMap<>(previous));
+        run.reconcile(previous);
+
+        assertTrue(run.deletedIds.isEmpty());
+    }
+
+    private static CatalogSyncEngine.SyncRun incremental(long sinceMicros, Map<String, Product> working) {
+        return new CatalogSyncEngine.SyncRun(false, sinceMicros, working);
+    }
+
+    private static Map<String, Product> catalog(String... ids) {
+        Map<String, Product> catalog = new LinkedHashMap<>();
+        for (String id : ids) {
+            catalog.put(id, Product.fromMap(document(id, null)));
+        }
+        return catalog;
+    }
+
+    private static Map<String, Object> document(String id, Long updatedAtMicros) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("productId", id);
+        data.put("name", "Mesa " + id);
+        data.put("price", 1000.0);
+        if (updatedAtMicros != null) {
+            data.put(CatalogSyncEngine.FIELD_UPDATED_AT, CatalogSyncEngine.toTimestamp(updatedAtMicros));
+        }
+        return data;
+    }
+
+    private static Map<String, Object> tombstone(String id, long updatedAtMicros) {
+        Map<String, Object> data = document(id, updatedAtMicros);
+        data.put(CatalogSyncEngine.FIELD_DELETED, true);
+        return data;
+    }
+}
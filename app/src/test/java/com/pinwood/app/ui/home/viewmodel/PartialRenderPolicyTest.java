@@ -0,0 +1,71 @@
+package com.pinwood.app.ui.home.viewmodel;
+
+import com.pinwood.app.ui.home.viewmodel.HomeState.Section;
+
+import org.junit.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pruebas de PartialRenderPolicy: cuándo se pinta con secciones listas y pendientes, antes y
+ * después del plazo.
+ */
+public class PartialRenderPolicyTest {
+
+    @Test
+    public void everySectionReadyRendersBeforeTheDeadline() {
+        assertTrue(PartialRenderPolicy.DEFAULT.canRender(EnumSet.allOf(Section.class), false));
+        assertTrue(PartialRenderPolicy.waitForAll().canRender(EnumSet.allOf(Section.class), false));
+    }
+
+    @Test
+    public void requiredSectionWaitsForTheDeadline() {
+        EnumSet<Section> ready = EnumSet.of(Section.FEATURED);
+
+        assertFalse(PartialRenderPolicy.DEFAULT.canRender(ready, false));
+        assertTrue(PartialRenderPolicy.DEFAULT.canRender(ready, true));
+    }
+
+    @Test
+    public void neverRendersWithoutTheRequiredSection() {
+        // Categorías y banner listos pero los destacados pendientes: ni siquiera tras el plazo
+        EnumSet<Section> ready = EnumSet.of(Section.CATEGORIES, Section.BANNER);
+
+        assertFalse(PartialRenderPolicy.DEFAULT.canRender(ready, false));
+        assertFalse(PartialRenderPolicy.DEFAULT.canRender(ready, true));
+    }
+
+    @Test
+    public void failedRequiredSectionCountsAsReady() {
+        // Un error entrega la sección vacía y la marca como lista: la pantalla no se queda sin pintar
+        EnumSet<Section> ready = EnumSet.noneOf(Section.class);
+        ready.add(Section.FEATURED);
+
+        assertTrue(PartialRenderPolicy.DEFAULT.canRender(ready, true));
+        ready.add(Section.CATEGORIES);
+        ready.add(Section.BANNER);
+        assertTrue(PartialRenderPolicy.DEFAULT.canRender(ready, false));
+    }
+
+    @Test
+    public void waitForAllIgnoresTheDeadline() {
+        PartialRenderPolicy policy = PartialRenderPolicy.waitForAll();
+        EnumSet<Section> ready = EnumSet.of(Section.FEATURED, Section.CATEGORIES);
+
+        assertEquals(Long.MAX_VALUE, policy.getDeadlineMillis());
+        assertFalse(policy.canRender(ready, true));
+    }
+
+    @Test
+    public void customRequiredSections() {
+        PartialRenderPolicy policy = PartialRenderPolicy.requiring(200, Section.FEATURED, Section.BANNER);
+
+        assertEquals(200, policy.getDeadlineMillis());
+        assertFalse(policy.canRender(EnumSet.of(Section.FEATURED), true));
+        assertTrue(policy.canRender(EnumSet.of(Section.FEATURED, Section.BANNER), true));
+    }
+}
@@ -0,0 +1,117 @@
+package com.pinwood.app.ui.home.viewmodel;
+
+import com.pinwood.app.ui.home.viewmodel.HomeState.Section;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pruebas de RefreshCoordinator: secciones pendientes, ventanas de frescura, vueltas rápidas y
+ * secciones que fallan o no responden.
+ */
+public class RefreshCoordinatorTest {
+    private static final long WINDOW = 60_000;
+    private static final long GRACE = 5_000;
+
+    private long now;
+    private RefreshCoordinator coordinator;
+
+    @Before
+    public void setUp() {
+        now = 1_000_000;
+        coordinator = new RefreshCoordinator(WINDOW, GRACE, () -> now);
+    }
+
+    @Test
+    public void pendingSectionsAreNotRequestedAgain() {
+        coordinator.setFreshnessWindow(Section.CATEGORIES, GRACE);
+        coordinator.onLoadStarted(EnumSet.allOf(Section.class));
+        coordinator.onSectionLoaded(Section.CATEGORIES, true);
+
+        // FEATURED y BANNER siguen en curso: solo vuelve a pedirse lo ya recibido y caducado
+        assertTrue(coordinator.onVisible().isEmpty());
+        now += GRACE;
+        assertEquals(EnumSet.of(Section.CATEGORIES), coordinator.onVisible());
+    }
+
+    @Test
+    public void freshSectionsAreReusedUntilTheirWindowExpires() {
+        coordinator.setFreshnessWindow(Section.FEATURED, WINDOW * 10);
+        loadAll(true);
+
+        now += WINDOW - 1;
+        assertTrue(coordinator.onVisible().isEmpty());
+        now += 1;
+        assertEquals(EnumSet.of(Section.CATEGORIES, Section.BANNER), coordinator.onVisible());
+
+        RefreshCoordinator.Stats stats = coordinator.getStats();
+        assertEquals(2, stats.getRefreshed());
+        assertEquals(4, stats.getAvoided());
+    }
+
+    @Test
+    public void quickReturnSkipsExpiredSections() {
+        loadAll(true);
+        now += WINDOW;
+        coordinator.onHidden();
+        now += GRACE - 1;
+
+        assertTrue(coordinator.onVisible().isEmpty());
+
+        // Una ausencia más larga sí recarga
+        coordinator.onHidden();
+        now += GRACE;
+        assertEquals(EnumSet.allOf(Section.class), coordinator.onVisible());
+    }
+
+    @Test
+    public void failedSectionIsRetriedEvenOnAQuickReturn() {
+        coordinator.onLoadStarted(EnumSet.allOf(Section.class));
+        // El listener de destacados falló y entregó la lista vacía
+        coordinator.onSectionLoaded(Section.FEATURED, false);
+        coordinator.onSectionLoaded(Section.CATEGORIES, true);
+        coordinator.onSectionLoaded(Section.BANNER, true);
+        coordinator.onHidden();
+        now += 1;
+
+        assertEquals(EnumSet.of(Section.FEATURED), coordinator.onVisible());
+    }
+
+    @Test
+    public void sectionThatNeverAnswersIsRequestedAgainAfterTheTimeout() {
+        coordinator.onLoadStarted(EnumSet.allOf(Section.class));
+        coordinator.onSectionLoaded(Section.CATEGORIES, true);
+        coordinator.onSectionLoaded(Section.BANNER, true);
+
+        now += RefreshCoordinator.PENDING_TIMEOUT_MS - 1;
+        assertTrue(coordinator.onVisible().isEmpty());
+        now += 1;
+        assertEquals(EnumSet.of(Section.FEATURED), coordinator.onVisible());
+
+        // Al volver a pedirla queda otra vez pendiente
+        coordinator.onLoadStarted(EnumSet.of(Section.FEATURED));
+        assertTrue(coordinator.onVisible().isEmpty());
+    }
+
+    @Test
+    public void forceRefreshReturnsEverySection() {
+        loadAll(true);
+
+        assertEquals(EnumSet.allOf(Section.class), coordinator.forceRefresh());
+        RefreshCoordinator.Stats stats = coordinator.getStats();
+        assertEquals(1, stats.getForced());
+        assertEquals(Section.values().length, stats.getRefreshed());
+    }
+
+    private void loadAll(boolean hasData) {
+        coordinator.onLoadStarted(EnumSet.allOf(Section.class));
+        for (Section section : Section.values()) {
+            coordinator.onSectionLoaded(section, hasData);
+        }
+    }
+}
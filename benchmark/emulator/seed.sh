@@ -0,0 +1,73 @@
+#!/usr/bin/env bash
+# Siembra los emuladores de Firestore y Auth con un conjunto de datos fijo para los benchmarks.
+#
+#   firebase emulators:start --project pinwoodapp-3fd95   (desde benchmark/emulator)
+#   ./seed.sh
+#
+# Borra todo lo que hubiera y crea 300 productos (10 destacados), 8 categorías, una promoción
+# activa y el usuario benchmark@pinwood.test. Siempre genera los mismos documentos, así que las
+# mediciones son comparables entre ejecuciones y no dependen de la red.
+set -euo pipefail
+
+PROJECT="${PROJECT:-pinwoodapp-3fd95}"
+HOST="${HOST:-localhost}"
+FIRESTORE="http://$HOST:8080"
+AUTH="http://$HOST:9099"
+DOCUMENTS="projects/$PROJECT/databases/(default)/documents"
+
+PRODUCTS=300
+FEATURED=10
+CATEGORIES=(Sillas Mesas Sofás Camas Estanterías Escritorios Armarios Exterior)
+
+EMAIL="benchmark@pinwood.test"
+PASSWORD="benchmark123"
+
+# "Bearer owner" salta las reglas de seguridad en el emulador
+post() {
+    curl -sf -X POST -H "Content-Type: application/json" -H "Authorization: Bearer owner" -d @- "$1" > /dev/null
+}
+
+string() { printf '{"stringValue":"%s"}' "$1"; }
+
+echo "Vaciando emuladores..."
+curl -sf -X DELETE "$FIRESTORE/emulator/v1/$DOCUMENTS" > /dev/null
+curl -sf -X DELETE "$AUTH/emulator/v1/projects/$PROJECT/accounts" > /dev/null
+
+echo "Creando $PRODUCTS productos y ${#CATEGORIES[@]} categorías..."
+{
+    printf '{"writes":['
+    separator=""
+    for i in $(seq 1 "$PRODUCTS"); do
+        id=$(printf 'p%04d' "$i")
+        category=${CATEGORIES[$(( i % ${#CATEGORIES[@]} ))]}
+        price=$(( 4990 + (i * 3797) % 90000 ))
+        printf '%s{"update":{"name":"%s/products/%s","fields":{' "$separator" "$DOCUMENTS" "$id"
+        printf '"productId":%s,' "$(string "$id")"
+        printf '"name":%s,' "$(string "$category modelo $i")"
+        printf '"description":%s,' "$(string "Producto sintético $i para benchmarks")"
+        printf '"price":{"doubleValue":%d.%02d},' $(( price / 100 )) $(( price % 100 ))
+        printf '"category":%s,' "$(string "$category")"
+        printf '"availableStock":{"integerValue":"%d"},' $(( i % 25 ))
+        printf '"imageUrls":{"arrayValue":{}},'
+        printf '"tags":{"arrayValue":{"values":[%s,%s]}},' "$(string "${category,,}")" "$(string "serie$(( i % 10 ))")"
+        printf '"featured":{"booleanValue":%s},' "$( (( i <= FEATURED )) && echo true || echo false)"
+        # updatedAt es la marca de la sincronización incremental: tiene que ser timestampValue
+        stamp=$(printf '"2024-01-01T00:%02d:%02dZ"' $(( i / 60 )) $(( i % 60 )))
+        printf '"timestamp":{"timestampValue":%s},' "$stamp"
+        printf '"updatedAt":{"timestampValue":%s}' "$stamp"
+        printf '}}}'
+        separator=","
+    done
+    for name in "${CATEGORIES[@]}"; do
+        printf ',{"update":{"name":"%s/categories/%s","fields":{"name":%s}}}' "$DOCUMENTS" "${name,,}" "$(string "$name")"
+    done
+    printf ',{"update":{"name":"%s/promotions/benchmark","fields":{"active":{"booleanValue":true},"imageUrl":%s}}}' \
+        "$DOCUMENTS" "$(string "")"
+    printf ']}'
+} | post "$FIRESTORE/v1/$DOCUMENTS:commit"
+
+echo "Creando usuario $EMAIL..."
+printf '{"email":"%s","password":"%s","returnSecureToken":true}' "$EMAIL" "$PASSWORD" \
+    | post "$AUTH/identitytoolkit.googleapis.com/v1/accounts:signUp?key=benchmark"
+
+echo "Listo."
@@ -0,0 +1,90 @@
+package com.pinwood.benchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Mide el efecto del Baseline Profile: arranque en frío y primer scroll sin compilación previa
+ * (como una instalación sin perfil) frente a la misma build con el perfil empaquetado aplicado.
+ */
+public class BaselineProfileBenchmark {
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public final MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Before
+    public void signIn() {
+        HomeJourney.ensureSignedIn();
+    }
+
+    @Test
+    public void startupWithoutProfile() {
+        startup(new CompilationMode.None());
+    }
+
+    @Test
+    public void startupWithProfile() {
+        startup(new CompilationMode.Partial(BaselineProfileMode.Require));
+    }
+
+    @Test
+    public void firstScrollWithoutProfile() {
+        firstScroll(new CompilationMode.None());
+    }
+
+    @Test
+    public void firstScrollWithProfile() {
+        firstScroll(new CompilationMode.Partial(BaselineProfileMode.Require));
+    }
+
+    private void startup(CompilationMode compilationMode) {
+        benchmarkRule.measureRepeated(
+                HomeJourney.PACKAGE,
+                Collections.singletonList(new StartupTimingMetric()),
+                compilationMode,
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    HomeJourney.waitForHome(scope.getDevice());
+                    return Unit.INSTANCE;
+                });
+    }
+
+    // Arranque en frío en cada iteración: el primer scroll tras abrir la app, con el catálogo
+    private void firstScroll(CompilationMode compilationMode) {
+        benchmarkRule.measureRepeated(
+                HomeJourney.PACKAGE,
+                Collections.singletonList(new FrameTimingMetric()),
+                compilationMode,
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    scope.startActivityAndWait();
+                    HomeJourney.waitForHome(scope.getDevice());
+                    HomeJourney.showCatalog(scope.getDevice());
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    HomeJourney.flingGrid(scope.getDevice());
+                    return Unit.INSTANCE;
+                });
+    }
+}
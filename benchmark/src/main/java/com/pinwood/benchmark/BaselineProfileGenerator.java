@@ -0,0 +1,40 @@
+package com.pinwood.benchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import kotlin.Unit;
+
+/**
+ * Genera el Baseline Profile de la app recorriendo los caminos críticos: splash → login (la
+ * primera vez) → inicio → scroll del catálogo → pulsar un producto.
+ *
+ * Se ejecuta contra el build baselineProfile de :app (release sin minificar, para que las
+ * reglas usen los nombres reales; R8 las reescribe al empaquetar el release). Requiere un
+ * dispositivo con API 33+ (o rooteado con API 28+) y el emulador de Firebase sembrado:
+ *
+ *   ./gradlew :benchmark:connectedBaselineProfileAndroidTest \
+ *       -Pandroid.testInstrumentationRunnerArguments.class=com.pinwood.benchmark.BaselineProfileGenerator
+ *   ./gradlew :benchmark:copyBaselineProfile
+ */
+public class BaselineProfileGenerator {
+
+    @Rule
+    public final BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        baselineProfileRule.collect(HomeJourney.PACKAGE, scope -> {
+            scope.pressHome();
+            scope.startActivityAndWait();
+            HomeJourney.signInIfNeeded(scope.getDevice());
+            HomeJourney.flingGrid(scope.getDevice());
+            HomeJourney.showCatalog(scope.getDevice());
+            HomeJourney.flingGrid(scope.getDevice());
+            HomeJourney.openFirstProduct(scope.getDevice());
+            return Unit.INSTANCE;
+        });
+    }
+}
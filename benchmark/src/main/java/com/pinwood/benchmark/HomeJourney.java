@@ -0,0 +1,112 @@
+package com.pinwood.benchmark;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Bundle;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+import java.util.regex.Pattern;
+
+/**
+ * Pasos de UI compartidos por los benchmarks: iniciar sesión con el usuario sembrado, esperar a
+ * la pantalla de inicio y desplazar la cuadrícula de productos.
+ */
+final class HomeJourney {
+    static final String PACKAGE = "com.pinwood.app";
+
+    private static final long TIMEOUT_MS = 10_000;
+    private static final Pattern SIGN_IN_OR_HOME =
+            Pattern.compile(PACKAGE + ":id/(et_email|featured_products_recycler_view)");
+    // Flings por iteración; con el catálogo sembrado (300 productos) no se llega al final
+    private static final int FLINGS = 4;
+
+    private HomeJourney() {
+    }
+
+    /**
+     * Abre la app y, si muestra el login, entra con las credenciales del emulador. La sesión
+     * queda guardada, así que las mediciones posteriores arrancan directamente en el inicio.
+     */
+    static void ensureSignedIn() {
+        UiDevice device = UiDevice.getInstance(InstrumentationRegistry.getInstrumentation());
+        Context context = InstrumentationRegistry.getInstrumentation().getContext();
+        Intent intent = context.getPackageManager().getLaunchIntentForPackage(PACKAGE);
+        if (intent == null) {
+            throw new IllegalStateException(PACKAGE + " no está instalada");
+        }
+        intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+        context.startActivity(intent);
+
+        signInIfNeeded(device);
+        device.pressHome();
+    }
+
+    /**
+     * Con la app recién abierta: espera a que el splash lleve al login o al inicio y, si es el
+     * login, entra con las credenciales del emulador. Termina con la pantalla de inicio visible.
+     */
+    static void signInIfNeeded(UiDevice device) {
+        device.wait(Until.hasObject(By.res(SIGN_IN_OR_HOME)), TIMEOUT_MS);
+        UiObject2 email = device.findObject(By.res(PACKAGE, "et_email"));
+        if (email != null) {
+            Bundle arguments = InstrumentationRegistry.getArguments();
+            email.setText(arguments.getString("pinwood.email"));
+            device.findObject(By.res(PACKAGE, "et_password")).setText(arguments.getString("pinwood.password"));
+            device.findObject(By.res(PACKAGE, "btn_login")).click();
+        }
+        waitForHome(device);
+    }
+
+    /**
+     * Espera a que la cuadrícula de destacados tenga productos.
+     */
+    static void waitForHome(UiDevice device) {
+        UiObject2 grid = device.wait(Until.findObject(By.res(PACKAGE, "featured_products_recycler_view")), TIMEOUT_MS);
+        if (grid == null || !grid.wait(Until.hasChildren(), TIMEOUT_MS)) {
+            throw new IllegalStateException("La pantalla de inicio no mostró productos; ¿está sembrado el emulador?");
+        }
+    }
+
+    /**
+     * Cambia de destacados al catálogo completo paginado.
+     */
+    static void showCatalog(UiDevice device) {
+        // El enlace va en la cabecera de la cuadrícula: volver arriba si se desplazó
+        UiObject2 grid = device.findObject(By.res(PACKAGE, "featured_products_recycler_view"));
+        for (int i = 0; i < 2 * FLINGS && !device.hasObject(By.res(PACKAGE, "view_all_products")); i++) {
+            grid.fling(Direction.UP);
+            device.waitForIdle();
+        }
+        device.findObject(By.res(PACKAGE, "view_all_products")).click();
+        device.wait(Until.hasObject(By.res(PACKAGE, "view_all_products").text("Ver destacados")), TIMEOUT_MS);
+        waitForHome(device);
+    }
+
+    /**
+     * Pulsa el primer producto visible de la cuadrícula.
+     */
+    static void openFirstProduct(UiDevice device) {
+        UiObject2 card = device.wait(Until.findObject(By.res(PACKAGE, "product_card")), TIMEOUT_MS);
+        card.click();
+        device.waitForIdle();
+    }
+
+    /**
+     * Desplaza la cuadrícula de la pantalla de inicio (el banner y las categorías van en su cabecera).
+     */
+    static void flingGrid(UiDevice device) {
+        UiObject2 scroll = device.findObject(By.res(PACKAGE, "featured_products_recycler_view"));
+        // Márgenes para no disparar los gestos de navegación del sistema
+        scroll.setGestureMargin(device.getDisplayWidth() / 5);
+        for (int i = 0; i < FLINGS; i++) {
+            scroll.fling(Direction.DOWN);
+            device.waitForIdle();
+        }
+    }
+}
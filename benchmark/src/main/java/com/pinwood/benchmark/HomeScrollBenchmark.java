@@ -0,0 +1,64 @@
+package com.pinwood.benchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Tiempos de fotograma (frameDurationCpuMs, frameOverrunMs) al hacer fling sobre la cuadrícula
+ * de la pantalla de inicio: con los destacados y con el catálogo paginado, donde además entran
+ * páginas nuevas y precargas de imágenes durante el scroll.
+ *
+ * Cada iteración arranca en frío para empezar desde arriba y sin cachés en memoria.
+ */
+public class HomeScrollBenchmark {
+    private static final int ITERATIONS = 5;
+
+    @Rule
+    public final MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Before
+    public void signIn() {
+        HomeJourney.ensureSignedIn();
+    }
+
+    @Test
+    public void flingFeaturedGrid() {
+        measureFling(false);
+    }
+
+    @Test
+    public void flingCatalogGrid() {
+        measureFling(true);
+    }
+
+    private void measureFling(boolean catalog) {
+        benchmarkRule.measureRepeated(
+                HomeJourney.PACKAGE,
+                Collections.singletonList(new FrameTimingMetric()),
+                CompilationMode.DEFAULT,
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    scope.startActivityAndWait();
+                    HomeJourney.waitForHome(scope.getDevice());
+                    if (catalog) {
+                        HomeJourney.showCatalog(scope.getDevice());
+                    }
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    HomeJourney.flingGrid(scope.getDevice());
+                    return Unit.INSTANCE;
+                });
+    }
+}
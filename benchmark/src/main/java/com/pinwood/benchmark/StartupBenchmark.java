@@ -0,0 +1,68 @@
+package com.pinwood.benchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import kotlin.Unit;
+
+/**
+ * Arranque en frío, templado y en caliente hasta la pantalla de inicio con datos.
+ *
+ * Reporta timeToInitialDisplayMs (primer fotograma) y timeToFullDisplayMs (HomeFragment llama a
+ * reportFullyDrawn cuando todas las secciones están pintadas). Requiere el emulador de Firebase
+ * sembrado (benchmark/emulator/seed.sh).
+ */
+@RunWith(Parameterized.class)
+public class StartupBenchmark {
+    private static final int ITERATIONS = 10;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<StartupMode> modes() {
+        return Arrays.asList(StartupMode.COLD, StartupMode.WARM, StartupMode.HOT);
+    }
+
+    @Rule
+    public final MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    private final StartupMode startupMode;
+
+    public StartupBenchmark(StartupMode startupMode) {
+        this.startupMode = startupMode;
+    }
+
+    @Before
+    public void signIn() {
+        HomeJourney.ensureSignedIn();
+    }
+
+    @Test
+    public void startupToHome() {
+        benchmarkRule.measureRepeated(
+                HomeJourney.PACKAGE,
+                Collections.singletonList(new StartupTimingMetric()),
+                CompilationMode.DEFAULT,
+                startupMode,
+                ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    HomeJourney.waitForHome(scope.getDevice());
+                    return Unit.INSTANCE;
+                });
+    }
+}
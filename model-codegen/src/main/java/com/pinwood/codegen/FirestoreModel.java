@@ -0,0 +1,21 @@
+package com.pinwood.codegen;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un modelo de Firestore para generar su codec {@code <Modelo>Codec} en el mismo paquete.
+ *
+ * El codec decodifica el mapa del documento en una sola pasada y lo codifica con un mapa
+ * de tamaño fijo. Cada campo de instancia (no estático ni transient) se lee y escribe con su
+ * getter y setter, usando el nombre del campo como clave del documento.
+ *
+ * Tipos admitidos: String, primitivos numéricos y booleanos (y sus envoltorios), Date,
+ * otros modelos anotados y listas de String o de modelos anotados.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface FirestoreModel {
+}
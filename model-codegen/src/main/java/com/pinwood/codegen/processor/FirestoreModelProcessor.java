@@ -0,0 +1,414 @@
+package com.pinwood.codegen.processor;
+
+import com.pinwood.codegen.FirestoreModel;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+/**
+ * Genera {@code <Modelo>Codec} para cada clase anotada con {@link FirestoreModel}.
+ *
+ * El código generado no depende de este módulo en tiempo de ejecución: los auxiliares
+ * (listas, conversión de fechas) se emiten dentro de cada codec, solo si se usan.
+ */
+public class FirestoreModelProcessor extends AbstractProcessor {
+    private static final String TIMESTAMP = "com.google.firebase.Timestamp";
+    // Cierre común de las copias de listas: un solo objeto para listas de un elemento
+    private static final String FREEZE =
+            "        if (count == 1) {\n            return Collections.singletonList(items[0]);\n        }\n"
+            + "        return Collections.unmodifiableList(Arrays.asList("
+            + "count == size ? items : Arrays.copyOf(items, count)));\n    }\n";
+
+    /**
+     * Forma en que se lee y escribe un campo.
+     */
+    private enum Kind {
+        STRING, DOUBLE, FLOAT, INT, LONG, BOOLEAN,
+        BOXED_DOUBLE, BOXED_FLOAT, BOXED_INT, BOXED_LONG, BOXED_BOOLEAN,
+        DATE, MODEL, STRING_LIST, MODEL_LIST
+    }
+
+    private static final class Field {
+        final String name;
+        final Kind kind;
+        // Tipo del modelo anidado (o del elemento de la lista) para MODEL y MODEL_LIST
+        final String modelType;
+        final String getter;
+        final String setter;
+
+        Field(String name, Kind kind, String modelType, String getter, String setter) {
+            this.name = name;
+            this.kind = kind;
+            this.modelType = modelType;
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        Set<String> types = new LinkedHashSet<>();
+        types.add(FirestoreModel.class.getCanonicalName());
+        return types;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(FirestoreModel.class)) {
+            if (element.getKind() != ElementKind.CLASS
+                    || ((TypeElement) element).getNestingKind() != NestingKind.TOP_LEVEL) {
+                error(element, "@FirestoreModel solo se admite en clases de primer nivel");
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            List<Field> fields = collectFields(type);
+            if (fields != null) {
+                write(type, fields);
+            }
+        }
+        return true;
+    }
+
+    private List<Field> collectFields(TypeElement type) {
+        if (!hasPublicNoArgConstructor(type)) {
+            error(type, "El modelo necesita un constructor público sin argumentos");
+            return null;
+        }
+
+        List<Field> fields = new ArrayList<>();
+        boolean valid = true;
+        for (Element member : type.getEnclosedElements()) {
+            if (member.getKind() != ElementKind.FIELD
+                    || member.getModifiers().contains(Modifier.STATIC)
+                    || member.getModifiers().contains(Modifier.TRANSIENT)) {
+                continue;
+            }
+            VariableElement variable = (VariableElement) member;
+            String name = variable.getSimpleName().toString();
+            TypeMirror fieldType = variable.asType();
+
+            Kind kind = kindOf(fieldType);
+            String modelType = null;
+            if (kind == Kind.MODEL) {
+                modelType = typeName(fieldType);
+            } else if (kind == Kind.MODEL_LIST) {
+                modelType = typeName(((DeclaredType) fieldType).getTypeArguments().get(0));
+            }
+            if (kind == null) {
+                error(variable, "Tipo no soportado por el codec: " + fieldType);
+                valid = false;
+                continue;
+            }
+
+            String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            String getter = kind == Kind.BOOLEAN && hasMethod(type, "is" + capitalized, 0)
+                    ? "is" + capitalized : "get" + capitalized;
+            String setter = "set" + capitalized;
+            if (!hasMethod(type, getter, 0) || !hasMethod(type, setter, 1)) {
+                error(variable, "Falta el getter o setter público de '" + name + "'");
+                valid = false;
+                continue;
+            }
+            fields.add(new Field(name, kind, modelType, getter, setter));
+        }
+        return valid ? fields : null;
+    }
+
+    private Kind kindOf(TypeMirror type) {
+        switch (type.getKind()) {
+            case DOUBLE:
+                return Kind.DOUBLE;
+            case FLOAT:
+                return Kind.FLOAT;
+            case INT:
+                return Kind.INT;
+            case LONG:
+                return Kind.LONG;
+            case BOOLEAN:
+                return Kind.BOOLEAN;
+            case DECLARED:
+                break;
+            default:
+                return null;
+        }
+
+        String name = typeName(type);
+        switch (name) {
+            case "java.lang.String":
+                return Kind.STRING;
+            case "java.lang.Double":
+                return Kind.BOXED_DOUBLE;
+            case "java.lang.Float":
+                return Kind.BOXED_FLOAT;
+            case "java.lang.Integer":
+                return Kind.BOXED_INT;
+            case "java.lang.Long":
+                return Kind.BOXED_LONG;
+            case "java.lang.Boolean":
+                return Kind.BOXED_BOOLEAN;
+            case "java.util.Date":
+                return Kind.DATE;
+            case "java.util.List": {
+                List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+                if (arguments.size() != 1) {
+                    return null;
+                }
+                TypeMirror element = arguments.get(0);
+                if (element.getKind() == TypeKind.DECLARED && "java.lang.String".equals(typeName(element))) {
+                    return Kind.STRING_LIST;
+                }
+                return isModel(element) ? Kind.MODEL_LIST : null;
+            }
+            default:
+                return isModel(type) ? Kind.MODEL : null;
+        }
+    }
+
+    private boolean isModel(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        Element element = ((DeclaredType) type).asElement();
+        return element.getAnnotation(FirestoreModel.class) != null;
+    }
+
+    private static String typeName(TypeMirror type) {
+        return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+    }
+
+    private static boolean hasPublicNoArgConstructor(TypeElement type) {
+        for (Element member : type.getEnclosedElements()) {
+            if (member.getKind() == ElementKind.CONSTRUCTOR
+                    && member.getModifiers().contains(Modifier.PUBLIC)
+                    && ((ExecutableElement) member).getParameters().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasMethod(TypeElement type, String name, int parameters) {
+        for (Element member : type.getEnclosedElements()) {
+            if (member.getKind() == ElementKind.METHOD
+                    && member.getModifiers().contains(Modifier.PUBLIC)
+                    && member.getSimpleName().contentEquals(name)
+                    && ((ExecutableElement) member).getParameters().size() == parameters) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ----- Generación -----
+
+    private void write(TypeElement type, List<Field> fields) {
+        String packageName = ((PackageElement) type.getEnclosingElement()).getQualifiedName().toString();
+        String modelName = type.getSimpleName().toString();
+        String codecName = modelName + "Codec";
+        boolean timestamps = processingEnv.getElementUtils().getTypeElement(TIMESTAMP) != null;
+
+        StringBuilder out = new StringBuilder(4096);
+        out.append("package ").append(packageName).append(";\n\n");
+        out.append("import java.util.ArrayList;\n");
+        out.append("import java.util.Arrays;\n");
+        out.append("import java.util.Collections;\n");
+        out.append("import java.util.Date;\n");
+        out.append("import java.util.HashMap;\n");
+        out.append("import java.util.List;\n");
+        out.append("import java.util.Map;\n\n");
+        out.append("/**\n * Codec generado por FirestoreModelProcessor para {@link ").append(modelName)
+                .append("}. No editar.\n */\n");
+        out.append("@SuppressWarnings({\"unchecked\", \"unused\"})\n");
+        out.append("public final class ").append(codecName).append(" {\n");
+        // Capacidad para que el mapa de toMap no se redimensione con el factor de carga por defecto
+        out.append("    private static final int MAP_CAPACITY = ")
+                .append((int) (fields.size() / 0.75f) + 1).append(";\n\n");
+        out.append("    private ").append(codecName).append("() {\n    }\n\n");
+
+        writeDecode(out, modelName, fields, timestamps);
+        writeEncode(out, modelName, fields);
+        writeHelpers(out, fields, timestamps);
+
+        out.append("}\n");
+
+        try (Writer writer = processingEnv.getFiler()
+                .createSourceFile(packageName + "." + codecName, type).openWriter()) {
+            writer.write(out.toString());
+        } catch (IOException e) {
+            error(type, "No se pudo generar " + codecName + ": " + e.getMessage());
+        }
+    }
+
+    private void writeDecode(StringBuilder out, String modelName, List<Field> fields, boolean timestamps) {
+        // Una búsqueda por campo: los documentos son HashMap con pocas claves, y así no se crea
+        // iterador ni se compara cada clave del documento con las del modelo
+        out.append("    /**\n     * Decodifica el mapa de un documento con una búsqueda por campo.\n")
+                .append("     * Las claves ausentes o nulas conservan el valor del constructor; las desconocidas\n")
+                .append("     * y los valores de tipo inesperado se ignoran.\n     */\n");
+        out.append("    public static ").append(modelName).append(" decode(Map<String, Object> map) {\n");
+        out.append("        if (map == null) {\n            return null;\n        }\n\n");
+        out.append("        ").append(modelName).append(" value = new ").append(modelName).append("();\n");
+        out.append("        Object raw;\n");
+        for (Field field : fields) {
+            out.append("        if ((raw = map.get(\"").append(field.name).append("\")) != null) {\n");
+            out.append("            ").append(decodeStatement(field, timestamps)).append("\n");
+            out.append("        }\n");
+        }
+        out.append("        return value;\n    }\n\n");
+    }
+
+    private static String decodeStatement(Field field, boolean timestamps) {
+        String set = "value." + field.setter + "(";
+        switch (field.kind) {
+            case STRING:
+                return set + "raw instanceof String ? (String) raw : null);";
+            case DOUBLE:
+                return "if (raw instanceof Number) " + set + "((Number) raw).doubleValue());";
+            case FLOAT:
+                return "if (raw instanceof Number) " + set + "((Number) raw).floatValue());";
+            case INT:
+                return "if (raw instanceof Number) " + set + "((Number) raw).intValue());";
+            case LONG:
+                return "if (raw instanceof Number) " + set + "((Number) raw).longValue());";
+            case BOOLEAN:
+                return "if (raw instanceof Boolean) " + set + "(Boolean) raw);";
+            case BOXED_DOUBLE:
+                return set + "raw instanceof Double ? (Double) raw"
+                        + " : raw instanceof Number ? Double.valueOf(((Number) raw).doubleValue()) : null);";
+            case BOXED_FLOAT:
+                return set + "raw instanceof Number ? Float.valueOf(((Number) raw).floatValue()) : null);";
+            case BOXED_INT:
+                return set + "raw instanceof Number ? Integer.valueOf(((Number) raw).intValue()) : null);";
+            case BOXED_LONG:
+                return set + "raw instanceof Long ? (Long) raw"
+                        + " : raw instanceof Number ? Long.valueOf(((Number) raw).longValue()) : null);";
+            case BOXED_BOOLEAN:
+                return set + "raw instanceof Boolean ? (Boolean) raw : null);";
+            case DATE:
+                return set + (timestamps ? "toDate(raw));" : "raw instanceof Date ? (Date) raw : null);");
+            case MODEL:
+                return set + "raw instanceof Map ? " + field.modelType
+                        + "Codec.decode((Map<String, Object>) raw) : null);";
+            case STRING_LIST:
+                return "if (raw instanceof List) " + set + "toStrings((List<?>) raw));";
+            case MODEL_LIST:
+                return "if (raw instanceof List) " + set + "decode" + simpleName(field.modelType)
+                        + "List((List<?>) raw));";
+            default:
+                throw new IllegalStateException(field.kind.name());
+        }
+    }
+
+    private static void writeEncode(StringBuilder out, String modelName, List<Field> fields) {
+        out.append("    /**\n     * Mapa listo para Firestore; los modelos anidados nulos se omiten.\n     */\n");
+        out.append("    public static Map<String, Object> encode(").append(modelName).append(" value) {\n");
+        out.append("        Map<String, Object> map = new HashMap<>(MAP_CAPACITY);\n");
+        for (Field field : fields) {
+            String get = "value." + field.getter + "()";
+            switch (field.kind) {
+                case MODEL:
+                    out.append("        if (").append(get).append(" != null) {\n");
+                    out.append("            map.put(\"").append(field.name).append("\", ")
+                            .append(field.modelType).append("Codec.encode(").append(get).append("));\n");
+                    out.append("        }\n");
+                    break;
+                case MODEL_LIST:
+                    out.append("        map.put(\"").append(field.name).append("\", encode")
+                            .append(simpleName(field.modelType)).append("List(").append(get).append("));\n");
+                    break;
+                default:
+                    out.append("        map.put(\"").append(field.name).append("\", ").append(get).append(");\n");
+                    break;
+            }
+        }
+        out.append("        return map;\n    }\n");
+    }
+
+    private static void writeHelpers(StringBuilder out, List<Field> fields, boolean timestamps) {
+        Set<String> written = new LinkedHashSet<>();
+        for (Field field : fields) {
+            if (field.kind == Kind.STRING_LIST && written.add("strings")) {
+                out.append("\n    // Vista inmutable de la lista del documento (getData() crea listas nuevas en cada\n")
+                        .append("    // llamada); solo se copia si trae elementos que no son texto\n");
+                out.append("    private static List<String> toStrings(List<?> source) {\n");
+                out.append("        int size = source.size();\n");
+                out.append("        if (size == 0) {\n            return Collections.emptyList();\n        }\n");
+                out.append("        int valid = 0;\n");
+                out.append("        while (valid < size && source.get(valid) instanceof String) {\n");
+                out.append("            valid++;\n        }\n");
+                out.append("        if (valid == size) {\n");
+                out.append("            return Collections.unmodifiableList((List<String>) source);\n        }\n");
+                out.append("        String[] items = new String[size];\n");
+                out.append("        int count = 0;\n");
+                out.append("        for (int i = 0; i < size; i++) {\n");
+                out.append("            Object item = source.get(i);\n");
+                out.append("            if (item instanceof String) {\n");
+                out.append("                items[count++] = (String) item;\n            }\n        }\n");
+                out.append(FREEZE);
+            } else if (field.kind == Kind.MODEL_LIST && written.add("models:" + field.modelType)) {
+                String simple = simpleName(field.modelType);
+                out.append("\n    private static List<").append(field.modelType).append("> decode")
+                        .append(simple).append("List(List<?> source) {\n");
+                out.append("        int size = source.size();\n");
+                out.append("        if (size == 0) {\n            return Collections.emptyList();\n        }\n");
+                out.append("        ").append(field.modelType).append("[] items = new ")
+                        .append(field.modelType).append("[size];\n");
+                out.append("        int count = 0;\n");
+                out.append("        for (int i = 0; i < size; i++) {\n");
+                out.append("            Object item = source.get(i);\n");
+                out.append("            if (item instanceof Map) {\n");
+                out.append("                items[count++] = ").append(field.modelType)
+                        .append("Codec.decode((Map<String, Object>) item);\n            }\n        }\n");
+                out.append(FREEZE);
+
+                out.append("\n    private static List<Map<String, Object>> encode").append(simple)
+                        .append("List(List<").append(field.modelType).append("> source) {\n");
+                out.append("        if (source == null) {\n            return null;\n        }\n");
+                out.append("        List<Map<String, Object>> maps = new ArrayList<>(source.size());\n");
+                out.append("        for (").append(field.modelType).append(" item : source) {\n");
+                out.append("            maps.add(item != null ? ").append(field.modelType)
+                        .append("Codec.encode(item) : null);\n        }\n");
+                out.append("        return maps;\n    }\n");
+            } else if (field.kind == Kind.DATE && timestamps && written.add("date")) {
+                out.append("\n    // Firestore entrega las fechas como Timestamp; se aceptan también Date\n");
+                out.append("    private static Date toDate(Object raw) {\n");
+                out.append("        if (raw instanceof Date) {\n            return (Date) raw;\n        }\n");
+                out.append("        return raw instanceof ").append(TIMESTAMP)
+                        .append(" ? ((").append(TIMESTAMP).append(") raw).toDate() : null;\n    }\n");
+            }
+        }
+    }
+
+    private static String simpleName(String qualifiedName) {
+        return qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}